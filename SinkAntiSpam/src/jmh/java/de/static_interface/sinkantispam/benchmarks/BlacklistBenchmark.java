@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.benchmarks;
+
+import de.static_interface.sinkantispam.filter.BlacklistFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compares the precompiled {@link BlacklistFilter} with compiling and matching every rule for each message,
+ * which is what SinkAntiSpamListener did before. Three of four rules are plain words, the others are regular expressions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlacklistBenchmark {
+
+    private static final String CLEAN_MESSAGE = "Hey, does anyone want to join me building the new spawn tower tonight?";
+    private static final String BAD_MESSAGE = "Hey, does anyone want to join me building the new badword5 tower tonight?";
+
+    @Param({"10", "100", "1000"})
+    public int rules;
+
+    private List<String> words;
+    private BlacklistFilter filter;
+
+    @Setup
+    public void setup() {
+        words = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            words.add(i % 4 == 3 ? "spam" + i + "[0-9]+" : "badword" + i);
+        }
+        filter = BlacklistFilter.compile(words, Logger.getAnonymousLogger());
+    }
+
+    @Benchmark
+    public Object compiledClean() {
+        return filter.findAll(CLEAN_MESSAGE);
+    }
+
+    @Benchmark
+    public Object compiledMatch() {
+        return filter.findAll(BAD_MESSAGE);
+    }
+
+    @Benchmark
+    public Object perMessageClean() {
+        return findPerMessage(CLEAN_MESSAGE, words);
+    }
+
+    @Benchmark
+    public Object perMessageMatch() {
+        return findPerMessage(BAD_MESSAGE, words);
+    }
+
+    // The blacklist check before the rules were precompiled
+    private static String findPerMessage(String input, List<String> blacklistedWords) {
+        for (String s : blacklistedWords) {
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(s);
+            } catch (PatternSyntaxException e) {
+                continue;
+            }
+            Matcher matcher = pattern.matcher(input);
+            if (matcher.find()) {
+                return input;
+            }
+        }
+        return null;
+    }
+}
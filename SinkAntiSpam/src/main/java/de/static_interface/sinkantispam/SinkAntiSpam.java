@@ -17,6 +17,7 @@
 
 package de.static_interface.sinkantispam;
 
+import de.static_interface.sinkantispam.cache.WarningPointsCache;
 import de.static_interface.sinkantispam.command.CreatePredefinedWarningCommand;
 import de.static_interface.sinkantispam.command.DeletePredefinedWarningCommand;
 import de.static_interface.sinkantispam.command.DeleteWarnCommand;
@@ -28,6 +29,7 @@ import de.static_interface.sinkantispam.config.SasSettings;
 import de.static_interface.sinkantispam.database.table.PredefinedWarningsTable;
 import de.static_interface.sinkantispam.database.table.WarnedPlayersTable;
 import de.static_interface.sinkantispam.database.table.WarningsTable;
+import de.static_interface.sinkantispam.queue.WarningQueue;
 import de.static_interface.sinkantispam.sanction.WarningSanction;
 import de.static_interface.sinkantispam.sanction.impl.BanWarningSanction;
 import de.static_interface.sinkantispam.sanction.impl.CommandWarningSanction;
@@ -55,6 +57,8 @@ public class SinkAntiSpam extends JavaPlugin {
     private WarningsTable warningsTable;
     private PredefinedWarningsTable predefinedWarningsTable;
     private WarnedPlayersTable warnedPlayersTable;
+    private WarningQueue warningQueue;
+    private WarningPointsCache warningPointsCache;
     private Database db;
     private List<WarningSanction> registeredSanctions = new ArrayList<>();
 
@@ -114,7 +118,17 @@ public class SinkAntiSpam extends JavaPlugin {
 
         instance = this;
 
-        Bukkit.getPluginManager().registerEvents(new SinkAntiSpamListener(), this);
+        warningPointsCache = new WarningPointsCache();
+        warningQueue = new WarningQueue(this);
+        warningQueue.start();
+        SinkLibrary.getInstance().registerDebugStats("antispam", () -> {
+            WarningPointsCache cache = warningPointsCache;
+            return "Warning points cache: " + cache.size() + " players, hits: " + cache.getHits() + ", misses: " + cache.getMisses()
+                   + ", evicted: " + cache.getEvictions() + ", expired warnings: " + cache.getExpiredWarnings() + ", max expiry lag: "
+                   + cache.getMaxExpiryLag() + " ms";
+        });
+
+        SinkLibrary.getInstance().registerListener(new SinkAntiSpamListener(), this);
         SinkLibrary.getInstance().registerCommand("warn", new WarnCommand(this, commandsConfig));
         SinkLibrary.getInstance().registerCommand("listwarnings", new ListWarnsCommand(this, commandsConfig));
         SinkLibrary.getInstance().registerCommand("deletewarning", new DeleteWarnCommand(this, commandsConfig));
@@ -148,6 +162,16 @@ public class SinkAntiSpam extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (warningQueue != null) {
+            warningQueue.stop();
+        }
+
+        if (warningPointsCache != null) {
+            warningPointsCache.clear();
+        }
+        WarnUtil.clearWarnedPlayers();
+        SinkLibrary.getInstance().unregisterDebugStats("antispam");
+
         instance = null;
         registeredSanctions.clear();
 
@@ -171,6 +195,10 @@ public class SinkAntiSpam extends JavaPlugin {
         return SinkLibrary.getInstance().validateApiVersion(SinkLibrary.API_VERSION, this);
     }
 
+    public Database getDatabase() {
+        return db;
+    }
+
     public WarningsTable getWarningsTable() {
         return warningsTable;
     }
@@ -182,4 +210,12 @@ public class SinkAntiSpam extends JavaPlugin {
     public WarnedPlayersTable getWarnedPlayersTable() {
         return warnedPlayersTable;
     }
+
+    public WarningQueue getWarningQueue() {
+        return warningQueue;
+    }
+
+    public WarningPointsCache getWarningPointsCache() {
+        return warningPointsCache;
+    }
 }
@@ -22,6 +22,7 @@ import static de.static_interface.sinklibrary.Constants.COMMAND_PREFIX;
 
 import de.static_interface.sinkantispam.config.SasLanguage;
 import de.static_interface.sinkantispam.config.SasSettings;
+import de.static_interface.sinkantispam.filter.BlacklistFilter;
 import de.static_interface.sinkantispam.warning.BlacklistWarning;
 import de.static_interface.sinkantispam.warning.DomainWarning;
 import de.static_interface.sinkantispam.warning.IpWarning;
@@ -42,11 +43,12 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 public class SinkAntiSpamListener implements Listener {
 
     public static final int SPAM_DELAY = 750; // Todo make configurable
+    private static final Pattern IP_PATTERN = Pattern.compile("\\b\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\b");
+    private static volatile BlacklistFilter blacklistFilter;
     private Map<UUID, String> lastMessages = new ConcurrentHashMap<>();
     private Map<UUID, Long> lastMessagesTime = new ConcurrentHashMap<>();
 
@@ -57,14 +59,11 @@ public class SinkAntiSpamListener implements Listener {
 
         message = ChatColor.stripColor(message);
 
-        Pattern pattern;
-        Matcher matcher;
         if (SasSettings.SAS_IPFILTER_ENABLED.getValue()) {
-            pattern = Pattern.compile("\\b\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\b");
-            matcher = pattern.matcher(message);
+            Matcher matcher = IP_PATTERN.matcher(message);
             if (matcher.find()) {
                 String ip = matcher.group(0);
-                WarnUtil.performWarning(new IpWarning(user, ip, WarnUtil.getNextWarningId(user)), SinkLibrary.getInstance().getConsoleUser());
+                WarnUtil.performWarning(user, new IpWarning(user, ip), SinkLibrary.getInstance().getConsoleUser());
                 result.setResultcode(WarnResult.CENSOR);
                 result.setCensoredMessage(message.replace(ip, SasLanguage.SAS_REPLACE_IP.format()));
                 return result;
@@ -78,55 +77,48 @@ public class SinkAntiSpamListener implements Listener {
                     continue;
                 }
 
-                if (isBlackListed(word, SasSettings.SAS_WHITELISTED_DOMAINS.getValue(), false) != null) {
+                if (isBlackListed(word, SasSettings.SAS_WHITELISTED_DOMAINS.getValue()) != null) {
                     return result;
                 }
-                WarnUtil.performWarning(new DomainWarning(user, word, WarnUtil.getNextWarningId(user)), SinkLibrary.getInstance().getConsoleUser());
+                WarnUtil.performWarning(user, new DomainWarning(user, word), SinkLibrary.getInstance().getConsoleUser());
                 result.setResultcode(WarnResult.CENSOR);
                 result.setCensoredMessage(message.replace(word, SasLanguage.SAS_REPLACE_DOMAIN.format()));
             }
             return result;
         }
         if (SasSettings.SAS_BLACKLIST_ENABLED.getValue()) {
-            String blacklistWord = isBlackListed(message, SasSettings.SAS_BLACKLISED_WORDS.getValue(), true);
-            if (blacklistWord != null) {
-                blacklistWord = blacklistWord.trim();
-                String
-                        warnMessage =
-                        message.replace(blacklistWord, ChatColor.BLUE + "" + ChatColor.BOLD + ChatColor.UNDERLINE + blacklistWord + ChatColor.RESET);
-                WarnUtil.performWarning(new BlacklistWarning(user, warnMessage, WarnUtil.getNextWarningId(user)),
-                                        SinkLibrary.getInstance().getConsoleUser());
-                result.setResultcode(WarnResult.CANCEL);
-                String tmp = "";
-                for (int i = 0; i < blacklistWord.length(); i++) {
-                    tmp += "*";
-                }
+            List<BlacklistFilter.Match> matches = getBlacklistFilter().findAll(message);
+            if (!matches.isEmpty()) {
+                String warnMessage = BlacklistFilter.highlight(message, matches, ChatColor.BLUE + "" + ChatColor.BOLD + ChatColor.UNDERLINE,
+                                                               ChatColor.RESET.toString());
+                WarnUtil.performWarning(user, new BlacklistWarning(user, warnMessage), SinkLibrary.getInstance().getConsoleUser());
                 result.setResultcode(WarnResult.CENSOR);
-                result.setCensoredMessage(message.replace(blacklistWord, tmp));
+                result.setCensoredMessage(BlacklistFilter.censor(message, matches, '*'));
                 return result;
             }
         }
         return result;
     }
 
-    private static String isBlackListed(String input, List<String> blacklistedWords, boolean isRegex) {
+    /**
+     * @return the compiled blacklist, it will be recompiled if the blacklisted words have changed
+     */
+    public static BlacklistFilter getBlacklistFilter() {
+        List<String> words = SasSettings.SAS_BLACKLISED_WORDS.getValue();
+        BlacklistFilter filter = blacklistFilter;
+        // Comparing by identity is enough because YamlOption caches the loaded list until the option is reloaded or set.
+        // If the option ever returned a new list on each call, the filter would be recompiled for every message.
+        if (filter == null || filter.getRules() != words) {
+            filter = BlacklistFilter.compile(words, SinkAntiSpam.getInstance().getLogger());
+            blacklistFilter = filter;
+        }
+        return filter;
+    }
+
+    private static String isBlackListed(String input, List<String> blacklistedWords) {
         for (String s : blacklistedWords) {
-            if (isRegex) {
-                Pattern pattern;
-                try {
-                    pattern = Pattern.compile(s);
-                } catch (PatternSyntaxException e) {
-                    SinkAntiSpam.getInstance().getLogger().warning("Wrong regex: " + s);
-                    continue;
-                }
-                Matcher matcher = pattern.matcher(input);
-                if (matcher.find()) {
-                    return input;
-                }
-            } else {
-                if (input.contains(s)) {
-                    return s;
-                }
+            if (input.contains(s)) {
+                return s;
             }
         }
         return null;
@@ -29,143 +29,97 @@ import de.static_interface.sinkantispam.database.row.Warning;
 import de.static_interface.sinkantispam.database.table.PredefinedWarningsTable;
 import de.static_interface.sinkantispam.database.table.WarnedPlayersTable;
 import de.static_interface.sinkantispam.database.table.WarningsTable;
+import de.static_interface.sinkantispam.queue.WarningQueue;
+import de.static_interface.sinkantispam.sanction.SanctionLadder;
 import de.static_interface.sinkantispam.sanction.WarningSanction;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.user.IdentifiableUser;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinksql.query.Order;
-import de.static_interface.sinklibrary.stream.BukkitBroadcastStream;
 import de.static_interface.sinklibrary.user.IngameUser;
 import de.static_interface.sinklibrary.user.IrcUser;
-import de.static_interface.sinklibrary.util.StringUtil;
 import org.bukkit.ChatColor;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 public class WarnUtil {
 
-    static String prefix = SasLanguage.SAS_PREFIX.format() + ' ' + ChatColor.RESET;
+    private static final Map<UUID, WarnedPlayer> warnedPlayers = new ConcurrentHashMap<>();
+    private static volatile SanctionLadder sanctionLadder;
 
+    public static String getPrefix() {
+        return SasLanguage.SAS_PREFIX.format() + ' ' + ChatColor.RESET;
+    }
+
+    /**
+     * Warn a player. The warning will be processed asynchronously by the {@link WarningQueue}
+     * @param warning the warning, {@link Warning#userId} has to be set
+     * @param warner the user who issued the warning
+     */
     public static void performWarning(Warning warning, SinkUser warner) {
         WarnedPlayer wPlayer = getWarnedPlayer(warning.userId);
         IngameUser target = SinkLibrary.getInstance().getIngameUser(UUID.fromString(wPlayer.playerUuid));
-        int pointsBefore = getPoints(target);
-        addWarning(warning);
-
-        String message = prefix + SasLanguage.SAS_WARN_MESSAGE.format(warner, target, null, warning.reason, warning.points);
-        String perm;
-        if (warning.isAutoWarning) {
-            perm = "sinkantispam.autowarnmessage";
-        } else {
-            perm = "sinkantispam.warnmessage";
-        }
-
-        if (warning.isAutoWarning) {
-            SinkLibrary.getInstance().getMessageStream("sas_autowarning", BukkitBroadcastStream.class).sendMessage(null, message, perm);
-        } else {
-            SinkLibrary.getInstance().getMessageStream("sas_warning", BukkitBroadcastStream.class).sendMessage(null, message, perm);
-        }
-
-        if (target.isOnline() && !target.hasPermission(perm)) {
-            target.sendMessage(message);
-        }
-
-        int pointsNow = getPoints(target);
-        int matched = -1;
-        List<String> strings = null;
-        for (int i : getConfigSanctions().keySet()) {
-            if (i == pointsNow) {
-                matched = i;
-                break;
-            }
+        performWarning(target, warning, warner);
+    }
 
-            if (pointsBefore < i && pointsNow > i && i > matched) {
-                matched = i;
-            }
-        }
+    /**
+     * Warn a player. The warning will be processed asynchronously by the {@link WarningQueue}, which
+     * also assigns {@link Warning#userId} and {@link Warning#userWarningId} if they haven't been set
+     * @param target the warned player
+     * @param warning the warning
+     * @param warner the user who issued the warning
+     */
+    public static void performWarning(IngameUser target, Warning warning, SinkUser warner) {
+        SinkAntiSpam.getInstance().getWarningQueue().addToQueue(target, warning, warner);
+    }
 
-        if (matched != -1) {
-            strings = getConfigSanctions().get(matched);
+    public static SanctionLadder getSanctionLadder() {
+        List<String> rules = SasSettings.SAS_SANCTIONS.getValue();
+        SanctionLadder ladder = sanctionLadder;
+        if (ladder == null || ladder.getRules() != rules) {
+            ladder = SanctionLadder.compile(rules, SinkAntiSpam.getInstance().getLogger());
+            sanctionLadder = ladder;
         }
+        return ladder;
+    }
 
-        if (strings == null) {
-            return;
-        }
+    /**
+     * @param pointsBefore points before the warning
+     * @param pointsNow points after the warning
+     * @return the sanction which has been reached or null if no sanction threshold has been reached
+     */
+    @Nullable
+    public static SanctionLadder.Step getSanction(int pointsBefore, int pointsNow) {
+        return getSanctionLadder().getCrossed(pointsBefore, pointsNow);
+    }
 
-        String name = strings.get(0);
-        WarningSanction sanction = SinkAntiSpam.getInstance().getWarningSanction(name);
+    /**
+     * Execute a sanction, has to be called from the main thread
+     * @param target the target of the sanction
+     * @param step the sanction as returned by {@link #getSanction(int, int)}
+     */
+    public static void executeSanction(IngameUser target, SanctionLadder.Step step) {
+        WarningSanction sanction = SinkAntiSpam.getInstance().getWarningSanction(step.getSanction());
         if (sanction == null) {
-            SinkAntiSpam.getInstance().getLogger().warning("Sanction type not found: " + name);
+            SinkAntiSpam.getInstance().getLogger().warning("Sanction type not found: " + step.getSanction());
             return;
         }
-        String[] args = new String[strings.size() - 1];
-
-        int i = 0;
-        boolean skipped = false;
-        for (String s : strings) {
-            if (!skipped) {
-                skipped = true;
-                continue;
-            }
-
-            args[i] = s;
-            i++;
-        }
 
-        sanction.execute(target, args);
+        sanction.execute(target, step.getArgs());
     }
 
-    private static Map<Integer, List<String>> getConfigSanctions() {
-        Map<Integer, List<String>> map = new HashMap<>();
-        for (String s : SasSettings.SAS_SANCTIONS.getValue()) {
-            String[] splits = s.split(":");
-            if (splits.length < 2 || StringUtil.isEmptyOrNull(splits[1])) {
-                SinkAntiSpam.getInstance().getLogger().warning("Couldn't parse sanction: " + s + ": Invalid format");
-                continue;
-            }
-
-            Integer points;
-            try {
-                points = Integer.valueOf(splits[0]);
-            } catch (Exception e) {
-                SinkAntiSpam.getInstance().getLogger().warning("Couldn't parse sanction: " + s + ": Invalid points: " + splits[0]);
-                continue;
-            }
-
-            if (map.containsKey(points)) {
-                SinkAntiSpam.getInstance().getLogger().warning("Couldn't parse sanction: " + s + ": Points already added: " + points);
-                continue;
-            }
-
-            String label = "";
-            for (String a : splits) {
-                if (label.equalsIgnoreCase("")) {
-                    label = a;
-                    continue;
-                }
-                label += ":" + a;
-
-            }
-
-            splits = label.split(" ");
-            List<String> args = new ArrayList<>();
-            args.addAll(Arrays.asList(splits).subList(1, splits.length));
-            map.put(points, args);
-        }
-
-        return map;
+    public static List<Warning> getWarnings(IngameUser user, boolean includeDeleted) {
+        return getWarnings(getWarnedPlayer(user).id, includeDeleted);
     }
 
-    public static List<Warning> getWarnings(IngameUser user, boolean includeDeleted) {
-        int userId = getWarnedPlayer(user).id;
+    public static List<Warning> getWarnings(int userId, boolean includeDeleted) {
         Warning[] warnings;
         if (!includeDeleted) {
             warnings = from(SinkAntiSpam.getInstance().getWarningsTable()).select()
@@ -188,17 +142,7 @@ public class WarnUtil {
     }
 
     public static int getNextWarningId(IngameUser user) {
-        return getWarnings(user, true).size() + 1;
-    }
-
-    public static void addWarning(Warning warning) {
-        WarnedPlayer wPlayer = getWarnedPlayer(warning.userId);
-        IngameUser user = SinkLibrary.getInstance().getIngameUser(UUID.fromString(wPlayer.playerUuid));
-        if (wPlayer.deleted_points > 0 && getWarnings(user, false).size() == 0) {
-            setDeletedPoints(wPlayer, 0);
-        }
-
-        SinkAntiSpam.getInstance().getWarningsTable().insert(warning);
+        return SinkAntiSpam.getInstance().getWarningPointsCache().getNextWarningId(getWarnedPlayer(user));
     }
 
     @Nullable
@@ -222,6 +166,8 @@ public class WarnUtil {
                 .set("delete_time", "?")
                 .where("id", eq("?"))
                 .execute(name, uuid == null ? null : uuid.toString(), System.currentTimeMillis(), warning.id);
+        warning.isDeleted = true;
+        SinkAntiSpam.getInstance().getWarningPointsCache().onWarningDeleted(warning);
     }
 
     public static PredefinedWarning getPredefinedWarning(String name) {
@@ -229,7 +175,17 @@ public class WarnUtil {
         return from(tbl).select().where("nameId", eq("?")).get(name);
     }
 
+    /**
+     * @param user the user
+     * @return the database row of the user, it's inserted if the user has never been warned before.
+     *         Rows are cached, so only the first call for a user queries the database
+     */
     public static WarnedPlayer getWarnedPlayer(IngameUser user) {
+        WarnedPlayer cached = warnedPlayers.get(user.getUniqueId());
+        if (cached != null) {
+            return cached;
+        }
+
         WarnedPlayer
                 result =
                 from(SinkAntiSpam.getInstance().getWarnedPlayersTable())
@@ -237,9 +193,17 @@ public class WarnUtil {
                         .where("player_uuid", eq("?"))
                         .get(user.getUniqueId().toString());
         if (result == null) {
-            return insertWarnedUser(user);
+            result = insertWarnedUser(user);
         }
-        return result;
+        cached = warnedPlayers.putIfAbsent(user.getUniqueId(), result);
+        return cached != null ? cached : result;
+    }
+
+    /**
+     * Forget the cached database rows of the warned players
+     */
+    public static void clearWarnedPlayers() {
+        warnedPlayers.clear();
     }
 
     public static void setDeletedPoints(WarnedPlayer wPlayer, int points) {
@@ -249,17 +213,12 @@ public class WarnUtil {
 
         WarnedPlayersTable table = SinkAntiSpam.getInstance().getWarnedPlayersTable();
         from(table).update().set("deleted_points", "?").where("id", eq("?")).execute(points, wPlayer.id);
+        wPlayer.deleted_points = points;
+        SinkAntiSpam.getInstance().getWarningPointsCache().onDeletedPointsChanged(wPlayer.id, points);
     }
 
     public static int getPoints(IngameUser target) {
-        int points = 0;
-        WarnedPlayer player = getWarnedPlayer(target);
-        for (Warning warning : getWarnings(target, false)) {
-            points += warning.points;
-        }
-
-        points -= player.deleted_points;
-        return points;
+        return SinkAntiSpam.getInstance().getWarningPointsCache().getPoints(getWarnedPlayer(target));
     }
 
     private static WarnedPlayer insertWarnedUser(IngameUser user) {
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.cache;
+
+import de.static_interface.sinkantispam.WarnUtil;
+import de.static_interface.sinkantispam.database.row.WarnedPlayer;
+import de.static_interface.sinkantispam.database.row.Warning;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the warning points of players in memory. Entries are loaded once from the database and updated
+ * incrementally afterwards; expiring warnings are kept in an index ordered by their expire time, so only the
+ * warnings which actually expired have to be looked at. Warnings are loaded from the database without holding
+ * the lock of the cache, so a lookup of a player who isn't cached yet doesn't block lookups of other players.
+ * Players who haven't been looked up for {@link #ENTRY_TTL} milliseconds are evicted.
+ */
+public class WarningPointsCache {
+
+    public static final long ENTRY_TTL = TimeUnit.MINUTES.toMillis(30);
+    private static final long EVICTION_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private final Map<Integer, PlayerPoints> entries = new ConcurrentHashMap<>();
+    private final TreeSet<Expiry> expiries = new TreeSet<>();
+
+    // Incremented whenever warnings of a player who isn't cached change, guarded by this
+    private long uncachedChanges;
+    private long nextEviction;
+
+    private long hits;
+    private long misses;
+    private long expiredWarnings;
+    private long maxExpiryLag;
+    private long evictions;
+
+    /**
+     * @param wPlayer the player
+     * @return the current points of the player, deleted points already subtracted
+     */
+    public int getPoints(WarnedPlayer wPlayer) {
+        PlayerPoints entry = getEntry(wPlayer);
+        synchronized (this) {
+            return entry.points - entry.deletedPoints;
+        }
+    }
+
+    /**
+     * @param wPlayer the player
+     * @return amount of warnings which are neither deleted nor expired
+     */
+    public int getActiveWarnings(WarnedPlayer wPlayer) {
+        PlayerPoints entry = getEntry(wPlayer);
+        synchronized (this) {
+            return entry.activeWarnings.size();
+        }
+    }
+
+    /**
+     * @param wPlayer the player
+     * @return the deleted points of the player
+     */
+    public int getDeletedPoints(WarnedPlayer wPlayer) {
+        PlayerPoints entry = getEntry(wPlayer);
+        synchronized (this) {
+            return entry.deletedPoints;
+        }
+    }
+
+    /**
+     * @param wPlayer the player
+     * @return the id the next warning of the player should get
+     */
+    public int getNextWarningId(WarnedPlayer wPlayer) {
+        PlayerPoints entry = getEntry(wPlayer);
+        synchronized (this) {
+            return entry.nextWarningId;
+        }
+    }
+
+    /**
+     * Has to be called after a warning has been inserted into the database
+     * @param warning the new warning
+     */
+    public synchronized void onWarningAdded(Warning warning) {
+        PlayerPoints entry = entries.get(warning.userId);
+        if (entry == null) {
+            // Not cached yet, the warning will be included when the entry is loaded
+            uncachedChanges++;
+            return;
+        }
+        entry.nextWarningId = Math.max(entry.nextWarningId, warning.userWarningId + 1);
+        add(entry, warning);
+    }
+
+    /**
+     * Has to be called after a warning has been marked as deleted
+     * @param warning the deleted warning
+     */
+    public synchronized void onWarningDeleted(Warning warning) {
+        PlayerPoints entry = entries.get(warning.userId);
+        if (entry == null) {
+            uncachedChanges++;
+            return;
+        }
+        remove(entry, warning.userWarningId);
+    }
+
+    /**
+     * Has to be called after the deleted points of a player have been changed
+     * @param userId id of the {@link WarnedPlayer}
+     * @param points the new deleted points
+     */
+    public synchronized void onDeletedPointsChanged(int userId, int points) {
+        PlayerPoints entry = entries.get(userId);
+        if (entry == null) {
+            uncachedChanges++;
+            return;
+        }
+        entry.deletedPoints = points;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        expiries.clear();
+    }
+
+    /**
+     * @return Amount of lookups which have been answered from memory
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Amount of lookups which had to load the player from the database
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Amount of warnings which have been removed from the cached points because they expired
+     */
+    public synchronized long getExpiredWarnings() {
+        return expiredWarnings;
+    }
+
+    /**
+     * @return The longest time in milliseconds an expired warning was still counted before it was removed
+     */
+    public synchronized long getMaxExpiryLag() {
+        return maxExpiryLag;
+    }
+
+    /**
+     * @return Amount of players which have been removed from the cache because they haven't been looked up for a while
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return Amount of cached players
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private PlayerPoints getEntry(WarnedPlayer wPlayer) {
+        while (true) {
+            long changes;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                expire(now);
+                evictIdle(now);
+                PlayerPoints entry = entries.get(wPlayer.id);
+                if (entry != null) {
+                    hits++;
+                    entry.lastAccess = now;
+                    return entry;
+                }
+                misses++;
+                changes = uncachedChanges;
+            }
+
+            // Don't block other lookups while waiting for the database
+            List<Warning> warnings = WarnUtil.getWarnings(wPlayer.id, true);
+
+            synchronized (this) {
+                PlayerPoints entry = entries.get(wPlayer.id);
+                if (entry != null) {
+                    // Loaded by an other thread in the meantime
+                    entry.lastAccess = System.currentTimeMillis();
+                    return entry;
+                }
+                if (changes != uncachedChanges) {
+                    // Warnings might have changed after they have been loaded, load them again
+                    continue;
+                }
+
+                entry = new PlayerPoints();
+                entry.lastAccess = System.currentTimeMillis();
+                entry.deletedPoints = wPlayer.deleted_points;
+                int highestId = 0;
+                for (Warning warning : warnings) {
+                    highestId = Math.max(highestId, warning.userWarningId);
+                    add(entry, warning);
+                }
+                entry.nextWarningId = highestId + 1;
+                entries.putIfAbsent(wPlayer.id, entry);
+                return entry;
+            }
+        }
+    }
+
+    private void add(PlayerPoints entry, Warning warning) {
+        if (!warning.isValid() || entry.activeWarnings.containsKey(warning.userWarningId)) {
+            return;
+        }
+        entry.activeWarnings.put(warning.userWarningId, warning.points);
+        entry.points += warning.points;
+
+        if (warning.expireTime != null) {
+            Expiry expiry = new Expiry(warning.expireTime, warning.userId, warning.userWarningId);
+            entry.expiries.put(warning.userWarningId, expiry);
+            expiries.add(expiry);
+        }
+    }
+
+    private void remove(PlayerPoints entry, int userWarningId) {
+        Integer points = entry.activeWarnings.remove(userWarningId);
+        if (points != null) {
+            entry.points -= points;
+        }
+        Expiry expiry = entry.expiries.remove(userWarningId);
+        if (expiry != null) {
+            expiries.remove(expiry);
+        }
+    }
+
+    private void expire(long now) {
+        while (!expiries.isEmpty() && expiries.first().time <= now) {
+            Expiry expiry = expiries.pollFirst();
+            PlayerPoints entry = entries.get(expiry.userId);
+            if (entry != null) {
+                remove(entry, expiry.userWarningId);
+            }
+            expiredWarnings++;
+            maxExpiryLag = Math.max(maxExpiryLag, now - expiry.time);
+        }
+    }
+
+    private void evictIdle(long now) {
+        if (now < nextEviction) {
+            return;
+        }
+        nextEviction = now + EVICTION_INTERVAL;
+
+        Iterator<PlayerPoints> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerPoints entry = iterator.next();
+            if (now - entry.lastAccess < ENTRY_TTL) {
+                continue;
+            }
+            for (Expiry expiry : entry.expiries.values()) {
+                expiries.remove(expiry);
+            }
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static class PlayerPoints {
+
+        private long lastAccess;
+        private int points = 0;
+        private int deletedPoints = 0;
+        private int nextWarningId = 1;
+        // userWarningId -> points of all warnings counted in points
+        private final Map<Integer, Integer> activeWarnings = new HashMap<>();
+        private final Map<Integer, Expiry> expiries = new HashMap<>();
+    }
+
+    private static class Expiry implements Comparable<Expiry> {
+
+        private final long time;
+        private final int userId;
+        private final int userWarningId;
+
+        private Expiry(long time, int userId, int userWarningId) {
+            this.time = time;
+            this.userId = userId;
+            this.userWarningId = userWarningId;
+        }
+
+        @Override
+        public int compareTo(Expiry o) {
+            int result = Long.compare(time, o.time);
+            if (result != 0) {
+                return result;
+            }
+            result = Integer.compare(userId, o.userId);
+            if (result != 0) {
+                return result;
+            }
+            return Integer.compare(userWarningId, o.userWarningId);
+        }
+    }
+}
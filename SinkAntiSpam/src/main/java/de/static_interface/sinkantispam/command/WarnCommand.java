@@ -124,8 +124,6 @@ public class WarnCommand extends SinkCommand {
         warning.deleteTime = null;
         warning.warner = name;
         warning.warnerUuid = uuid == null ? null : uuid.toString();
-        warning.userId = WarnUtil.getWarnedPlayer(target).id;
-        warning.userWarningId = WarnUtil.getNextWarningId(target);
 
         if (getCommandLine().hasOption('c')) {
             if (!sender.hasPermission("sinkantispam.warnings.custom")) {
@@ -168,7 +166,7 @@ public class WarnCommand extends SinkCommand {
             warning.predefinedId = pWarning.id;
         }
 
-        WarnUtil.performWarning(warning, SinkLibrary.getInstance().getUser((Object) sender));
+        WarnUtil.performWarning(target, warning, SinkLibrary.getInstance().getUser((Object) sender));
         return true;
     }
 }
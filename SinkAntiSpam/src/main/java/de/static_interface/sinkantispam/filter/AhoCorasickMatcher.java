@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.filter;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds all occurrences of a fixed set of words in a single pass over the input
+ */
+class AhoCorasickMatcher {
+
+    private final Node root = new Node();
+
+    AhoCorasickMatcher(Collection<String> words) {
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                Node next = node.next.get(c);
+                if (next == null) {
+                    next = new Node();
+                    node.next.put(c, next);
+                }
+                node = next;
+            }
+            node.word = word;
+        }
+        buildFailureLinks();
+    }
+
+    private void buildFailureLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+
+                Node fail = node.fail;
+                while (fail != null && !fail.next.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                child.fail = fail == null ? root : fail.next.get(c);
+                child.output = child.fail.word != null ? child.fail : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return root.next.isEmpty();
+    }
+
+    /**
+     * Add all matches found in the input to the given list
+     * @param input the input
+     * @param matches the list the matches will be added to
+     * @param firstOnly stop after the first match
+     */
+    void find(String input, List<BlacklistFilter.Match> matches, boolean firstOnly) {
+        Node node = root;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            Node next = node.next.get(c);
+            while (next == null && node != root) {
+                node = node.fail;
+                next = node.next.get(c);
+            }
+            node = next == null ? root : next;
+
+            Node match = node.word != null ? node : node.output;
+            while (match != null) {
+                int end = i + 1;
+                matches.add(new BlacklistFilter.Match(end - match.word.length(), end, match.word));
+                if (firstOnly) {
+                    return;
+                }
+                match = match.output;
+            }
+        }
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> next = new HashMap<>();
+        private Node fail;
+        // Next node on the failure path which completes a word
+        private Node output;
+        private String word;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable, precompiled blacklist. Plain words are matched with a single {@link AhoCorasickMatcher},
+ * all other rules are merged into one regular expression. Rules which can't be merged (e.g. because they
+ * use back references) are matched separately.
+ */
+public class BlacklistFilter {
+
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+    private final List<String> rules;
+    private final AhoCorasickMatcher literalMatcher;
+    @Nullable
+    private final Pattern mergedPattern;
+    private final List<Pattern> separatePatterns;
+
+    private BlacklistFilter(List<String> rules, AhoCorasickMatcher literalMatcher, @Nullable Pattern mergedPattern,
+                            List<Pattern> separatePatterns) {
+        this.rules = rules;
+        this.literalMatcher = literalMatcher;
+        this.mergedPattern = mergedPattern;
+        this.separatePatterns = separatePatterns;
+    }
+
+    /**
+     * Compile the given blacklist rules. Invalid regular expressions are reported once and skipped.
+     *
+     * @param rules the rules, either plain words or regular expressions
+     * @param logger logger for invalid rules
+     * @return the compiled filter
+     */
+    public static BlacklistFilter compile(List<String> rules, Logger logger) {
+        List<String> literals = new ArrayList<>();
+        List<String> mergeable = new ArrayList<>();
+        List<Pattern> separate = new ArrayList<>();
+
+        for (String rule : rules) {
+            if (rule == null || rule.isEmpty()) {
+                continue;
+            }
+
+            if (isLiteral(rule)) {
+                literals.add(rule);
+                continue;
+            }
+
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(rule);
+            } catch (PatternSyntaxException e) {
+                logger.warning("Wrong regex: " + rule);
+                continue;
+            }
+
+            if (BACK_REFERENCE.matcher(rule).find()) {
+                separate.add(pattern);
+            } else {
+                mergeable.add(rule);
+            }
+        }
+
+        Pattern merged = null;
+        if (!mergeable.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (String rule : mergeable) {
+                if (builder.length() > 0) {
+                    builder.append('|');
+                }
+                builder.append("(?:").append(rule).append(')');
+            }
+            try {
+                merged = Pattern.compile(builder.toString());
+            } catch (PatternSyntaxException e) {
+                // Some constructs (e.g. unterminated quotes) can't be combined, match them one by one instead
+                for (String rule : mergeable) {
+                    separate.add(Pattern.compile(rule));
+                }
+            }
+        }
+
+        return new BlacklistFilter(rules, new AhoCorasickMatcher(literals), merged, separate);
+    }
+
+    private static boolean isLiteral(String rule) {
+        for (int i = 0; i < rule.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(rule.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the rules this filter has been compiled from
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return true if no rule could match
+     */
+    public boolean isEmpty() {
+        return literalMatcher.isEmpty() && mergedPattern == null && separatePatterns.isEmpty();
+    }
+
+    /**
+     * @param input the input
+     * @return the first match found or null if the input doesn't contain any blacklisted word
+     */
+    @Nullable
+    public Match findFirst(String input) {
+        List<Match> matches = find(input, true);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * @param input the input
+     * @return all matches sorted by their position, overlapping matches are merged
+     */
+    public List<Match> findAll(String input) {
+        return find(input, false);
+    }
+
+    private List<Match> find(String input, boolean firstOnly) {
+        List<Match> matches = new ArrayList<>();
+        literalMatcher.find(input, matches, firstOnly);
+        if (firstOnly && !matches.isEmpty()) {
+            return matches;
+        }
+
+        if (mergedPattern != null) {
+            findRegex(mergedPattern, input, matches, firstOnly);
+            if (firstOnly && !matches.isEmpty()) {
+                return matches;
+            }
+        }
+
+        for (Pattern pattern : separatePatterns) {
+            findRegex(pattern, input, matches, firstOnly);
+            if (firstOnly && !matches.isEmpty()) {
+                return matches;
+            }
+        }
+
+        return merge(matches);
+    }
+
+    private static void findRegex(Pattern pattern, String input, List<Match> matches, boolean firstOnly) {
+        Matcher matcher = pattern.matcher(input);
+        while (matcher.find()) {
+            if (matcher.end() == matcher.start()) {
+                // Skip empty matches
+                continue;
+            }
+            matches.add(new Match(matcher.start(), matcher.end(), matcher.group()));
+            if (firstOnly) {
+                return;
+            }
+        }
+    }
+
+    private static List<Match> merge(List<Match> matches) {
+        if (matches.size() < 2) {
+            return matches;
+        }
+
+        Collections.sort(matches, new Comparator<Match>() {
+            @Override
+            public int compare(Match m1, Match m2) {
+                return Integer.compare(m1.getStart(), m2.getStart());
+            }
+        });
+
+        List<Match> merged = new ArrayList<>();
+        Match current = matches.get(0);
+        for (int i = 1; i < matches.size(); i++) {
+            Match next = matches.get(i);
+            if (next.getStart() <= current.getEnd()) {
+                if (next.getEnd() > current.getEnd()) {
+                    current = new Match(current.getStart(), next.getEnd(), null);
+                }
+                continue;
+            }
+            merged.add(current);
+            current = next;
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Replace every match with the given character
+     *
+     * @param input the input the matches were found in
+     * @param matches matches as returned by {@link #findAll(String)}
+     * @param replacement replacement character
+     * @return the censored input
+     */
+    public static String censor(String input, List<Match> matches, char replacement) {
+        char[] chars = input.toCharArray();
+        for (Match match : matches) {
+            for (int i = match.getStart(); i < match.getEnd(); i++) {
+                chars[i] = replacement;
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Surround every match with the given prefix and suffix
+     *
+     * @param input the input the matches were found in
+     * @param matches matches as returned by {@link #findAll(String)}
+     * @param prefix text inserted before each match
+     * @param suffix text inserted after each match
+     * @return the highlighted input
+     */
+    public static String highlight(String input, List<Match> matches, String prefix, String suffix) {
+        StringBuilder builder = new StringBuilder(input.length() + matches.size() * (prefix.length() + suffix.length()));
+        int last = 0;
+        for (Match match : matches) {
+            builder.append(input, last, match.getStart())
+                    .append(prefix)
+                    .append(input, match.getStart(), match.getEnd())
+                    .append(suffix);
+            last = match.getEnd();
+        }
+        builder.append(input, last, input.length());
+        return builder.toString();
+    }
+
+    public static class Match {
+
+        private final int start;
+        private final int end;
+        @Nullable
+        private final String matched;
+
+        Match(int start, int end, @Nullable String matched) {
+            this.start = start;
+            this.end = end;
+            this.matched = matched;
+        }
+
+        /**
+         * @return index of the first character of the match
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * @return index after the last character of the match
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * @param input the input this match was found in
+         * @return the matched text
+         */
+        public String getText(String input) {
+            if (matched != null) {
+                return matched;
+            }
+            return input.substring(start, end);
+        }
+    }
+}
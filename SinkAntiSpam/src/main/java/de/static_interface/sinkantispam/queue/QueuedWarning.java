@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.queue;
+
+import de.static_interface.sinkantispam.database.row.Warning;
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.user.IngameUser;
+
+public class QueuedWarning {
+
+    private IngameUser target;
+    private Warning warning;
+    private SinkUser warner;
+
+    public QueuedWarning(IngameUser target, Warning warning, SinkUser warner) {
+        this.target = target;
+        this.warning = warning;
+        this.warner = warner;
+    }
+
+    public IngameUser getTarget() {
+        return target;
+    }
+
+    public Warning getWarning() {
+        return warning;
+    }
+
+    public SinkUser getWarner() {
+        return warner;
+    }
+}
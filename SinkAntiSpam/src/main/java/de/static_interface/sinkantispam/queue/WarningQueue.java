@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.queue;
+
+import de.static_interface.sinkantispam.SinkAntiSpam;
+import de.static_interface.sinkantispam.WarnUtil;
+import de.static_interface.sinkantispam.cache.WarningPointsCache;
+import de.static_interface.sinkantispam.config.SasLanguage;
+import de.static_interface.sinkantispam.database.row.WarnedPlayer;
+import de.static_interface.sinkantispam.database.row.Warning;
+import de.static_interface.sinkantispam.sanction.SanctionLadder;
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.stream.BukkitBroadcastStream;
+import de.static_interface.sinklibrary.user.IngameUser;
+import de.static_interface.sinklibrary.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.IllegalPluginAccessException;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Processes warnings on a worker thread. The points are taken from the {@link WarningPointsCache} and sanctions are evaluated
+ * on the worker; only messages and sanctions are executed on the main thread. Up to {@link #MAX_BATCH_SIZE} queued warnings
+ * are processed at once: they are inserted in a single transaction and the main thread is only called once for them.
+ */
+public class WarningQueue {
+
+    public static final int MAX_BATCH_SIZE = 64;
+
+    private static final QueuedWarning STOP = new QueuedWarning(null, null, null);
+
+    private final BlockingQueue<QueuedWarning> queue = new LinkedBlockingQueue<>();
+    // Results waiting to be executed on the main thread
+    private final Queue<Runnable> results = new ConcurrentLinkedQueue<>();
+    private final SinkAntiSpam plugin;
+
+    Thread queueThread;
+
+    public WarningQueue(SinkAntiSpam plugin) {
+        this.plugin = plugin;
+    }
+
+    public void addToQueue(IngameUser target, Warning warning, SinkUser warner) {
+        Debug.log(Level.INFO, () -> "[Queue] Adding to queue: " + warning.reason + " @ " + target.getName());
+        queue.offer(new QueuedWarning(target, warning, warner));
+    }
+
+    public void start() {
+        queueThread = new Thread(() -> {
+            List<QueuedWarning> batch = new ArrayList<>();
+            boolean stop = false;
+            while (!stop) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    // Everything queued before stop() has been called is still processed
+                    stop = batch.remove(STOP);
+                    processBatch(batch);
+                } catch (InterruptedException e) {
+                    plugin.getLogger().log(Level.WARNING, "[Queue] Warning Queue Thread interrupted, queued warnings are lost");
+                    return;
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Couldn't process warnings", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }, "SinkAntiSpam-Warning Thread");
+        plugin.getLogger().log(Level.INFO, "[Queue] Warning Queue Thread started");
+        queueThread.start();
+    }
+
+    /**
+     * Stop the worker, has to be called from the main thread. Already queued warnings are still written to the database
+     * and their messages and sanctions are executed before this method returns.
+     */
+    public void stop() {
+        if (queueThread == null) {
+            return;
+        }
+
+        queue.offer(STOP);
+        try {
+            queueThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queueThread.isAlive()) {
+            plugin.getLogger().log(Level.WARNING, "[Queue] Couldn't process all queued warnings in time (" + queue.size() + " left)");
+        }
+        queueThread = null;
+
+        // Scheduled tasks are cancelled when the plugin gets disabled, so execute everything which is left here
+        runResults();
+    }
+
+    private void runResults() {
+        Runnable result;
+        while ((result = results.poll()) != null) {
+            try {
+                result.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Couldn't execute warning result", e);
+            }
+        }
+    }
+
+    private void processBatch(List<QueuedWarning> batch) {
+        WarningPointsCache cache = plugin.getWarningPointsCache();
+        List<ProcessedWarning> processed = new ArrayList<>(batch.size());
+        // Points of the players including the warnings of this batch which have been prepared so far
+        Map<Integer, Integer> points = new HashMap<>();
+        Map<Integer, Integer> nextWarningIds = new HashMap<>();
+        for (QueuedWarning queued : batch) {
+            try {
+                processed.add(prepare(queued, cache, points, nextWarningIds));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Couldn't process warning: " + queued.getWarning().reason, e);
+            }
+        }
+
+        if (processed.isEmpty() || !insert(processed, cache)) {
+            return;
+        }
+
+        for (ProcessedWarning warning : processed) {
+            cache.onWarningAdded(warning.warning);
+            results.add(createResult(warning));
+        }
+
+        // While the plugin is being disabled no tasks can be scheduled, stop() runs the results after the worker has finished
+        if (plugin.isEnabled()) {
+            try {
+                Bukkit.getScheduler().runTask(plugin, this::runResults);
+            } catch (IllegalPluginAccessException ignored) {
+                // The plugin has been disabled in the meantime
+            }
+        }
+    }
+
+    /**
+     * Assign the ids of the warning and calculate the points of the player before and after it
+     */
+    private ProcessedWarning prepare(QueuedWarning queued, WarningPointsCache cache, Map<Integer, Integer> points,
+                                     Map<Integer, Integer> nextWarningIds) {
+        Warning warning = queued.getWarning();
+        WarnedPlayer wPlayer = WarnUtil.getWarnedPlayer(queued.getTarget());
+        warning.userId = wPlayer.id;
+        if (warning.warnTime == 0) {
+            warning.warnTime = System.currentTimeMillis();
+        }
+
+        Integer pointsBefore = points.get(wPlayer.id);
+        if (pointsBefore == null) {
+            pointsBefore = cache.getPoints(wPlayer);
+            nextWarningIds.put(wPlayer.id, cache.getNextWarningId(wPlayer));
+            if (cache.getDeletedPoints(wPlayer) > 0 && cache.getActiveWarnings(wPlayer) == 0) {
+                WarnUtil.setDeletedPoints(wPlayer, 0);
+            }
+            points.put(wPlayer.id, cache.getPoints(wPlayer));
+        }
+
+        int nextWarningId = nextWarningIds.get(wPlayer.id);
+        if (warning.userWarningId <= 0) {
+            warning.userWarningId = nextWarningId;
+        }
+        nextWarningIds.put(wPlayer.id, Math.max(nextWarningId, warning.userWarningId + 1));
+
+        int pointsNow = points.get(wPlayer.id) + (warning.isValid() ? warning.points : 0);
+        points.put(wPlayer.id, pointsNow);
+        return new ProcessedWarning(queued, pointsBefore, pointsNow);
+    }
+
+    /**
+     * Insert the warnings in a single transaction
+     * @return false if the warnings couldn't be inserted
+     */
+    private boolean insert(List<ProcessedWarning> processed, WarningPointsCache cache) {
+        Connection connection = plugin.getDatabase().getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (ProcessedWarning warning : processed) {
+                    plugin.getWarningsTable().insert(warning.warning);
+                }
+                connection.commit();
+                return true;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Couldn't insert " + processed.size() + " warnings", e);
+            for (ProcessedWarning warning : processed) {
+                // A lookup on the same connection might have loaded the rolled back warnings
+                cache.onWarningDeleted(warning.warning);
+            }
+            return false;
+        }
+    }
+
+    private Runnable createResult(ProcessedWarning processed) {
+        final IngameUser target = processed.queued.getTarget();
+        final Warning warning = processed.warning;
+        final SanctionLadder.Step sanction = WarnUtil.getSanction(processed.pointsBefore, processed.pointsNow);
+        final SinkUser warner = processed.queued.getWarner();
+        final String reason = warning.reason;
+        final int points = warning.points;
+        final String perm = warning.isAutoWarning ? "sinkantispam.autowarnmessage" : "sinkantispam.warnmessage";
+        final String stream = warning.isAutoWarning ? "sas_autowarning" : "sas_warning";
+
+        Debug.log(() -> "Processed warning #" + warning.userWarningId + " for " + target.getName() + ": " + processed.pointsBefore + " -> "
+                        + processed.pointsNow);
+
+        return () -> {
+            // Formatting reads display names and other values from Bukkit, so it has to be done on the main thread
+            String message = WarnUtil.getPrefix() + SasLanguage.SAS_WARN_MESSAGE.format(warner, target, null, reason, points);
+            SinkLibrary.getInstance().getMessageStream(stream, BukkitBroadcastStream.class).sendMessage(null, message, perm);
+
+            if (target.isOnline() && !target.hasPermission(perm)) {
+                target.sendMessage(message);
+            }
+
+            if (sanction != null) {
+                WarnUtil.executeSanction(target, sanction);
+            }
+        };
+    }
+
+    private static class ProcessedWarning {
+
+        private final QueuedWarning queued;
+        private final Warning warning;
+        private final int pointsBefore;
+        private final int pointsNow;
+
+        private ProcessedWarning(QueuedWarning queued, int pointsBefore, int pointsNow) {
+            this.queued = queued;
+            this.warning = queued.getWarning();
+            this.pointsBefore = pointsBefore;
+            this.pointsNow = pointsNow;
+        }
+    }
+}
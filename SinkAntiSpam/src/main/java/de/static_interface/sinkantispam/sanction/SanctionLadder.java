@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.sanction;
+
+import de.static_interface.sinklibrary.util.StringUtil;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable, parsed form of the configured sanctions ("points: SANCTION args"), sorted by their threshold
+ */
+public class SanctionLadder {
+
+    private final List<String> rules;
+    private final int[] thresholds;
+    private final Step[] steps;
+
+    private SanctionLadder(List<String> rules, int[] thresholds, Step[] steps) {
+        this.rules = rules;
+        this.thresholds = thresholds;
+        this.steps = steps;
+    }
+
+    /**
+     * Parse the given sanctions. Invalid entries are reported once and skipped.
+     *
+     * @param rules the configured sanctions
+     * @param logger logger for invalid entries
+     * @return the parsed ladder
+     */
+    public static SanctionLadder compile(List<String> rules, Logger logger) {
+        TreeMap<Integer, Step> map = new TreeMap<>();
+        for (String s : rules) {
+            int index = s.indexOf(':');
+            if (index < 0 || StringUtil.isEmptyOrNull(s.substring(index + 1).trim())) {
+                logger.warning("Couldn't parse sanction: " + s + ": Invalid format");
+                continue;
+            }
+
+            String pointsString = s.substring(0, index);
+            int points;
+            try {
+                points = Integer.parseInt(pointsString.trim());
+            } catch (NumberFormatException e) {
+                logger.warning("Couldn't parse sanction: " + s + ": Invalid points: " + pointsString);
+                continue;
+            }
+
+            if (map.containsKey(points)) {
+                logger.warning("Couldn't parse sanction: " + s + ": Points already added: " + points);
+                continue;
+            }
+
+            String[] splits = s.substring(index + 1).trim().split(" ");
+            map.put(points, new Step(points, splits[0], Arrays.copyOfRange(splits, 1, splits.length)));
+        }
+
+        int[] thresholds = new int[map.size()];
+        Step[] steps = new Step[map.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Step> entry : map.entrySet()) {
+            thresholds[i] = entry.getKey();
+            steps[i] = entry.getValue();
+            i++;
+        }
+        return new SanctionLadder(rules, thresholds, steps);
+    }
+
+    /**
+     * @return the sanctions this ladder has been parsed from
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the sanction for a change of points. If multiple thresholds have been crossed, the highest one wins.
+     *
+     * @param pointsBefore points before the warning
+     * @param pointsNow points after the warning
+     * @return the step which has been reached or null if no threshold has been reached
+     */
+    @Nullable
+    public Step getCrossed(int pointsBefore, int pointsNow) {
+        int index = Arrays.binarySearch(thresholds, pointsNow);
+        if (index >= 0) {
+            return steps[index];
+        }
+
+        // Highest threshold below pointsNow
+        index = -index - 2;
+        if (index < 0 || thresholds[index] <= pointsBefore) {
+            return null;
+        }
+        return steps[index];
+    }
+
+    public static class Step {
+
+        private final int points;
+        private final String sanction;
+        private final String[] args;
+
+        private Step(int points, String sanction, String[] args) {
+            this.points = points;
+            this.sanction = sanction;
+            this.args = args;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        /**
+         * @return the id of the {@link WarningSanction}
+         */
+        public String getSanction() {
+            return sanction;
+        }
+
+        /**
+         * @return a copy of the arguments passed to the sanction
+         */
+        public String[] getArgs() {
+            return args.clone();
+        }
+    }
+}
@@ -24,9 +24,18 @@ import de.static_interface.sinklibrary.user.IngameUser;
 public abstract class AutoWarning extends Warning {
 
     public AutoWarning(IngameUser user, String reason, int id) {
-        this.reason = reason;
+        this(user, reason);
         this.userWarningId = id;
-        this.isAutoWarning = true;
         this.userId = WarnUtil.getWarnedPlayer(user).id;
     }
+
+    /**
+     * Creates an auto warning without querying the database. The user id and the user warning id
+     * will be assigned when the warning gets processed by the {@link de.static_interface.sinkantispam.queue.WarningQueue}
+     */
+    public AutoWarning(IngameUser user, String reason) {
+        this.reason = reason;
+        this.isAutoWarning = true;
+        this.warnTime = System.currentTimeMillis();
+    }
 }
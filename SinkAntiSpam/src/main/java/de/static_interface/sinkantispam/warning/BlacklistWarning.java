@@ -27,4 +27,9 @@ public class BlacklistWarning extends AutoWarning {
         super(user, SasLanguage.SAS_REASONS_BLACKLISED_WORDS.format(message), id);
         points = SasSettings.SAS_POINTS_BLACKLIST.getValue();
     }
+
+    public BlacklistWarning(IngameUser user, String message) {
+        super(user, SasLanguage.SAS_REASONS_BLACKLISED_WORDS.format(message));
+        points = SasSettings.SAS_POINTS_BLACKLIST.getValue();
+    }
 }
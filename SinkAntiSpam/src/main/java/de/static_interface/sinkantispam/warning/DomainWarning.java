@@ -27,4 +27,9 @@ public class DomainWarning extends AutoWarning {
         super(user, SasLanguage.SAS_REASONS_DOMAIN.format(domain), id);
         points = SasSettings.SAS_POINTS_DOMAIN.getValue();
     }
+
+    public DomainWarning(IngameUser user, String domain) {
+        super(user, SasLanguage.SAS_REASONS_DOMAIN.format(domain));
+        points = SasSettings.SAS_POINTS_DOMAIN.getValue();
+    }
 }
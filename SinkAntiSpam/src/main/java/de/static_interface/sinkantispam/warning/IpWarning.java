@@ -27,4 +27,9 @@ public class IpWarning extends AutoWarning {
         super(user, SasLanguage.SAS_REASONS_IP.format(ip), id);
         points = SasSettings.SAS_POINTS_IP.getValue();
     }
+
+    public IpWarning(IngameUser user, String ip) {
+        super(user, SasLanguage.SAS_REASONS_IP.format(ip));
+        points = SasSettings.SAS_POINTS_IP.getValue();
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkantispam.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+public class AhoCorasickMatcherTest {
+
+    private static List<String> find(AhoCorasickMatcher matcher, String input, boolean firstOnly) {
+        List<BlacklistFilter.Match> matches = new ArrayList<>();
+        matcher.find(input, matches, firstOnly);
+        List<String> result = new ArrayList<>();
+        for (BlacklistFilter.Match match : matches) {
+            result.add(match.getText(input) + "@" + match.getStart() + "-" + match.getEnd());
+        }
+        return result;
+    }
+
+    @Test
+    public void testOverlappingPatterns() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("he", "she", "his", "hers"));
+        assertEquals(Arrays.asList("she@1-4", "he@2-4", "hers@2-6"), find(matcher, "ushers", false));
+        assertEquals(Collections.singletonList("she@1-4"), find(matcher, "ushers", true));
+        assertEquals(Collections.singletonList("his@1-4"), find(matcher, "ahisx", false));
+    }
+
+    @Test
+    public void testRepeatedAndNestedPatterns() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("a", "aa"));
+        assertEquals(Arrays.asList("a@0-1", "aa@0-2", "a@1-2"), find(matcher, "aa", false));
+    }
+
+    @Test
+    public void testPlainWordsAreCaseSensitive() {
+        // Plain words are matched case sensitive, like String#contains did before
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Collections.singletonList("bad"));
+        assertEquals(Collections.<String>emptyList(), find(matcher, "BAD Bad", false));
+        assertEquals(Collections.singletonList("bad@4-7"), find(matcher, "BAD bad", false));
+
+        // Case insensitive rules have to be written as regex
+        BlacklistFilter filter = BlacklistFilter.compile(Collections.singletonList("(?i)bad"), Logger.getAnonymousLogger());
+        List<BlacklistFilter.Match> matches = filter.findAll("BAD Bad");
+        assertEquals(2, matches.size());
+        assertEquals("BAD", matches.get(0).getText("BAD Bad"));
+        assertEquals("Bad", matches.get(1).getText("BAD Bad"));
+    }
+
+    @Test
+    public void testEmptyPatternSet() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Collections.<String>emptyList());
+        assertTrue(matcher.isEmpty());
+        assertEquals(Collections.<String>emptyList(), find(matcher, "anything", false));
+
+        assertTrue(new AhoCorasickMatcher(Collections.singletonList("")).isEmpty());
+
+        BlacklistFilter filter = BlacklistFilter.compile(Arrays.asList("", null), Logger.getAnonymousLogger());
+        assertTrue(filter.isEmpty());
+        assertNull(filter.findFirst("anything"));
+        assertTrue(filter.findAll("anything").isEmpty());
+    }
+
+    @Test
+    public void testOverlappingMatchesAreMergedForCensoring() {
+        BlacklistFilter filter = BlacklistFilter.compile(Arrays.asList("she", "hers", "x+"), Logger.getAnonymousLogger());
+        assertFalse(filter.isEmpty());
+        List<BlacklistFilter.Match> matches = filter.findAll("ushers xx");
+        assertEquals(2, matches.size());
+        assertEquals("u***** **", BlacklistFilter.censor("ushers xx", matches, '*'));
+    }
+}
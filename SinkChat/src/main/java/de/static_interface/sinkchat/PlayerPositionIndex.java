@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkchat;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grid of player positions, bucketed by world and chunk. The positions are refreshed on the main thread
+ * and published as an immutable snapshot, so they can be queried from async chat events. Players who joined
+ * after the last refresh are looked up from the position taken when they joined.
+ */
+public class PlayerPositionIndex implements Runnable {
+
+    private static final int CELL_SHIFT = 4; // 16 blocks, same as a chunk
+
+    private volatile Snapshot snapshot = new Snapshot();
+    // Players who joined since the last refresh
+    private final Map<UUID, Position> joined = new ConcurrentHashMap<>();
+    private BukkitTask task;
+
+    /**
+     * Start refreshing the positions periodically
+     *
+     * @param plugin Plugin which owns the task
+     * @param interval Interval in ticks
+     */
+    public synchronized void start(Plugin plugin, long interval) {
+        stop();
+        if (interval < 1) {
+            interval = 1;
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 0, interval);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        snapshot = new Snapshot();
+        joined.clear();
+    }
+
+    /**
+     * Remember the position of a player who joined until the next refresh, has to be called from the main thread
+     *
+     * @param p the player
+     */
+    public void addPlayer(Player p) {
+        joined.put(p.getUniqueId(), createPosition(p));
+    }
+
+    /**
+     * @param p the player who quit
+     */
+    public void removePlayer(Player p) {
+        joined.remove(p.getUniqueId());
+    }
+
+    /**
+     * Rebuild the index from the current positions, has to be called from the main thread
+     */
+    @Override
+    public void run() {
+        Snapshot snapshot = new Snapshot();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            Position pos = createPosition(p);
+            snapshot.positions.put(p.getUniqueId(), pos);
+
+            Map<Long, List<Position>> cells = snapshot.worlds.get(pos.world);
+            if (cells == null) {
+                cells = new HashMap<>();
+                snapshot.worlds.put(pos.world, cells);
+            }
+            long key = cellKey(floor(pos.x) >> CELL_SHIFT, floor(pos.z) >> CELL_SHIFT);
+            List<Position> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>();
+                cells.put(key, cell);
+            }
+            cell.add(pos);
+        }
+        this.snapshot = snapshot;
+        joined.clear();
+    }
+
+    /**
+     * @param sender the center
+     * @param p the player to check
+     * @param range the range, values below 1 mean unlimited range
+     * @return true if p is in the same world as the sender and not further away than range
+     */
+    public boolean isInRange(Player sender, Player p, int range) {
+        if (range < 1) {
+            return true;
+        }
+        Snapshot snapshot = this.snapshot;
+        Position from = getPosition(snapshot, sender);
+        Position to = getPosition(snapshot, p);
+        if (from == null || to == null) {
+            return false;
+        }
+        return from.world.equals(to.world) && from.distanceSquared(to) <= (double) range * range;
+    }
+
+    /**
+     * Get all players in the given range of the sender, including the sender itself
+     *
+     * @param sender the center
+     * @param range the range, has to be at least 1
+     * @return the players in range
+     */
+    public Set<Player> getPlayersInRange(Player sender, int range) {
+        Snapshot snapshot = this.snapshot;
+        Position center = getPosition(snapshot, sender);
+        if (center == null) {
+            return Collections.singleton(sender);
+        }
+
+        Set<Player> result = new HashSet<>();
+        result.add(sender);
+        double rangeSquared = (double) range * range;
+        for (Position pos : joined.values()) {
+            if (pos.world.equals(center.world) && center.distanceSquared(pos) <= rangeSquared) {
+                result.add(pos.player);
+            }
+        }
+
+        Map<Long, List<Position>> cells = snapshot.worlds.get(center.world);
+        if (cells == null) {
+            return result;
+        }
+
+        int minX = floor(center.x - range) >> CELL_SHIFT;
+        int maxX = floor(center.x + range) >> CELL_SHIFT;
+        int minZ = floor(center.z - range) >> CELL_SHIFT;
+        int maxZ = floor(center.z + range) >> CELL_SHIFT;
+
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > cells.size()) {
+            // The range covers more cells than there are occupied ones
+            for (List<Position> cell : cells.values()) {
+                addInRange(cell, center, rangeSquared, result);
+            }
+            return result;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                List<Position> cell = cells.get(cellKey(x, z));
+                if (cell != null) {
+                    addInRange(cell, center, rangeSquared, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addInRange(List<Position> cell, Position center, double rangeSquared, Set<Player> result) {
+        for (Position pos : cell) {
+            if (center.distanceSquared(pos) <= rangeSquared) {
+                result.add(pos.player);
+            }
+        }
+    }
+
+    /**
+     * @return the indexed position or null if the player isn't online
+     */
+    private Position getPosition(Snapshot snapshot, Player p) {
+        Position pos = snapshot.positions.get(p.getUniqueId());
+        if (pos != null) {
+            return pos;
+        }
+        // Not indexed yet (e.g. just joined)
+        return joined.get(p.getUniqueId());
+    }
+
+    private static Position createPosition(Player p) {
+        Location loc = p.getLocation();
+        return new Position(p, loc.getWorld().getUID(), loc.getX(), loc.getY(), loc.getZ());
+    }
+
+    private static int floor(double d) {
+        int i = (int) d;
+        return d < i ? i - 1 : i;
+    }
+
+    private static long cellKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static class Snapshot {
+
+        private final Map<UUID, Position> positions = new HashMap<>();
+        private final Map<UUID, Map<Long, List<Position>>> worlds = new HashMap<>();
+    }
+
+    private static class Position {
+
+        private final Player player;
+        private final UUID world;
+        private final double x;
+        private final double y;
+        private final double z;
+
+        private Position(Player player, UUID world, double x, double y, double z) {
+            this.player = player;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        private double distanceSquared(Position pos) {
+            double dx = x - pos.x;
+            double dy = y - pos.y;
+            double dz = z - pos.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
@@ -28,6 +28,8 @@ import de.static_interface.sinkchat.command.TownChatCommand;
 import de.static_interface.sinkchat.config.ScLanguage;
 import de.static_interface.sinkchat.config.ScSettings;
 import de.static_interface.sinkchat.listener.ChatListener;
+import de.static_interface.sinkchat.listener.SpyListener;
+import de.static_interface.sinkchat.listener.TownyListener;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
 import org.bukkit.Bukkit;
@@ -44,6 +46,9 @@ public class SinkChat extends JavaPlugin {
     private static SinkChat instance;
     private Towny towny;
     private ChannelConfiguration channelconfigs = null;
+    private PlayerPositionIndex positionIndex;
+    private SpyManager spyManager;
+    private TownyChatIdentityProvider townyChatIdentityProvider;
 
     public static SinkChat getInstance() {
         return instance;
@@ -61,6 +66,14 @@ public class SinkChat extends JavaPlugin {
         return towny;
     }
 
+    public PlayerPositionIndex getPositionIndex() {
+        return positionIndex;
+    }
+
+    public SpyManager getSpyManager() {
+        return spyManager;
+    }
+
     @Override
     public void onEnable() {
         if (!checkDependencies()) {
@@ -82,6 +95,11 @@ public class SinkChat extends JavaPlugin {
 
         instance = this;
 
+        positionIndex = new PlayerPositionIndex();
+        positionIndex.start(this, ScSettings.SC_POSITION_UPDATE_INTERVAL.getValue());
+        spyManager = new SpyManager();
+        spyManager.start(this, ScSettings.SC_SPY_UPDATE_INTERVAL.getValue());
+
         registerEvents();
         registerCommands(commandsConfig);
         registerChannels(sinkChatDirectory);
@@ -89,6 +107,16 @@ public class SinkChat extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (positionIndex != null) {
+            positionIndex.stop();
+        }
+        if (spyManager != null) {
+            spyManager.stop();
+        }
+        if (townyChatIdentityProvider != null) {
+            SinkLibrary.getInstance().unregisterChatIdentityProvider(townyChatIdentityProvider);
+            townyChatIdentityProvider = null;
+        }
         instance = null;
     }
 
@@ -137,7 +165,13 @@ public class SinkChat extends JavaPlugin {
     }
 
     private void registerEvents() {
-        Bukkit.getPluginManager().registerEvents(new ChatListener(), this);
+        SinkLibrary.getInstance().registerListener(new ChatListener(), this);
+        SinkLibrary.getInstance().registerListener(new SpyListener(), this);
+        if (towny != null) {
+            townyChatIdentityProvider = new TownyChatIdentityProvider();
+            SinkLibrary.getInstance().registerChatIdentityProvider(townyChatIdentityProvider);
+            SinkLibrary.getInstance().registerListener(new TownyListener(), this);
+        }
     }
 
     private void registerCommands(Configuration config) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkchat;
+
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.user.IngameUser;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the online players which have spy enabled and the permission to use it, so chat messages
+ * only have to be checked against actual spies. Permissions are refreshed periodically since Bukkit doesn't
+ * provide an event for permission changes.
+ */
+public class SpyManager implements Runnable {
+
+    private final Map<UUID, Spy> spies = new ConcurrentHashMap<>();
+    private BukkitTask task;
+
+    /**
+     * Start refreshing the spies periodically
+     *
+     * @param plugin Plugin which owns the task
+     * @param interval Interval in ticks
+     */
+    public synchronized void start(Plugin plugin, long interval) {
+        stop();
+        if (interval < 1) {
+            interval = 1;
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 0, interval);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        spies.clear();
+    }
+
+    /**
+     * Refresh all online players, has to be called from the main thread
+     */
+    @Override
+    public void run() {
+        for (UUID uuid : spies.keySet()) {
+            Player p = Bukkit.getPlayer(uuid);
+            if (p == null || !p.isOnline()) {
+                spies.remove(uuid);
+            }
+        }
+
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            update(p);
+        }
+    }
+
+    /**
+     * Update a player after joining, changing the spy setting or changing permissions
+     *
+     * @param p the player
+     */
+    public void update(Player p) {
+        IngameUser user = SinkLibrary.getInstance().getIngameUser(p);
+        boolean spyAll = p.hasPermission("sinkchat.spy.all");
+        boolean spy = spyAll || p.hasPermission("sinkchat.spy");
+        if (!spy || !user.getConfiguration().isSpyEnabled()) {
+            spies.remove(p.getUniqueId());
+            return;
+        }
+        spies.put(p.getUniqueId(), new Spy(p, spyAll));
+    }
+
+    public void remove(UUID uuid) {
+        spies.remove(uuid);
+    }
+
+    /**
+     * @param sender the sender of a message
+     * @return all online players which are allowed to spy on the sender
+     */
+    public List<Player> getSpies(Player sender) {
+        boolean bypass = sender.hasPermission("sinkchat.spy.bypass");
+        List<Player> result = new ArrayList<>();
+        for (Spy spy : spies.values()) {
+            if (spy.spyAll || !bypass) {
+                result.add(spy.player);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return amount of active spies
+     */
+    public int size() {
+        return spies.size();
+    }
+
+    private static class Spy {
+
+        private final Player player;
+        private final boolean spyAll;
+
+        private Spy(Player player, boolean spyAll) {
+            this.player = player;
+            this.spyAll = spyAll;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkchat;
+
+import de.static_interface.sinklibrary.api.user.ChatIdentity;
+import de.static_interface.sinklibrary.api.user.ChatIdentityProvider;
+import de.static_interface.sinklibrary.user.IngameUser;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+
+/**
+ * Adds the Towny tags of a player to the {@link ChatIdentity}
+ */
+public class TownyChatIdentityProvider implements ChatIdentityProvider {
+
+    public static final String NATION_TAG = "SinkChat.NationTag";
+    public static final String TOWN_TAG = "SinkChat.TownTag";
+    public static final String TOWN = "SinkChat.Town";
+    public static final String NATION = "SinkChat.Nation";
+
+    @Override
+    public void addValues(IngameUser user, Map<String, Object> values) {
+        Player player = user.getPlayer();
+        if (player == null) {
+            return;
+        }
+        values.put(NATION_TAG, TownyHelper.getNationTag(player));
+        values.put(TOWN_TAG, TownyHelper.getTownTag(player));
+        values.put(TOWN, TownyHelper.getTown(player));
+        values.put(NATION, TownyHelper.getNation(player));
+    }
+
+    public static String get(ChatIdentity identity, String key) {
+        Object value = identity.getValue(key);
+        return value == null ? "" : value.toString();
+    }
+}
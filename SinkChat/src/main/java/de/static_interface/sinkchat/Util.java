@@ -18,7 +18,6 @@
 package de.static_interface.sinkchat;
 
 import de.static_interface.sinkchat.config.ScSettings;
-import de.static_interface.sinklibrary.configuration.IngameUserConfiguration;
 import de.static_interface.sinklibrary.user.IngameUser;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -26,19 +25,10 @@ import org.bukkit.entity.Player;
 public class Util {
 
     public static boolean isInRange(IngameUser sender, Player p, int range) {
-        return range < 1 || p.getWorld() == sender.getPlayer().getWorld() && sender.getDistance(p) <= range;
+        return SinkChat.getInstance().getPositionIndex().isInRange(sender.getPlayer(), p, range);
     }
 
     public static String getSpyPrefix() {
         return ScSettings.SC_PREFIX_SPY.format() + ' ' + ChatColor.RESET;
     }
-
-    public static boolean canSpySender(IngameUser user, IngameUser toSpy) {
-        IngameUserConfiguration config = user.getConfiguration();
-
-        // Check for spy
-        boolean canSpy = user.hasPermission("sinkchat.spy.all") || (user.hasPermission("sinkchat.spy")
-                                                                    && !toSpy.hasPermission("sinkchat.spy.bypass"));
-        return canSpy && config.isSpyEnabled();
-    }
 }
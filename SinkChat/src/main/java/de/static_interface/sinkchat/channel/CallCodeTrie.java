@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkchat.channel;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable prefix tree over the call codes of channels
+ */
+class CallCodeTrie {
+
+    private final Node root = new Node();
+
+    CallCodeTrie(Collection<Channel> channels) {
+        for (Channel channel : channels) {
+            String callCode = channel.getCallCode();
+            if (callCode == null || callCode.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < callCode.length(); i++) {
+                char c = callCode.charAt(i);
+                Node next = node.next.get(c);
+                if (next == null) {
+                    next = new Node();
+                    node.next.put(c, next);
+                }
+                node = next;
+            }
+            node.channel = channel;
+        }
+    }
+
+    /**
+     * Find the channel a message has been written to. If multiple call codes match, the longest one wins.
+     *
+     * @param message the chat message
+     * @param player the sender, channels which the sender has disabled are skipped
+     * @return the channel or null if the message doesn't start with the call code of an enabled channel
+     */
+    @Nullable
+    Channel find(String message, UUID player) {
+        Channel result = null;
+        Node node = root;
+        for (int i = 0; i < message.length(); i++) {
+            node = node.next.get(message.charAt(i));
+            if (node == null) {
+                break;
+            }
+
+            // The message has to contain more than the call code
+            if (node.channel != null && i + 1 < message.length() && node.channel.enabledForPlayer(player)) {
+                result = node.channel;
+            }
+        }
+        return result;
+    }
+
+    private static class Node {
+
+        private final Map<Character, Node> next = new HashMap<>();
+        @Nullable
+        private Channel channel;
+    }
+}
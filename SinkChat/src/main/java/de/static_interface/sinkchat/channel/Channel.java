@@ -18,11 +18,10 @@
 package de.static_interface.sinkchat.channel;
 
 import de.static_interface.sinkchat.SinkChat;
-import de.static_interface.sinkchat.TownyHelper;
+import de.static_interface.sinkchat.TownyChatIdentityProvider;
 import de.static_interface.sinkchat.Util;
-import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.stream.MessageStream;
-import de.static_interface.sinklibrary.configuration.IngameUserConfiguration;
+import de.static_interface.sinklibrary.api.user.ChatIdentity;
 import de.static_interface.sinklibrary.user.IngameUser;
 import de.static_interface.sinklibrary.util.StringUtil;
 import org.bukkit.Bukkit;
@@ -44,6 +43,8 @@ public class Channel extends MessageStream<IngameUser> {
     private boolean sendToIRC;
     private int range;
     private String format;
+    private String enabledPath;
+    private int ordinal = -1;
 
     public Channel(String name, String callCode, boolean enabled, String permission,
                    boolean sendToIRC, int range, @Nullable String format) {
@@ -55,6 +56,7 @@ public class Channel extends MessageStream<IngameUser> {
         this.sendToIRC = sendToIRC;
         this.range = range;
         this.format = format;
+        this.enabledPath = "Channels." + getName() + ".Enabled";
     }
 
     /**
@@ -84,22 +86,27 @@ public class Channel extends MessageStream<IngameUser> {
         return format;
     }
 
+    /**
+     * @return Index of this channel, assigned on registration
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    String getEnabledPath() {
+        return enabledPath;
+    }
+
     public boolean enabledForPlayer(UUID uuid) {
-        String enabledPath = "Channels." + getName() + ".Enabled";
-        IngameUser user = SinkLibrary.getInstance().getIngameUser(uuid);
-        IngameUserConfiguration config = user.getConfiguration();
-        try {
-            return (boolean) config.get(enabledPath, true);
-        } catch (NullPointerException ignored) {
-            return true;
-        }
+        return ChannelHandler.isEnabledForPlayer(this, uuid);
     }
 
     public void setEnabledForPlayer(UUID uuid, boolean setEnabled) {
-        String enabledPath = "Channels." + getName() + ".Enabled";
-        IngameUser user = SinkLibrary.getInstance().getIngameUser(uuid);
-        IngameUserConfiguration config = user.getConfiguration();
-        config.set(enabledPath, setEnabled);
+        ChannelHandler.setEnabledForPlayer(this, uuid, setEnabled);
     }
 
     public String formatEventFormat(IngameUser user) {
@@ -120,28 +127,33 @@ public class Channel extends MessageStream<IngameUser> {
     private Map<String, Object> getCustomParams(IngameUser user) {
         HashMap<String, Object> customParams = new HashMap<>();
         if (SinkChat.getInstance().isTownyAvailable()) {
-            customParams.put("NationTag", TownyHelper.getNationTag(user.getPlayer()));
-            customParams.put("Town(y)?Tag", TownyHelper.getTownTag(user.getPlayer()));
-            customParams.put("Town(y)?", TownyHelper.getTown(user.getPlayer()));
-            customParams.put("Nation", TownyHelper.getNation(user.getPlayer()));
+            ChatIdentity identity = user.getChatIdentity();
+            customParams.put("NationTag", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.NATION_TAG));
+            customParams.put("Town(y)?Tag", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.TOWN_TAG));
+            customParams.put("Town(y)?", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.TOWN));
+            customParams.put("Nation", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.NATION));
         }
         return customParams;
     }
 
     public void handleMessage(IngameUser sender, Set<Player> recipients, String message) {
-        new HashSet<>(recipients).stream().filter(p -> (getRange() > 0 && !Util.isInRange(sender, p, getRange()))
+        Set<Player> inRange = null;
+        if (getRange() > 0) {
+            inRange = SinkChat.getInstance().getPositionIndex().getPlayersInRange(sender.getPlayer(), getRange());
+        }
+        final Set<Player> playersInRange = inRange;
+        new HashSet<>(recipients).stream().filter(p -> (playersInRange != null && !playersInRange.contains(p))
                                                        || (!enabledForPlayer(p.getUniqueId()))
                                                        || (StringUtil.isEmptyOrNull(getPermission()) && !p.hasPermission(getPermission())))
                 .forEach(recipients::remove);
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            if (recipients.contains(p)) {
-                continue;
-            }
+        if (inRange == null) {
+            return;
+        }
 
-            IngameUser target = SinkLibrary.getInstance().getIngameUser(p);
-            // Todo: make spy configurable for channels
-            if (!Util.isInRange(sender, p, getRange()) && Util.canSpySender(target, sender)) {
+        // Todo: make spy configurable for channels
+        for (Player p : SinkChat.getInstance().getSpyManager().getSpies(sender.getPlayer())) {
+            if (!recipients.contains(p) && !inRange.contains(p)) {
                 p.sendMessage(Util.getSpyPrefix() + message);
             }
         }
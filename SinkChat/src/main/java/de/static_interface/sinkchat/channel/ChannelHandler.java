@@ -19,19 +19,105 @@ package de.static_interface.sinkchat.channel;
 
 import de.static_interface.sinkchat.ChannelConfiguration;
 import de.static_interface.sinkchat.SinkChat;
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.configuration.IngameUserConfiguration;
+import org.bukkit.Bukkit;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
 
 public class ChannelHandler {
 
     private static Map<String, Channel> registeredChannels = new ConcurrentHashMap<>();
+    private static volatile CallCodeTrie callCodes = new CallCodeTrie(Collections.<Channel>emptyList());
+    // Channels disabled by each player, indexed by Channel#getOrdinal()
+    private static Map<UUID, BitSet> disabledChannels = new ConcurrentHashMap<>();
+    private static AtomicInteger nextOrdinal = new AtomicInteger();
 
     public static void registerChannel(Channel channel) {
+        channel.setOrdinal(nextOrdinal.getAndIncrement());
         registeredChannels.put(channel.getCallCode(), channel);
+        callCodes = new CallCodeTrie(registeredChannels.values());
+        disabledChannels.clear();
         saveChannel(channel);
     }
 
+    /**
+     * Find the channel a chat message has been written to
+     *
+     * @param message the chat message
+     * @param player the sender, channels which the sender has disabled are skipped
+     * @return the channel or null if the message doesn't start with the call code of an enabled channel
+     */
+    @Nullable
+    public static Channel getChannelForMessage(String message, UUID player) {
+        return callCodes.find(message, player);
+    }
+
+    static boolean isEnabledForPlayer(Channel channel, UUID uuid) {
+        BitSet disabled = disabledChannels.get(uuid);
+        if (disabled == null) {
+            // Only online players are cached, they are unloaded when they quit
+            disabled = isOnline(uuid) ? loadPlayer(uuid) : readDisabledChannels(uuid);
+        }
+        return !disabled.get(channel.getOrdinal());
+    }
+
+    static void setEnabledForPlayer(Channel channel, UUID uuid, boolean enabled) {
+        IngameUserConfiguration config = SinkLibrary.getInstance().getIngameUser(uuid).getConfiguration();
+        config.set(channel.getEnabledPath(), enabled);
+
+        BitSet disabled = disabledChannels.get(uuid);
+        if (disabled == null) {
+            if (isOnline(uuid)) {
+                loadPlayer(uuid);
+            }
+            return;
+        }
+        // Copy on write, the bits are read from async chat events
+        disabled = (BitSet) disabled.clone();
+        disabled.set(channel.getOrdinal(), !enabled);
+        disabledChannels.put(uuid, disabled);
+    }
+
+    /**
+     * Load the enabled channels of an online player from the player's configuration and cache them until the player quits
+     *
+     * @param uuid the player
+     * @return the channels the player has disabled
+     */
+    public static BitSet loadPlayer(UUID uuid) {
+        BitSet disabled = readDisabledChannels(uuid);
+        disabledChannels.put(uuid, disabled);
+        return disabled;
+    }
+
+    private static BitSet readDisabledChannels(UUID uuid) {
+        IngameUserConfiguration config = SinkLibrary.getInstance().getIngameUser(uuid).getConfiguration();
+        BitSet disabled = new BitSet();
+        for (Channel channel : registeredChannels.values()) {
+            Object value = config.get(channel.getEnabledPath(), true);
+            if (value instanceof Boolean && !((Boolean) value)) {
+                disabled.set(channel.getOrdinal());
+            }
+        }
+        return disabled;
+    }
+
+    private static boolean isOnline(UUID uuid) {
+        return Bukkit.getPlayer(uuid) != null;
+    }
+
+    public static void unloadPlayer(UUID uuid) {
+        disabledChannels.remove(uuid);
+    }
+
     /**
      * @return All registered channels. HashMap<String, Channel> where String is the call code, Channel is the channel instance.
      */
@@ -92,7 +178,8 @@ public class ChannelHandler {
             return false;
         }
 
-        registeredChannels.remove(channelName);
+        registeredChannels.remove(channel.getCallCode());
+        callCodes = new CallCodeTrie(registeredChannels.values());
         return deleteChannel(channel);
     }
 }
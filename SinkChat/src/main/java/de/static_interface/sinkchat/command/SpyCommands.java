@@ -17,6 +17,7 @@
 
 package de.static_interface.sinkchat.command;
 
+import de.static_interface.sinkchat.SinkChat;
 import de.static_interface.sinkchat.config.ScLanguage;
 import de.static_interface.sinkchat.config.ScSettings;
 import de.static_interface.sinklibrary.SinkLibrary;
@@ -58,6 +59,7 @@ public class SpyCommands {
             }
 
             config.setSpyEnabled(true);
+            SinkChat.getInstance().getSpyManager().update(player);
             sender.sendMessage(PREFIX + ScLanguage.SC_SPY_ENABLED.format());
             return true;
         }
@@ -85,6 +87,7 @@ public class SpyCommands {
             }
 
             config.setSpyEnabled(false);
+            SinkChat.getInstance().getSpyManager().update(player);
             sender.sendMessage(PREFIX + ScLanguage.SC_SPY_DISABLED.format());
             return true;
         }
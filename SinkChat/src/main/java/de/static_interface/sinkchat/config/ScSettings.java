@@ -29,6 +29,12 @@ import java.io.File;
 public class ScSettings extends Configuration {
 
     public final static YamlOption<Integer> SC_LOCAL_CHAT_RANGE = new YamlIntegerOption("LocalChatRange", 50);
+    public final static YamlOption<Integer>
+            SC_POSITION_UPDATE_INTERVAL =
+            new YamlIntegerOption("PositionUpdateInterval", 5, "Interval in ticks in which player positions for ranged chat are updated");
+    public final static YamlOption<Integer>
+            SC_SPY_UPDATE_INTERVAL =
+            new YamlIntegerOption("SpyUpdateInterval", 100, "Interval in ticks in which spy permissions are checked again");
     public final static YamlOption<String>
             SC_DEFAULT_CHAT_FORMAT =
             new YamlStringOption("DefaultChatFormat", "&7{CHANNEL} [{RANK}] {DISPLAYNAME}&7:&f {MESSAGE}");
@@ -18,17 +18,17 @@
 package de.static_interface.sinkchat.listener;
 
 import de.static_interface.sinkchat.SinkChat;
-import de.static_interface.sinkchat.TownyHelper;
+import de.static_interface.sinkchat.TownyChatIdentityProvider;
 import de.static_interface.sinkchat.Util;
 import de.static_interface.sinkchat.channel.Channel;
 import de.static_interface.sinkchat.channel.ChannelHandler;
 import de.static_interface.sinkchat.config.ScSettings;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.stream.MessageStream;
+import de.static_interface.sinklibrary.api.user.ChatIdentity;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.user.IngameUser;
 import de.static_interface.sinklibrary.util.StringUtil;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -36,9 +36,11 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 
 import javax.annotation.Nullable;
@@ -85,34 +87,25 @@ public class ChatListener implements Listener {
             event.setMessage(message);
         }
 
-        Channel channel;
-        for (String callChar : ChannelHandler.getRegisteredChannels().keySet()) {
-            channel = ChannelHandler.getRegisteredChannel(callChar);
-            if (!StringUtil.isEmptyOrNull(callChar) &&
-                event.getMessage().startsWith(callChar) &&
-                !event.getMessage().equalsIgnoreCase(callChar)) {
-
-                if (!channel.enabledForPlayer(event.getPlayer().getUniqueId())) {
-                    continue;
-                }
-
-                String msg = event.getMessage();
-                event.setFormat(channel.formatEventFormat(user));
-                event.setMessage(channel.formatMessage(event.getMessage()));
-                channel.handleMessage(user, event.getRecipients(), message);
-                channel.sendMessage(user, msg, true);
-                return;
-            }
+        Channel channel = ChannelHandler.getChannelForMessage(event.getMessage(), event.getPlayer().getUniqueId());
+        if (channel != null) {
+            String msg = event.getMessage();
+            event.setFormat(channel.formatEventFormat(user));
+            event.setMessage(channel.formatMessage(event.getMessage()));
+            channel.handleMessage(user, event.getRecipients(), message);
+            channel.sendMessage(user, msg, true);
+            return;
         }
 
         int range = ScSettings.SC_LOCAL_CHAT_RANGE.getValue();
 
         HashMap<String, Object> customParams = new HashMap<>();
         if (SinkChat.getInstance().isTownyAvailable()) {
-            customParams.put("NATIONTAG", TownyHelper.getNationTag(event.getPlayer()));
-            customParams.put("TOWN(Y)?TAG", TownyHelper.getTownTag(event.getPlayer()));
-            customParams.put("TOWN(Y)?", TownyHelper.getTown(event.getPlayer()));
-            customParams.put("NATION", TownyHelper.getNation(event.getPlayer()));
+            ChatIdentity identity = user.getChatIdentity();
+            customParams.put("NATIONTAG", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.NATION_TAG));
+            customParams.put("TOWN(Y)?TAG", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.TOWN_TAG));
+            customParams.put("TOWN(Y)?", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.TOWN));
+            customParams.put("NATION", TownyChatIdentityProvider.get(identity, TownyChatIdentityProvider.NATION));
         }
         customParams.put("CHANNEL", ScSettings.SC_PREFIX_LOCAL.format());
 
@@ -130,21 +123,17 @@ public class ChatListener implements Listener {
         String spyMessage = Util.getSpyPrefix() + eventFormat.replace("%1$s", user.getDisplayName()).replace("%2$s", event.getMessage());
         //String spyMessage = Util.getSpyPrefix() + eventFormat;
 
-        for (Player p : new HashSet<>(event.getRecipients())) {
-            if (!Util.isInRange(user, p, range)) {
-                event.getRecipients().remove(p);
-            }
+        Set<Player> inRange = null;
+        if (range > 0) {
+            inRange = SinkChat.getInstance().getPositionIndex().getPlayersInRange(event.getPlayer(), range);
+            event.getRecipients().retainAll(inRange);
         }
 
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            if (event.getRecipients().contains(p)) {
-                continue;
-            }
-
-            IngameUser target = SinkLibrary.getInstance().getIngameUser(p);
-
-            if (!Util.isInRange(user, p, range) && Util.canSpySender(target, user)) {
-                p.sendMessage(spyMessage);
+        if (inRange != null) {
+            for (Player p : SinkChat.getInstance().getSpyManager().getSpies(event.getPlayer())) {
+                if (!event.getRecipients().contains(p) && !inRange.contains(p)) {
+                    p.sendMessage(spyMessage);
+                }
             }
         }
 
@@ -153,6 +142,18 @@ public class ChatListener implements Listener {
         //Bukkit.getConsoleSender().sendMessage(spyMessage);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        ChannelHandler.loadPlayer(event.getPlayer().getUniqueId());
+        SinkChat.getInstance().getPositionIndex().addPlayer(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        ChannelHandler.unloadPlayer(event.getPlayer().getUniqueId());
+        SinkChat.getInstance().getPositionIndex().removePlayer(event.getPlayer());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
     public void onPlayerCommandPreprocess(PlayerCommandPreprocessEvent event) {
         IngameUser user = SinkLibrary.getInstance().getIngameUser(event.getPlayer());
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkchat.listener;
+
+import com.palmergames.bukkit.towny.event.DeleteNationEvent;
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.NationAddTownEvent;
+import com.palmergames.bukkit.towny.event.NationRemoveTownEvent;
+import com.palmergames.bukkit.towny.event.RenameNationEvent;
+import com.palmergames.bukkit.towny.event.RenameTownEvent;
+import com.palmergames.bukkit.towny.event.TownAddResidentEvent;
+import com.palmergames.bukkit.towny.event.TownRemoveResidentEvent;
+import com.palmergames.bukkit.towny.object.Resident;
+import de.static_interface.sinklibrary.SinkLibrary;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Invalidates the chat identities of players when their Towny tags change
+ */
+public class TownyListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownAddResident(TownAddResidentEvent event) {
+        invalidate(event.getResident());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownRemoveResident(TownRemoveResidentEvent event) {
+        invalidate(event.getResident());
+    }
+
+    // The following events affect multiple residents, they are rare enough to just invalidate everyone
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationAddTown(NationAddTownEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationRemoveTown(NationRemoveTownEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameTown(RenameTownEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameNation(RenameNationEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeleteTown(DeleteTownEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeleteNation(DeleteNationEvent event) {
+        SinkLibrary.getInstance().invalidateChatIdentities();
+    }
+
+    private void invalidate(Resident resident) {
+        Player player = Bukkit.getPlayerExact(resident.getName());
+        if (player != null) {
+            SinkLibrary.getInstance().getIngameUser(player).invalidateChatIdentity();
+        }
+    }
+}
@@ -29,7 +29,7 @@ public class LagTimer implements Runnable {
 
     @Override
     public void run() {
-        double tps = SinkLibrary.getInstance().getSinkTimer().getAverageTPS();
+        double tps = SinkLibrary.getInstance().getTickProfiler().getTps(60);
         if (tps <= 17 && !send) {
             BukkitUtil.broadcastMessage(PREFIX + ChatColor.RED + "Der Server laggt gerade!");
             send = true;
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkcommands;
+
+import de.static_interface.sinkcommands.config.ScmdSettings;
+import de.static_interface.sinklibrary.api.user.IdentifiableUser;
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.user.IrcUser;
+import de.static_interface.sinklibrary.user.ProxiedUser;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * Remembers whom users talked to last, so they can use /reply. Users are identified by their UUID or IRC nick.
+ * Entries expire a while after the last message and the oldest entries are evicted when the tracker is full.
+ * Proxied senders are indexed by the user they act for, so messages of that user are routed to the proxy.
+ */
+public class ReplyTracker {
+
+    // Ordered by the time of the last message, the eldest entry is the first to expire
+    private final Map<String, Entry> replies = new LinkedHashMap<>();
+    private final Map<String, SinkUser> proxies = new HashMap<>();
+
+    /**
+     * @param user the user
+     * @return key which identifies the user across sessions
+     */
+    public static String getKey(SinkUser user) {
+        if (user instanceof ProxiedUser) {
+            return getKey(((ProxiedUser) user).getBaseObject());
+        }
+        if (user instanceof IdentifiableUser) {
+            return ((IdentifiableUser) user).getUniqueId().toString();
+        }
+        if (user instanceof IrcUser) {
+            return getIrcKey(user.getName());
+        }
+        return user.getClass().getSimpleName() + ':' + user.getName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param nick nick of the IRC user
+     * @return key of the IRC user
+     */
+    public static String getIrcKey(String nick) {
+        return "irc:" + nick.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Remember that the users talked to each other
+     *
+     * @param executor the sender of the message
+     * @param target the receiver of the message
+     */
+    public synchronized void put(SinkUser executor, SinkUser target) {
+        long now = System.currentTimeMillis();
+        removeExpired(now);
+        put(executor, target, now);
+        put(target, executor, now);
+
+        int maxSize = ScmdSettings.SCMD_MESSAGE_REPLY_MAX_SIZE.getValue();
+        Iterator<Map.Entry<String, Entry>> iterator = replies.entrySet().iterator();
+        while (replies.size() > maxSize && iterator.hasNext()) {
+            proxies.remove(iterator.next().getKey());
+            iterator.remove();
+        }
+    }
+
+    private void put(SinkUser user, SinkUser target, long time) {
+        String key = getKey(user);
+        // Reinsert the entry to keep the map ordered by time
+        replies.remove(key);
+        replies.put(key, new Entry(target, getKey(target), time));
+        if (user instanceof ProxiedUser) {
+            proxies.put(key, user);
+        }
+    }
+
+    /**
+     * @param user the user
+     * @return the user whom the given user talked to last or null if the user didn't talk to anyone recently
+     */
+    @Nullable
+    public synchronized SinkUser getLastReply(SinkUser user) {
+        removeExpired(System.currentTimeMillis());
+        Entry entry = replies.get(getKey(user));
+        return entry == null ? null : entry.target;
+    }
+
+    /**
+     * @param user the user
+     * @return the proxy which recently talked on behalf of the user or the user itself
+     */
+    public synchronized SinkUser getSender(SinkUser user) {
+        if (user instanceof ProxiedUser) {
+            return user;
+        }
+        SinkUser proxy = proxies.get(getKey(user));
+        return proxy == null ? user : proxy;
+    }
+
+    /**
+     * Forget the user and the conversations with the user, called when the user quits
+     *
+     * @param key key of the user
+     * @see #getKey(SinkUser)
+     */
+    public synchronized void remove(String key) {
+        replies.remove(key);
+        proxies.remove(key);
+        // The target instances of the user are stale after the user has quit
+        Iterator<Map.Entry<String, Entry>> iterator = replies.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getValue().targetKey.equals(key)) {
+                proxies.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forget the player and the conversations with the player, called when the player quits
+     *
+     * @param uuid UUID of the player
+     */
+    public void remove(UUID uuid) {
+        remove(uuid.toString());
+    }
+
+    public synchronized void clear() {
+        replies.clear();
+        proxies.clear();
+    }
+
+    private void removeExpired(long now) {
+        long ttl = ScmdSettings.SCMD_MESSAGE_REPLY_TTL.getValue() * 1000L;
+        Iterator<Map.Entry<String, Entry>> iterator = replies.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (now - entry.getValue().time < ttl) {
+                break;
+            }
+            proxies.remove(entry.getKey());
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+
+        private final SinkUser target;
+        private final String targetKey;
+        private final long time;
+
+        private Entry(SinkUser target, String targetKey, long time) {
+            this.target = target;
+            this.targetKey = targetKey;
+            this.time = time;
+        }
+    }
+}
@@ -35,10 +35,10 @@ import de.static_interface.sinkcommands.command.TeamchatCommand;
 import de.static_interface.sinkcommands.config.ScmdSettings;
 import de.static_interface.sinkcommands.listener.DrugDeadListener;
 import de.static_interface.sinkcommands.listener.GlobalMuteListener;
+import de.static_interface.sinkcommands.listener.ReplyListener;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
 import org.bukkit.Bukkit;
-import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -48,6 +48,7 @@ public class SinkCommands extends JavaPlugin {
     private static SinkCommands instance;
     private boolean globalmuteEnabled;
     private boolean initialized = false;
+    private final ReplyTracker replyTracker = new ReplyTracker();
 
     public static SinkCommands getInstance() {
         return instance;
@@ -95,13 +96,14 @@ public class SinkCommands extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        replyTracker.clear();
         instance = null;
     }
 
     private void registerEvents() {
-        PluginManager pm = Bukkit.getPluginManager();
-        pm.registerEvents(new GlobalMuteListener(), this);
-        pm.registerEvents(new DrugDeadListener(), this);
+        SinkLibrary.getInstance().registerListener(new GlobalMuteListener(), this);
+        SinkLibrary.getInstance().registerListener(new DrugDeadListener(), this);
+        SinkLibrary.getInstance().registerListener(new ReplyListener(), this);
     }
 
     private void registerCommands(Configuration config) {
@@ -125,6 +127,13 @@ public class SinkCommands extends JavaPlugin {
         SinkLibrary.getInstance().registerCommand("reply", new MessageCommands.ReplyCommand(this, config));
     }
 
+    /**
+     * @return Tracker of the last message partners for /reply
+     */
+    public ReplyTracker getReplyTracker() {
+        return replyTracker;
+    }
+
     public boolean isGlobalmuteEnabled() {
         return globalmuteEnabled;
     }
@@ -22,11 +22,15 @@ import de.static_interface.sinklibrary.api.command.SinkCommand;
 import de.static_interface.sinklibrary.api.command.annotation.DefaultPermission;
 import de.static_interface.sinklibrary.api.command.annotation.Description;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
+import de.static_interface.sinklibrary.profiler.LatencyHistogram;
+import de.static_interface.sinklibrary.profiler.TickProfiler;
+import de.static_interface.sinklibrary.profiler.TickSpike;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
 
 import java.text.DecimalFormat;
+import java.util.List;
 
 @DefaultPermission
 @Description("Shows information about server lag")
@@ -40,9 +44,9 @@ public class LagCommand extends SinkCommand {
 
     @Override
     public boolean onExecute(CommandSender sender, String label, String[] args) {
-        double realTPS = SinkLibrary.getInstance().getSinkTimer().getAverageTPS();
+        TickProfiler profiler = SinkLibrary.getInstance().getTickProfiler();
+        double realTPS = profiler.getTps(60);
         DecimalFormat decimalFormat = new DecimalFormat("##.0");
-        String shownTPS = decimalFormat.format(realTPS);
         if (realTPS >= 18.5) {
             sender.sendMessage(PREFIX + ChatColor.GREEN + "Der Server läuft ohne Probleme!");
         } else if (realTPS >= 17) {
@@ -50,8 +54,26 @@ public class LagCommand extends SinkCommand {
         } else {
             sender.sendMessage(PREFIX + ChatColor.RED + "Der Server laggt gerade!");
         }
-        sender.sendMessage(PREFIX + "(TPS: " + shownTPS + ')');
+        sender.sendMessage(PREFIX + "(TPS 1m/5m/15m: " + decimalFormat.format(realTPS) + ", " + decimalFormat.format(profiler.getTps(300)) + ", "
+                           + decimalFormat.format(profiler.getTps(900)) + ')');
+
+        LatencyHistogram histogram = profiler.getHistogram(60);
+        sender.sendMessage(PREFIX + "(Tick-Intervall p50/p95/p99/max: " + formatMillis(histogram.getPercentile(50)) + ", "
+                           + formatMillis(histogram.getPercentile(95)) + ", " + formatMillis(histogram.getPercentile(99)) + ", "
+                           + formatMillis(histogram.getMax()) + ')');
+
+        List<TickSpike> spikes = profiler.getSpikes();
+        if (!spikes.isEmpty()) {
+            TickSpike spike = spikes.get(spikes.size() - 1);
+            List<String> hotFrames = spike.getHotFrames(1);
+            sender.sendMessage(PREFIX + "(Letzter Lag-Spike: " + spike.getDuration() + " ms"
+                               + (hotFrames.isEmpty() ? "" : ", " + hotFrames.get(0)) + ')');
+        }
         return true;
     }
+
+    private static String formatMillis(long micros) {
+        return new DecimalFormat("0.0").format(micros / 1000.0);
+    }
 }
 
@@ -17,6 +17,8 @@
 
 package de.static_interface.sinkcommands.command;
 
+import de.static_interface.sinkcommands.ReplyTracker;
+import de.static_interface.sinkcommands.SinkCommands;
 import de.static_interface.sinkcommands.config.ScmdSettings;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.command.SinkCommand;
@@ -26,10 +28,8 @@ import de.static_interface.sinklibrary.api.command.annotation.Description;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
 import de.static_interface.sinklibrary.api.exception.UserNotFoundException;
 import de.static_interface.sinklibrary.api.user.SinkUser;
-import de.static_interface.sinklibrary.sender.ProxiedPlayer;
 import de.static_interface.sinklibrary.user.IngameUser;
 import de.static_interface.sinklibrary.user.IrcUser;
-import de.static_interface.sinklibrary.user.ProxiedUser;
 import de.static_interface.sinklibrary.util.StringUtil;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
@@ -37,21 +37,12 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class MessageCommands {
 
-    private static Map<SinkUser, SinkUser> lastReplies = new ConcurrentHashMap<>();
-
     private static void sendMessage(SinkUser executor, SinkUser target, String message) {
-        for (SinkUser user : lastReplies.keySet()) {
-            if (user instanceof ProxiedUser && !(executor instanceof ProxiedUser) && ((ProxiedPlayer) user.getBase()).getBaseObject()
-                    .equals(executor.getSender())) {
-                executor = user;
-                break;
-            }
-        }
+        ReplyTracker replies = SinkCommands.getInstance().getReplyTracker();
+        executor = replies.getSender(executor);
         //Todo: add @Name Message Support
         String format = ScmdSettings.SCMD_MESSAGE_SEND_FORMAT.getValue();
         HashMap<String, Object> customValues = new HashMap<>();
@@ -80,8 +71,7 @@ public class MessageCommands {
             target.sendMessage(StringUtil.format(format, executor, target, message, customValues));
         }
 
-        lastReplies.put(executor, target);
-        lastReplies.put(target, executor);
+        replies.put(executor, target);
     }
 
     @DefaultPermission
@@ -144,7 +134,7 @@ public class MessageCommands {
             }
 
             SinkUser executor = SinkLibrary.getInstance().getUser((Object) sender);
-            SinkUser target = lastReplies.get(executor);
+            SinkUser target = SinkCommands.getInstance().getReplyTracker().getLastReply(executor);
 
             if (target == null || !target.isOnline()) {
                 throw new UserNotFoundException();
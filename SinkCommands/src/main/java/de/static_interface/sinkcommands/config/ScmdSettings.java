@@ -18,6 +18,7 @@
 package de.static_interface.sinkcommands.config;
 
 import de.static_interface.sinklibrary.api.configuration.Configuration;
+import de.static_interface.sinklibrary.api.configuration.option.YamlIntegerOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlParentOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlStringOption;
@@ -33,6 +34,12 @@ public class ScmdSettings extends Configuration {
     public final static YamlOption<String>
             SCMD_MESSAGE_SEND_FORMAT =
             new YamlStringOption(SCMD_MESSAGE_PARENT, "MessageSend", "&7[&6Me &7-> {TARGETIRCPREFIX} {TARGETDISPLAYNAME}&7]&r {USERMESSAGE}");
+    public final static YamlOption<Integer>
+            SCMD_MESSAGE_REPLY_TTL =
+            new YamlIntegerOption(SCMD_MESSAGE_PARENT, "ReplyTTL", 1800, "Time in seconds after the last message in which /reply still works");
+    public final static YamlOption<Integer>
+            SCMD_MESSAGE_REPLY_MAX_SIZE =
+            new YamlIntegerOption(SCMD_MESSAGE_PARENT, "ReplyMaxSize", 1024, "Maximum amount of users whose reply target is remembered");
 
 
     public ScmdSettings(File file) {
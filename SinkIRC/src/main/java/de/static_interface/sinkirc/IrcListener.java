@@ -26,92 +26,50 @@ import de.static_interface.sinklibrary.api.event.IrcPartEvent;
 import de.static_interface.sinklibrary.api.event.IrcPrivateMessageEvent;
 import de.static_interface.sinklibrary.api.event.IrcQuitEvent;
 import de.static_interface.sinklibrary.api.event.IrcReceiveMessageEvent;
-import de.static_interface.sinklibrary.api.event.MessageStreamEvent;
+import de.static_interface.sinklibrary.api.event.MessageStreamRegisterEvent;
 import de.static_interface.sinklibrary.api.stream.MessageStream;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.util.BukkitUtil;
 import de.static_interface.sinklibrary.util.Debug;
-import de.static_interface.sinklibrary.util.StringUtil;
-import org.apache.commons.lang.Validate;
 import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.pircbotx.Channel;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 
 public class IrcListener implements Listener {
 
     public static final String IRC_PREFIX = ChatColor.GRAY + "[IRC] " + ChatColor.RESET;
 
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onMessageStream(MessageStreamEvent event) {
-        String name = event.getMessageStream().getName().toLowerCase().trim();
-        Debug.logMethodCall(event.getEventName() + "(" + name + ")", event.getUser() != null ? event.getUser().getName() : null, event.getMessage());
-        Validate.notNull(name);
-        Map<String, List<String>> redirects = SinkIRC.getInstance().getStreamRedirects();
-        if (redirects.size() == 0 || !redirects.containsKey(name)) {
-            return;
-        }
-
-        List<String> targetChannels = redirects.get(name);
-        if (targetChannels == null) {
-            Debug.log("targetchannels == null");
-            return;
-        }
-
-        Debug.log("targetChannels.size() = " + targetChannels.size());
-
-        String msg = event.getMessage();
-        if (StringUtil.isEmptyOrNull(msg)) {
-            return;
-        }
-        SinkUser sender = event.getUser();
-        msg = event.getMessageStream().formatMessage(sender, msg);
-
-        for (String channelName : targetChannels) {
-            Channel channel = IrcUtil.getChannel(channelName);
-            if (channel == null) {
-                Debug.log(channelName + "->channel == null");
-                continue;
-            }
-
-            channel.send().message(IrcUtil.replaceColorCodes(msg));
-        }
-    }
-
     @EventHandler(priority = EventPriority.MONITOR)
     public void onIrcMessage(IrcReceiveMessageEvent event) {
         String name = event.getChannel().getName();
-        Debug.logMethodCall(event.getEventName() + "(" + name + ")", event.getUser().getNick(), event.getMessage());
-        Map<String, List<String>> redirects = SinkIRC.getInstance().getStreamRedirects();
-        if (redirects.size() == 0 || !redirects.containsKey(name)) {
+        List<MessageStream> targetStreams = SinkIRC.getInstance().getStreamRoutes().getTargetStreams(name);
+        if (targetStreams.isEmpty()) {
             return;
         }
 
-        List<String> targetStreams = redirects.get(name);
-        if (targetStreams == null) {
-            return;
+        Debug.logMethodCall(event.getEventName() + "(" + name + ")", event.getUser().getNick(), event.getMessage());
+        SinkUser user = SinkLibrary.getInstance().getIrcUser(event.getUser(), name);
+        for (MessageStream stream : targetStreams) {
+            stream.sendMessage(user, event.getMessage());
         }
+    }
 
-        for (String streamName : targetStreams) {
-            Validate.notNull(streamName);
-            MessageStream stream = SinkLibrary.getInstance().getMessageStream(streamName.toLowerCase().trim());
-            SinkUser user = SinkLibrary.getInstance().getIrcUser(event.getUser(), event.getChannel().getName());
-            String message = event.getMessage();
-            stream.sendMessage(user, message);
-        }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onMessageStreamRegister(MessageStreamRegisterEvent event) {
+        SinkIRC.getInstance().compileStreamRoutes();
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onIrcJoin(IrcJoinEvent event) {
         if (event.getUser().equals(SinkIRC.getInstance().getIrcBot().getUserBot())) {
             Debug.log("Bot joined, skipping");
+            SinkIRC.getInstance().compileStreamRoutes();
             return;
         }
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc;
+
+import org.pircbotx.User;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Users of all joined channels with their op status, kept up to date by the {@link PircBotXLinkListener}.
+ * Lookups are map reads instead of iterating over all channels and their users; updates are synchronized.
+ */
+public class IrcUserDirectory {
+
+    private final Map<User, Entry> users = new ConcurrentHashMap<>();
+    private final NavigableMap<String, User> nicks = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * @param user the user
+     * @return true if the user is op in any joined channel
+     */
+    public boolean isOp(User user) {
+        Entry entry = users.get(user);
+        return entry != null && entry.op;
+    }
+
+    /**
+     * @param name nick or start of the nick, ignoring case
+     * @return the user with the given nick, or the user with the alphabetically first nick starting with it
+     */
+    @Nullable
+    public User getUser(String name) {
+        User user = nicks.get(name);
+        if (user != null) {
+            return user;
+        }
+
+        Map.Entry<String, User> entry = nicks.ceilingEntry(name);
+        if (entry == null || !entry.getKey().regionMatches(true, 0, name, 0, name.length())) {
+            return null;
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * @return amount of known users
+     */
+    public int size() {
+        return users.size();
+    }
+
+    /**
+     * The user joined a channel or has been listed in a channel after the bot joined it
+     */
+    public synchronized void onJoin(User user, String channel, boolean op) {
+        Entry entry = users.get(user);
+        if (entry == null) {
+            entry = new Entry(user.getNick());
+            users.put(user, entry);
+            nicks.put(entry.nick, user);
+        }
+        entry.channels.add(channel.toLowerCase(Locale.ROOT));
+        entry.setOp(channel, op);
+    }
+
+    /**
+     * The user has been given or lost op in a channel
+     */
+    public synchronized void onOp(User user, String channel, boolean op) {
+        Entry entry = users.get(user);
+        if (entry != null) {
+            entry.setOp(channel, op);
+        }
+    }
+
+    /**
+     * The user left or has been kicked from a channel
+     */
+    public synchronized void onPart(User user, String channel) {
+        Entry entry = users.get(user);
+        if (entry == null) {
+            return;
+        }
+        entry.channels.remove(channel.toLowerCase(Locale.ROOT));
+        entry.setOp(channel, false);
+        if (entry.channels.isEmpty()) {
+            remove(user, entry);
+        }
+    }
+
+    /**
+     * The user disconnected from the server
+     */
+    public synchronized void onQuit(User user) {
+        Entry entry = users.get(user);
+        if (entry != null) {
+            remove(user, entry);
+        }
+    }
+
+    /**
+     * The user changed its nick
+     */
+    public synchronized void onNickChange(User user, String newNick) {
+        Entry entry = users.get(user);
+        if (entry == null) {
+            return;
+        }
+        nicks.remove(entry.nick, user);
+        entry.nick = newNick;
+        nicks.put(newNick, user);
+    }
+
+    /**
+     * The bot itself left a channel, so the users of it are unknown now
+     */
+    public synchronized void onChannelLeft(String channel) {
+        Iterator<Map.Entry<User, Entry>> iterator = users.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<User, Entry> mapEntry = iterator.next();
+            Entry entry = mapEntry.getValue();
+            entry.channels.remove(channel.toLowerCase(Locale.ROOT));
+            entry.setOp(channel, false);
+            if (entry.channels.isEmpty()) {
+                iterator.remove();
+                nicks.remove(entry.nick, mapEntry.getKey());
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        users.clear();
+        nicks.clear();
+    }
+
+    private void remove(User user, Entry entry) {
+        users.remove(user);
+        nicks.remove(entry.nick, user);
+    }
+
+    private static class Entry {
+
+        private final Set<String> channels = new HashSet<>();
+        private final Set<String> opChannels = new HashSet<>();
+        private String nick;
+        private volatile boolean op;
+
+        private Entry(String nick) {
+            this.nick = nick;
+        }
+
+        private void setOp(String channel, boolean value) {
+            if (value) {
+                opChannels.add(channel.toLowerCase(Locale.ROOT));
+            } else {
+                opChannels.remove(channel.toLowerCase(Locale.ROOT));
+            }
+            op = !opChannels.isEmpty();
+        }
+    }
+}
@@ -30,7 +30,6 @@ import org.pircbotx.Channel;
 import org.pircbotx.Colors;
 import org.pircbotx.User;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
@@ -43,12 +42,7 @@ public class IrcUtil {
     private static List<String> loadedChannels = new CopyOnWriteArrayList<>();
 
     public static boolean isOp(User user) {
-        for (Channel channel : SinkIRC.getInstance().getJoinedChannels()) {
-            if (channel.isOp(user)) {
-                return true;
-            }
-        }
-        return false;
+        return SinkIRC.getInstance().getUserDirectory().isOp(user);
     }
 
     public static void setOp(User user, Channel channel, Boolean value) {
@@ -107,26 +101,11 @@ public class IrcUtil {
     @Nullable
     public static User getUser(String name) {
         Debug.logMethodCall(name);
-        List<User> matchedUsers = new ArrayList<>();
-        for (Channel channel : SinkIRC.getInstance().getJoinedChannels()) {
-            for (User user : channel.getUsers()) {
-                if (matchedUsers.contains(user)) {
-                    continue;
-                }
-                if (user.getNick().startsWith(name)) {
-                    matchedUsers.add(user);
-                }
-                if (user.getNick().equalsIgnoreCase(name)) {
-                    return user;
-                }
-            }
+        User user = SinkIRC.getInstance().getUserDirectory().getUser(name);
+        if (user == null) {
+            Debug.log("Couldn't find IRC user: " + name);
         }
-
-        if (matchedUsers.size() > 0) {
-            return matchedUsers.get(0);
-        }
-        Debug.log("Couldn't find IRC user: " + name);
-        return null;
+        return user;
     }
 
     @Nullable
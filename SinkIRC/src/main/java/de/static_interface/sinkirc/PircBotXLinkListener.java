@@ -30,15 +30,19 @@ import de.static_interface.sinklibrary.util.Debug;
 import org.bukkit.Bukkit;
 import org.pircbotx.Channel;
 import org.pircbotx.PircBotX;
+import org.pircbotx.User;
 import org.pircbotx.hooks.ListenerAdapter;
+import org.pircbotx.hooks.events.DisconnectEvent;
 import org.pircbotx.hooks.events.JoinEvent;
 import org.pircbotx.hooks.events.KickEvent;
 import org.pircbotx.hooks.events.MessageEvent;
 import org.pircbotx.hooks.events.ModeEvent;
 import org.pircbotx.hooks.events.NickChangeEvent;
+import org.pircbotx.hooks.events.OpEvent;
 import org.pircbotx.hooks.events.PartEvent;
 import org.pircbotx.hooks.events.PrivateMessageEvent;
 import org.pircbotx.hooks.events.QuitEvent;
+import org.pircbotx.hooks.events.UserListEvent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,12 +72,26 @@ public class PircBotXLinkListener extends ListenerAdapter<PircBotX> {
 
     @Override
     public void onJoin(JoinEvent<PircBotX> event) {
+        getUserDirectory().onJoin(event.getUser(), event.getChannel().getName(), event.getChannel().isOp(event.getUser()));
         SinkLibrary.getInstance().loadIrcUser(event.getUser(), event.getChannel().getName());
 
         IrcJoinEvent bukkitEvent = new IrcJoinEvent(event.getUser(), event.getChannel(), event.getBot());
         Bukkit.getPluginManager().callEvent(bukkitEvent);
     }
 
+    @Override
+    public void onUserList(UserListEvent<PircBotX> event) {
+        Channel channel = event.getChannel();
+        for (User user : event.getUsers()) {
+            getUserDirectory().onJoin(user, channel.getName(), channel.isOp(user));
+        }
+    }
+
+    @Override
+    public void onOp(OpEvent<PircBotX> event) {
+        getUserDirectory().onOp(event.getRecipient(), event.getChannel().getName(), event.isOp());
+    }
+
     @Override
     public void onMode(ModeEvent<PircBotX> event) {
         IrcModeEvent bukkitEvent = new IrcModeEvent(event.getUser(), event.getChannel(), event.getMode(), event.getModeParsed(), event.getBot());
@@ -82,6 +100,11 @@ public class PircBotXLinkListener extends ListenerAdapter<PircBotX> {
 
     @Override
     public void onPart(PartEvent<PircBotX> event) {
+        if (isBot(event.getUser())) {
+            getUserDirectory().onChannelLeft(event.getChannel().getName());
+        } else {
+            getUserDirectory().onPart(event.getUser(), event.getChannel().getName());
+        }
         SinkLibrary.getInstance().unloadIrcUser(event.getUser());
 
         IrcPartEvent bukkitEvent = new IrcPartEvent(event.getUser(), event.getChannel(), event.getReason(), event.getDaoSnapshot(), event.getBot());
@@ -90,6 +113,11 @@ public class PircBotXLinkListener extends ListenerAdapter<PircBotX> {
 
     @Override
     public void onKick(KickEvent<PircBotX> event) {
+        if (isBot(event.getRecipient())) {
+            getUserDirectory().onChannelLeft(event.getChannel().getName());
+        } else {
+            getUserDirectory().onPart(event.getRecipient(), event.getChannel().getName());
+        }
         SinkLibrary.getInstance().unloadIrcUser(event.getUser());
 
         IrcKickEvent bukkitEvent = new IrcKickEvent(event.getUser(), event.getRecipient(), event.getChannel(), event.getReason(), event.getBot());
@@ -98,19 +126,38 @@ public class PircBotXLinkListener extends ListenerAdapter<PircBotX> {
 
     @Override
     public void onQuit(QuitEvent<PircBotX> event) {
+        getUserDirectory().onQuit(event.getUser());
+        SinkLibrary.getInstance().unloadIrcUser(event.getUser());
+
         IrcQuitEvent bukkitEvent = new IrcQuitEvent(event.getUser(), event.getReason(), event.getDaoSnapshot(), event.getBot());
         Bukkit.getPluginManager().callEvent(bukkitEvent);
     }
 
     @Override
     public void onNickChange(NickChangeEvent<PircBotX> event) {
+        getUserDirectory().onNickChange(event.getUser(), event.getNewNick());
+        SinkLibrary.getInstance().refreshIrcUser(event.getUser());
+
         IrcNickChangeEvent bukkitEvent = new IrcNickChangeEvent(event.getOldNick(), event.getNewNick(), event.getUser(), event.getBot());
         Bukkit.getPluginManager().callEvent(bukkitEvent);
     }
 
+    @Override
+    public void onDisconnect(DisconnectEvent<PircBotX> event) {
+        getUserDirectory().clear();
+    }
+
     @Override
     public void onPrivateMessage(PrivateMessageEvent<PircBotX> event) {
         IrcPrivateMessageEvent bukkitEvent = new IrcPrivateMessageEvent(event.getUser(), event.getMessage(), event.getBot());
         Bukkit.getPluginManager().callEvent(bukkitEvent);
     }
+
+    private static IrcUserDirectory getUserDirectory() {
+        return SinkIRC.getInstance().getUserDirectory();
+    }
+
+    private static boolean isBot(User user) {
+        return user.getNick().equals(SinkIRC.getInstance().getIrcBot().getNick());
+    }
 }
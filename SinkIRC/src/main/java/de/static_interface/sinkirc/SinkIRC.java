@@ -25,8 +25,12 @@ import de.static_interface.sinkirc.irc_command.ListCommand;
 import de.static_interface.sinkirc.irc_command.SayCommand;
 import de.static_interface.sinkirc.irc_command.SetCommand;
 import de.static_interface.sinkirc.queue.IrcQueue;
+import de.static_interface.sinkirc.queue.MessageCoalescer;
 import de.static_interface.sinkirc.stream.IrcMessageStream;
+import de.static_interface.sinkirc.stream.IrcStreamRelay;
+import de.static_interface.sinkirc.stream.StreamRoutingTable;
 import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.stream.MessageStream;
 import de.static_interface.sinklibrary.util.Debug;
 import de.static_interface.sinklibrary.util.StringUtil;
 import org.bukkit.Bukkit;
@@ -49,6 +53,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 public class SinkIRC extends JavaPlugin {
@@ -56,15 +62,26 @@ public class SinkIRC extends JavaPlugin {
     private static SinkIRC instance;
     boolean threadStarted = false;
     private PircBotX ircBot;
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
     private Thread ircThread;
-    private Map<String, List<String>> streamRedirects = new HashMap<>();
-    private long lastCacheUpdate;
+    private volatile StreamRoutingTable streamRoutes = StreamRoutingTable.EMPTY;
+    private final Set<String> reportedRouteErrors = ConcurrentHashMap.newKeySet();
+    private final IrcStreamRelay streamRelay = new IrcStreamRelay();
+    private MessageCoalescer messageCoalescer = new MessageCoalescer();
+    private final SinkIrcBridge ircBridge = new SinkIrcBridge(this);
+    private final IrcUserDirectory userDirectory = new IrcUserDirectory();
 
     public static SinkIRC getInstance() {
         return instance;
     }
 
+    /**
+     * @return true if {@link #onEnable()} has been completed
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
     public Collection<Channel> getJoinedChannels() {
         return SinkIRC.getInstance().getIrcBot().getUserBot().getChannels();
     }
@@ -73,6 +90,14 @@ public class SinkIRC extends JavaPlugin {
         return ircBot;
     }
 
+    public IrcUserDirectory getUserDirectory() {
+        return userDirectory;
+    }
+
+    public MessageCoalescer getMessageCoalescer() {
+        return messageCoalescer;
+    }
+
     @Override
     public void onEnable() {
         if (!checkDependencies() || initialized) {
@@ -80,6 +105,7 @@ public class SinkIRC extends JavaPlugin {
         }
 
         instance = this;
+        SinkLibrary.getInstance().registerIrcBridge(ircBridge);
 
         File sinkIrcDirectory = new File(SinkLibrary.getInstance().getCustomDataFolder(), "SinkIRC");
         new SiSettings(new File(sinkIrcDirectory, "Settings.yml")).init();
@@ -191,8 +217,19 @@ public class SinkIRC extends JavaPlugin {
         });
         ircThread.start();
 
+        compileStreamRoutes();
         IrcQueue.getInstance().start();
-        Bukkit.getPluginManager().registerEvents(new IrcListener(), this);
+        messageCoalescer.start(this, SiSettings.SI_QUEUE_COALESCE_WINDOW.getValue());
+        SinkLibrary.getInstance().registerDebugStats("irc", () -> {
+            IrcQueue queue = IrcQueue.getInstance();
+            MessageCoalescer coalescer = messageCoalescer;
+            return String.format("Queue: %d waiting, sent: %d, dropped: %d, rejected: %d, merged: %d, latency avg: %.1f ms, max: %d ms; "
+                                 + "coalescer: %d messages -> %d lines, rejected: %d",
+                                 queue.getDepth(), queue.getSentMessages(), queue.getDroppedMessages(), queue.getRejectedMessages(),
+                                 queue.getMergedMessages(), queue.getAverageLatency(), queue.getMaxLatency(),
+                                 coalescer.getReceivedMessages(), coalescer.getFlushedLines(), coalescer.getRejectedLines());
+        });
+        SinkLibrary.getInstance().registerListener(new IrcListener(), this);
 
         de.static_interface.sinklibrary.api.configuration.Configuration
                 commandsConfig = new de.static_interface.sinklibrary.api.configuration.Configuration(new File(sinkIrcDirectory, "Commands.yml"));
@@ -222,6 +259,16 @@ public class SinkIRC extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (SinkLibrary.getInstance() != null) {
+            SinkLibrary.getInstance().unregisterIrcBridge(ircBridge);
+            SinkLibrary.getInstance().unregisterDebugStats("irc");
+        }
+        for (MessageStream stream : streamRoutes.getSourceStreams()) {
+            stream.unsubscribe(streamRelay);
+        }
+        streamRoutes = StreamRoutingTable.EMPTY;
+        // Flushes the pending lines into the queue, which sends them before the bot quits
+        messageCoalescer.stop();
         IrcQueue.getInstance().stop();
 
         if (ircBot != null) {
@@ -243,58 +290,42 @@ public class SinkIRC extends JavaPlugin {
         instance = null;
     }
 
-    public Map<String, List<String>> getStreamRedirects() {
-        if (lastCacheUpdate + (1000 * 10) <= System.currentTimeMillis()) {
-            streamRedirects.clear();
-            for (String s : SiSettings.SI_SERVER_STREAMS.getValue()) {
-                if (StringUtil.isEmptyOrNull(s)) {
-                    continue;
-                }
-                s = s.trim();
-                String[] parts = s.split("\\Q>>\\E");
-                if (parts.length != 2) {
-                    SinkIRC.getInstance().getLogger().warning("Error at parsing config: " + s + ": invalid format: \"" + s + "\"");
-                    continue;
-                }
-
-                String source = parts[0].trim();
-
-                boolean isSourceChannel = source.startsWith("#");
-                boolean isSourceStream = SinkLibrary.getInstance().getMessageStream(source) != null;
-                if (!isSourceChannel && !isSourceStream) {
-                    SinkIRC.getInstance().getLogger()
-                            .warning("Error at parsing config: " + s + ": source channel or stream \"" + source + "\" not found");
-                    continue;
-                }
-
-                String target = parts[1].trim();
-                boolean isTargetChannel = target.startsWith("#");
-                if (isSourceChannel && isTargetChannel) {
-                    SinkIRC.getInstance().getLogger().warning("Error at parsing config: " + s + ": source & target are both channels");
-                    continue;
-                }
-
-                boolean isTargetStream = SinkLibrary.getInstance().getMessageStream(target) != null;
-                if (isSourceStream && isTargetStream) {
-                    SinkIRC.getInstance().getLogger().warning("Error at parsing config: " + s + ": source & target are both streams");
-                    continue;
-                }
+    /**
+     * @return the stream routing table, it will be recompiled if the configured streams have changed
+     */
+    public StreamRoutingTable getStreamRoutes() {
+        StreamRoutingTable routes = streamRoutes;
+        if (routes.getRules() != SiSettings.SI_SERVER_STREAMS.getValue()) {
+            routes = compileStreamRoutes();
+        }
+        return routes;
+    }
 
-                if (!isTargetChannel && !isTargetStream) {
-                    SinkIRC.getInstance().getLogger()
-                            .warning("Error at parsing config: " + s + ": target channel or stream \"" + target + "\" not found");
-                    continue;
-                }
+    /**
+     * Compile the stream routing table again, e.g. because a stream has been registered, a channel has been joined
+     * or the settings have been reloaded
+     * @return the new table
+     */
+    public synchronized StreamRoutingTable compileStreamRoutes() {
+        StreamRoutingTable old = streamRoutes;
+        List<String> rules = SiSettings.SI_SERVER_STREAMS.getValue();
+        if (!rules.equals(old.getRules())) {
+            // Report the errors of the new rules again, and don't keep messages of removed rules forever
+            reportedRouteErrors.clear();
+        }
+        StreamRoutingTable routes = StreamRoutingTable.compile(rules, getLogger(), reportedRouteErrors);
+        streamRoutes = routes;
 
-                List<String> targets = streamRedirects.get(source);
-                if (targets == null) {
-                    targets = new ArrayList<>();
-                }
-                targets.add(target);
-                streamRedirects.put(source, targets);
+        for (MessageStream stream : old.getSourceStreams()) {
+            if (!routes.getSourceStreams().contains(stream)) {
+                stream.unsubscribe(streamRelay);
+            }
+        }
+        for (MessageStream stream : routes.getSourceStreams()) {
+            if (!old.getSourceStreams().contains(stream)) {
+                stream.subscribe(this, streamRelay, false);
             }
-            lastCacheUpdate = System.currentTimeMillis();
         }
-        return streamRedirects;
+        return routes;
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc;
+
+import de.static_interface.sinkirc.queue.IrcQueue;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
+import org.pircbotx.Channel;
+import org.pircbotx.PircBotX;
+import org.pircbotx.User;
+
+/**
+ * Gives SinkLibrary access to SinkIRC
+ */
+public class SinkIrcBridge implements IrcBridge {
+
+    private final SinkIRC plugin;
+
+    public SinkIrcBridge(SinkIRC plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public PircBotX getIrcBot() {
+        return plugin.getIrcBot();
+    }
+
+    @Override
+    public boolean isOp(User user) {
+        return IrcUtil.isOp(user);
+    }
+
+    @Override
+    public void setOp(User user, Channel channel, boolean value) {
+        IrcUtil.setOp(user, channel, value);
+    }
+
+    @Override
+    public String getCommandPrefix() {
+        return IrcUtil.getCommandPrefix();
+    }
+
+    @Override
+    public boolean sendMessage(String message, String target) {
+        return IrcQueue.addToQueue(message, target);
+    }
+}
@@ -17,6 +17,7 @@
 
 package de.static_interface.sinkirc.config;
 
+import de.static_interface.sinkirc.SinkIRC;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
 import de.static_interface.sinklibrary.api.configuration.option.YamlBooleanOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlIntegerOption;
@@ -47,11 +48,38 @@ public class SiSettings extends Configuration {
     public final static YamlOption<String>
             SI_AUTHENTIFICATION_MESSAGE =
             new YamlStringOption(SI_AUTHENTIFICATION_PARENT, "AuthMessage", "identify <NickServPasswordHere>");
+    public final static YamlParentOption SI_QUEUE_PARENT = new YamlParentOption("Queue");
+    public final static YamlOption<Integer> SI_QUEUE_CAPACITY =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "Capacity", 512, "Maximum amount of messages waiting to be sent");
+    public final static YamlOption<String> SI_QUEUE_OVERFLOW_POLICY =
+            new YamlStringOption(SI_QUEUE_PARENT, "OverflowPolicy", "DROP_OLDEST",
+                                 "What to do if the queue is full: DROP_OLDEST, MERGE (append to the last message of the same target) or REJECT");
+    public final static YamlOption<Integer> SI_QUEUE_SERVER_BURST =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "ServerBurst", 5, "Messages which may be sent to the server at once");
+    public final static YamlOption<Integer> SI_QUEUE_SERVER_INTERVAL =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "ServerInterval", 250, "Milliseconds until the server may receive another message");
+    public final static YamlOption<Integer> SI_QUEUE_TARGET_BURST =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "TargetBurst", 3, "Messages which may be sent to a single channel or user at once");
+    public final static YamlOption<Integer> SI_QUEUE_TARGET_INTERVAL =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "TargetInterval", 500, "Milliseconds until a channel or user may receive another message");
+    public final static YamlOption<Integer> SI_QUEUE_COALESCE_WINDOW =
+            new YamlIntegerOption(SI_QUEUE_PARENT, "CoalesceWindow", 5,
+                                  "Ticks relayed messages are collected before they are joined and queued, 0 to disable");
 
     public SiSettings(File file) {
         super(file);
     }
 
+    @Override
+    public void init() {
+        super.init();
+        SinkIRC plugin = SinkIRC.getInstance();
+        if (plugin != null && plugin.isInitialized()) {
+            // Settings have been reloaded
+            plugin.compileStreamRoutes();
+        }
+    }
+
     @Override
     public void addDefaults() {
 
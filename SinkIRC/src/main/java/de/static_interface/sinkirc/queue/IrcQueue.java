@@ -19,83 +19,411 @@ package de.static_interface.sinkirc.queue;
 
 import de.static_interface.sinkirc.IrcUtil;
 import de.static_interface.sinkirc.SinkIRC;
+import de.static_interface.sinkirc.config.SiSettings;
 import de.static_interface.sinklibrary.api.event.IrcSendMessageEvent;
 import de.static_interface.sinklibrary.util.Debug;
 import org.bukkit.Bukkit;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
-import java.util.NoSuchElementException;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 
+/**
+ * Sends queued messages to IRC. Every channel or user has its own queue which is served round-robin,
+ * so a busy channel can't starve the others. Messages are rate limited per target and for the whole server
+ * using token buckets; the worker thread blocks while there is nothing it is allowed to send.
+ */
 public class IrcQueue {
 
-    public static final int INTERVAL = 64; //Todo, make configurable?
-    private static IrcQueue instance;
-    private final Deque<QueuedIrcMessage> queue = new ConcurrentLinkedDeque<>();
+    /**
+     * Maximum length in bytes of a message created by {@link OverflowPolicy#MERGE}
+     */
+    public static final int MAX_MERGED_LENGTH = 400;
+    public static final String MERGE_SEPARATOR = " | ";
+
+    private static final IrcQueue instance = new IrcQueue();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, TargetQueue> targets = new HashMap<>();
+    // Targets with pending messages, in the order they will be served
+    private final Deque<TargetQueue> ready = new ArrayDeque<>();
+    private int size = 0;
+
+    private int capacity = SiSettings.SI_QUEUE_CAPACITY.getDefaultValue();
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private int targetBurst = SiSettings.SI_QUEUE_TARGET_BURST.getDefaultValue();
+    private long targetInterval = TimeUnit.MILLISECONDS.toNanos(SiSettings.SI_QUEUE_TARGET_INTERVAL.getDefaultValue());
+    private TokenBucket serverBucket = new TokenBucket(SiSettings.SI_QUEUE_SERVER_BURST.getDefaultValue(),
+                                                       TimeUnit.MILLISECONDS.toNanos(SiSettings.SI_QUEUE_SERVER_INTERVAL.getDefaultValue()),
+                                                       System.nanoTime());
+
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong rejectedMessages = new AtomicLong();
+    private final AtomicLong mergedMessages = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
 
     Thread queueThread;
-    private long lastTime = 0;
-    private boolean work = true;
+    private volatile boolean work = false;
 
     public static IrcQueue getInstance() {
-        if (instance == null) {
-            instance = new IrcQueue();
-        }
-
         return instance;
     }
 
-    public static synchronized void addToQueue(String message, String target) {
-        Debug.log(Level.INFO, "[Queue] Adding to queue: " + message + " @ " + target);
-        getInstance().queue.offer(new QueuedIrcMessage(message, target));
+    /**
+     * Queue a message
+     *
+     * @param message the message
+     * @param target channel or nick
+     * @return false if the message has been rejected because the queue is full
+     */
+    public static boolean addToQueue(String message, String target) {
+        Debug.log(Level.INFO, () -> "[Queue] Adding to queue: " + message + " @ " + target);
+        return getInstance().offer(message, target);
     }
 
-    private void doWork() {
+    private boolean offer(String message, String target) {
+        lock.lock();
         try {
-            QueuedIrcMessage msg = queue.pop();
-            if (msg == null) {
-                return;
+            String key = target.toLowerCase(Locale.ROOT);
+            TargetQueue targetQueue = targets.get(key);
+            if (targetQueue == null) {
+                targetQueue = new TargetQueue(new TokenBucket(targetBurst, targetInterval, System.nanoTime()));
+                targets.put(key, targetQueue);
             }
 
-            IrcSendMessageEvent event = new IrcSendMessageEvent(msg.getMessage(), msg.getTarget());
-            Bukkit.getPluginManager().callEvent(event);
+            if (size >= capacity) {
+                switch (overflowPolicy) {
+                    case REJECT:
+                        rejectedMessages.incrementAndGet();
+                        return false;
+                    case MERGE:
+                        QueuedIrcMessage last = targetQueue.messages.peekLast();
+                        if (last != null && MessageCoalescer.byteLength(last.getMessage() + MERGE_SEPARATOR + message) <= MAX_MERGED_LENGTH) {
+                            last.append(MERGE_SEPARATOR, message);
+                            mergedMessages.incrementAndGet();
+                            return true;
+                        }
+                        // The message doesn't fit, make room for it instead
+                    case DROP_OLDEST:
+                        dropOldest();
+                        break;
+                }
+            }
 
-            if (!event.isCancelled()) {
-                SinkIRC.getInstance().getIrcBot().sendIRC().message(event.getTarget(), IrcUtil.replaceColorCodes(event.getMessage()));
+            targetQueue.messages.offer(new QueuedIrcMessage(message, target));
+            size++;
+            if (targetQueue.messages.size() == 1) {
+                ready.offerLast(targetQueue);
             }
-        } catch (NoSuchElementException ignored) {
+            changed.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private void dropOldest() {
+        TargetQueue oldest = null;
+        for (TargetQueue targetQueue : ready) {
+            if (oldest == null || targetQueue.messages.peekFirst().getQueuedTime() < oldest.messages.peekFirst().getQueuedTime()) {
+                oldest = targetQueue;
+            }
         }
+
+        if (oldest == null) {
+            return;
+        }
+
+        QueuedIrcMessage msg = oldest.messages.pollFirst();
+        size--;
+        if (oldest.messages.isEmpty()) {
+            ready.remove(oldest);
+        }
+        droppedMessages.incrementAndGet();
+        Debug.log(Level.WARNING, "[Queue] Queue is full, dropped message: " + msg.getMessage() + " @ " + msg.getTarget());
     }
 
+    /**
+     * Take the next message which may be sent, blocks until there is one
+     */
+    private QueuedIrcMessage take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (work) {
+                if (size == 0) {
+                    removeIdleTargets();
+                    changed.await();
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                long wait = serverBucket.getWaitNanos(now);
+                if (wait > 0) {
+                    changed.awaitNanos(wait);
+                    continue;
+                }
+
+                TargetQueue next = null;
+                wait = Long.MAX_VALUE;
+                for (int i = ready.size(); i > 0; i--) {
+                    TargetQueue targetQueue = ready.pollFirst();
+                    long targetWait = targetQueue.bucket.getWaitNanos(now);
+                    if (targetWait == 0) {
+                        next = targetQueue;
+                        break;
+                    }
+                    ready.offerLast(targetQueue);
+                    wait = Math.min(wait, targetWait);
+                }
+
+                if (next == null) {
+                    changed.awaitNanos(wait);
+                    continue;
+                }
+
+                QueuedIrcMessage msg = next.messages.pollFirst();
+                size--;
+                next.bucket.consume();
+                serverBucket.consume();
+                if (!next.messages.isEmpty()) {
+                    ready.offerLast(next);
+                }
+                return msg;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeIdleTargets() {
+        long now = System.nanoTime();
+        Iterator<TargetQueue> iterator = targets.values().iterator();
+        while (iterator.hasNext()) {
+            TargetQueue targetQueue = iterator.next();
+            if (targetQueue.messages.isEmpty() && targetQueue.bucket.isFull(now)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void send(QueuedIrcMessage msg) {
+        long latency = System.nanoTime() - msg.getQueuedTime();
+        totalLatency.addAndGet(latency);
+        long max;
+        do {
+            max = maxLatency.get();
+        } while (latency > max && !maxLatency.compareAndSet(max, latency));
+
+        IrcSendMessageEvent event = new IrcSendMessageEvent(msg.getMessage(), msg.getTarget());
+        Bukkit.getPluginManager().callEvent(event);
+
+        if (!event.isCancelled()) {
+            SinkIRC.getInstance().getIrcBot().sendIRC().message(event.getTarget(), IrcUtil.replaceColorCodes(event.getMessage()));
+        }
+        sentMessages.incrementAndGet();
+    }
+
+    private void configure() {
+        lock.lock();
+        try {
+            capacity = Math.max(1, SiSettings.SI_QUEUE_CAPACITY.getValue());
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(SiSettings.SI_QUEUE_OVERFLOW_POLICY.getValue().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                SinkIRC.getInstance().getLogger().warning("Unknown overflow policy: " + SiSettings.SI_QUEUE_OVERFLOW_POLICY.getValue()
+                                                          + ", using " + OverflowPolicy.DROP_OLDEST);
+                overflowPolicy = OverflowPolicy.DROP_OLDEST;
+            }
+            targetBurst = SiSettings.SI_QUEUE_TARGET_BURST.getValue();
+            targetInterval = TimeUnit.MILLISECONDS.toNanos(SiSettings.SI_QUEUE_TARGET_INTERVAL.getValue());
+            serverBucket = new TokenBucket(SiSettings.SI_QUEUE_SERVER_BURST.getValue(),
+                                           TimeUnit.MILLISECONDS.toNanos(SiSettings.SI_QUEUE_SERVER_INTERVAL.getValue()),
+                                           System.nanoTime());
+            targets.clear();
+            for (TargetQueue targetQueue : ready) {
+                targets.put(targetQueue.messages.peekFirst().getTarget().toLowerCase(Locale.ROOT), targetQueue);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the worker and send the messages which are still queued without rate limiting, has to be called from the
+     * main thread while the bot is still connected
+     */
     public void stop() {
         work = false;
-        queue.clear();
-        if (queueThread != null) {
-            queueThread.interrupt();
+        Thread thread = queueThread;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                // The worker might be sending a message right now
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queueThread = null;
+        }
+
+        List<QueuedIrcMessage> pending;
+        lock.lock();
+        try {
+            pending = new ArrayList<>(size);
+            while (!ready.isEmpty()) {
+                TargetQueue targetQueue = ready.pollFirst();
+                pending.add(targetQueue.messages.pollFirst());
+                if (!targetQueue.messages.isEmpty()) {
+                    ready.offerLast(targetQueue);
+                }
+            }
+            targets.clear();
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        SinkIRC plugin = SinkIRC.getInstance();
+        if (plugin == null || plugin.getIrcBot() == null || !plugin.getIrcBot().isConnected()) {
+            droppedMessages.addAndGet(pending.size());
+            Debug.log(Level.WARNING, "[Queue] Not connected, dropped " + pending.size() + " queued messages");
+            return;
+        }
+
+        for (QueuedIrcMessage msg : pending) {
+            try {
+                send(msg);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Couldn't send message to " + msg.getTarget(), e);
+            }
         }
     }
 
     public void start() {
+        configure();
         work = true;
         queueThread = new Thread(() -> {
             while (work) {
-                long difference = System.currentTimeMillis() - lastTime;
-                if (difference >= INTERVAL) {
-                    doWork();
-                } else {
-                    try {
-                        Thread.sleep(INTERVAL - difference);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+                QueuedIrcMessage msg;
+                try {
+                    msg = take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                if (msg == null) {
+                    break;
+                }
+
+                try {
+                    send(msg);
+                } catch (Exception e) {
+                    SinkIRC.getInstance().getLogger().log(Level.SEVERE, "Couldn't send message to " + msg.getTarget(), e);
                 }
             }
         }, "IRC-Queue Thread");
         SinkIRC.getInstance().getLogger().log(Level.INFO, "[Queue] IRC Queue Thread started");
         queueThread.start();
     }
+
+    /**
+     * @return amount of messages waiting to be sent
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return amount of messages which have been sent
+     */
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    /**
+     * @return amount of messages which have been dropped because the queue was full
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * @return amount of messages which have been rejected because the queue was full
+     */
+    public long getRejectedMessages() {
+        return rejectedMessages.get();
+    }
+
+    /**
+     * @return amount of messages which have been appended to another message because the queue was full
+     */
+    public long getMergedMessages() {
+        return mergedMessages.get();
+    }
+
+    /**
+     * @return average time in milliseconds a message has been waiting in the queue
+     */
+    public double getAverageLatency() {
+        long sent = sentMessages.get();
+        if (sent == 0) {
+            return 0;
+        }
+        return totalLatency.get() / (double) sent / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return longest time in milliseconds a message has been waiting in the queue
+     */
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatency.get());
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Drop the oldest queued message
+         */
+        DROP_OLDEST,
+        /**
+         * Append the message to the last queued message of the same target, drop the oldest message if it doesn't fit
+         */
+        MERGE,
+        /**
+         * Don't queue the message
+         */
+        REJECT
+    }
+
+    private static class TargetQueue {
+
+        private final Deque<QueuedIrcMessage> messages = new ArrayDeque<>();
+        private final TokenBucket bucket;
+
+        private TargetQueue(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
 }
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc.queue;
+
+import de.static_interface.sinkirc.IrcUtil;
+import de.static_interface.sinklibrary.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.pircbotx.Colors;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Collects messages relayed from Bukkit to IRC and hands them to the {@link IrcQueue} once per window.
+ * Consecutive messages to the same target are joined into as few lines as the IRC line limit allows,
+ * repeated identical messages are collapsed into one with a repeat count.
+ */
+public class MessageCoalescer implements Runnable {
+
+    /**
+     * Maximum length of an IRC line in bytes, including the trailing CR LF
+     */
+    public static final int MAX_LINE_LENGTH = 512;
+    /**
+     * Bytes reserved for the ":nick!user@host " prefix the server adds when relaying our messages
+     */
+    public static final int PREFIX_RESERVE = 107;
+    /**
+     * Separator between joined messages, resets the formatting so colors don't bleed into the next message
+     */
+    public static final String SEPARATOR = Colors.NORMAL + " | ";
+
+    private final Map<String, PendingTarget> pending = new LinkedHashMap<>();
+    private final AtomicLong receivedMessages = new AtomicLong();
+    private final AtomicLong flushedLines = new AtomicLong();
+    private final AtomicLong rejectedLines = new AtomicLong();
+
+    private BukkitTask task;
+    private volatile boolean enabled = false;
+
+    /**
+     * Queue a message. If coalescing is disabled the message is passed to the {@link IrcQueue} directly.
+     *
+     * @param message the message, may contain Minecraft color codes
+     * @param target channel or nick
+     */
+    public void addMessage(String message, String target) {
+        message = IrcUtil.replaceColorCodes(message);
+        if (!enabled) {
+            for (String line : split(message, getMaxTextLength(target))) {
+                queue(line, target);
+            }
+            return;
+        }
+
+        receivedMessages.incrementAndGet();
+        synchronized (pending) {
+            String key = target.toLowerCase(Locale.ROOT);
+            PendingTarget pendingTarget = pending.get(key);
+            if (pendingTarget == null) {
+                pendingTarget = new PendingTarget(target);
+                pending.put(key, pendingTarget);
+            }
+            pendingTarget.add(message);
+        }
+    }
+
+    /**
+     * Pass all pending messages to the {@link IrcQueue}
+     */
+    public void flush() {
+        List<PendingTarget> targets;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            targets = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        for (PendingTarget pendingTarget : targets) {
+            for (String line : pendingTarget.toLines()) {
+                if (queue(line, pendingTarget.target)) {
+                    flushedLines.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private boolean queue(String line, String target) {
+        if (IrcQueue.addToQueue(line, target)) {
+            return true;
+        }
+        rejectedLines.incrementAndGet();
+        Debug.log(Level.WARNING, "[Queue] Queue is full, rejected message: " + line + " @ " + target);
+        return false;
+    }
+
+    /**
+     * @return amount of messages which have been coalesced
+     */
+    public long getReceivedMessages() {
+        return receivedMessages.get();
+    }
+
+    /**
+     * @return amount of lines the coalesced messages have been sent as
+     */
+    public long getFlushedLines() {
+        return flushedLines.get();
+    }
+
+    /**
+     * @return amount of lines which have been rejected by the {@link IrcQueue} because it was full
+     */
+    public long getRejectedLines() {
+        return rejectedLines.get();
+    }
+
+    /**
+     * Start coalescing
+     *
+     * @param plugin Plugin which owns the task
+     * @param window Window in ticks, messages are passed to the queue directly if it's less than 1
+     */
+    public synchronized void start(Plugin plugin, long window) {
+        stop();
+        if (window < 1) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this, window, window);
+        enabled = true;
+    }
+
+    /**
+     * Stop coalescing and pass all pending messages to the queue
+     */
+    public synchronized void stop() {
+        enabled = false;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+    }
+
+    @Override
+    public void run() {
+        flush();
+    }
+
+    /**
+     * @param target channel or nick
+     * @return maximum length of the text of a PRIVMSG to the given target in bytes
+     */
+    public static int getMaxTextLength(String target) {
+        // ":<prefix> PRIVMSG <target> :<text>\r\n"
+        return MAX_LINE_LENGTH - PREFIX_RESERVE - "PRIVMSG ".length() - byteLength(target) - " :".length() - "\r\n".length();
+    }
+
+    static int byteLength(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Split the message into parts which don't exceed the given length in bytes
+     */
+    static List<String> split(String message, int maxBytes) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int bytes = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            int charBytes;
+            if (Character.isHighSurrogate(c) && i + 1 < message.length()) {
+                charBytes = 4;
+            } else if (c < 0x80) {
+                charBytes = 1;
+            } else if (c < 0x800) {
+                charBytes = 2;
+            } else {
+                charBytes = 3;
+            }
+
+            if (bytes + charBytes > maxBytes && i > start) {
+                parts.add(message.substring(start, i));
+                start = i;
+                bytes = 0;
+            }
+            bytes += charBytes;
+            if (charBytes == 4) {
+                i++;
+            }
+        }
+        if (start < message.length() || parts.isEmpty()) {
+            parts.add(message.substring(start));
+        }
+        return parts;
+    }
+
+    static class PendingTarget {
+
+        private final String target;
+        private final List<String> messages = new ArrayList<>();
+        private final List<Integer> repeats = new ArrayList<>();
+
+        PendingTarget(String target) {
+            this.target = target;
+        }
+
+        void add(String message) {
+            int last = messages.size() - 1;
+            if (last >= 0 && messages.get(last).equals(message)) {
+                repeats.set(last, repeats.get(last) + 1);
+                return;
+            }
+            messages.add(message);
+            repeats.add(1);
+        }
+
+        List<String> toLines() {
+            int maxBytes = getMaxTextLength(target);
+            int separatorBytes = byteLength(SEPARATOR);
+            List<String> lines = new ArrayList<>();
+            StringBuilder line = new StringBuilder();
+            int lineBytes = 0;
+
+            for (int i = 0; i < messages.size(); i++) {
+                String message = messages.get(i);
+                int count = repeats.get(i);
+                if (count > 1) {
+                    message = message + " (x" + count + ")";
+                }
+
+                for (String part : split(message, maxBytes)) {
+                    int partBytes = byteLength(part);
+                    if (line.length() > 0 && lineBytes + separatorBytes + partBytes > maxBytes) {
+                        lines.add(line.toString());
+                        line.setLength(0);
+                        lineBytes = 0;
+                    }
+                    if (line.length() > 0) {
+                        line.append(SEPARATOR);
+                        lineBytes += separatorBytes;
+                    }
+                    line.append(part);
+                    lineBytes += partBytes;
+                }
+            }
+
+            if (line.length() > 0) {
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+    }
+}
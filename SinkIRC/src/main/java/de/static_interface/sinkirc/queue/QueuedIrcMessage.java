@@ -19,12 +19,14 @@ package de.static_interface.sinkirc.queue;
 
 public class QueuedIrcMessage {
 
+    private final String target;
+    private final long queuedTime;
     private String message;
-    private String target;
 
     public QueuedIrcMessage(String message, String target) {
         this.message = message;
         this.target = target;
+        this.queuedTime = System.nanoTime();
     }
 
     public String getTarget() {
@@ -34,4 +36,15 @@ public class QueuedIrcMessage {
     public String getMessage() {
         return message;
     }
+
+    /**
+     * @return {@link System#nanoTime()} at the time this message has been queued
+     */
+    public long getQueuedTime() {
+        return queuedTime;
+    }
+
+    void append(String separator, String message) {
+        this.message = this.message + separator + message;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc.queue;
+
+/**
+ * Token bucket which refills one token per interval up to its capacity. Not thread-safe,
+ * access is guarded by the {@link IrcQueue} lock.
+ */
+class TokenBucket {
+
+    private final int capacity;
+    private final long intervalNanos;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, long intervalNanos, long now) {
+        this.capacity = Math.max(1, capacity);
+        this.intervalNanos = Math.max(1, intervalNanos);
+        this.tokens = this.capacity;
+        this.lastRefill = now;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed <= 0) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + (double) elapsed / intervalNanos);
+        lastRefill = now;
+    }
+
+    /**
+     * @param now current {@link System#nanoTime()}
+     * @return nanoseconds until a token is available, 0 if one is available now
+     */
+    long getWaitNanos(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * intervalNanos);
+    }
+
+    void consume() {
+        tokens--;
+    }
+
+    /**
+     * @param now current {@link System#nanoTime()}
+     * @return true if the bucket is full, so it can be dropped without losing state
+     */
+    boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+}
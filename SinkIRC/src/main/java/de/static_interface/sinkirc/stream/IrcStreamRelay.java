@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc.stream;
+
+import de.static_interface.sinkirc.SinkIRC;
+import de.static_interface.sinklibrary.api.stream.MessageStream;
+import de.static_interface.sinklibrary.api.stream.MessageStreamSubscriber;
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.util.Debug;
+import de.static_interface.sinklibrary.util.StringUtil;
+import org.pircbotx.Channel;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Relays messages of the streams it is subscribed to to their target channels, see {@link StreamRoutingTable}
+ */
+public class IrcStreamRelay implements MessageStreamSubscriber {
+
+    @Override
+    public void onMessage(MessageStream stream, @Nullable SinkUser user, String message) {
+        List<Channel> targetChannels = SinkIRC.getInstance().getStreamRoutes().getTargetChannels(stream);
+        if (targetChannels.isEmpty() || StringUtil.isEmptyOrNull(message)) {
+            return;
+        }
+
+        Debug.log(() -> "Relaying " + stream.getName() + " to " + targetChannels.size() + " channel(s)");
+
+        String msg = stream.formatMessage(user, message);
+        for (Channel channel : targetChannels) {
+            SinkIRC.getInstance().getMessageCoalescer().addMessage(msg, channel.getName());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc.stream;
+
+import de.static_interface.sinkirc.IrcUtil;
+import de.static_interface.sinkirc.SinkIRC;
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.stream.MessageStream;
+import de.static_interface.sinklibrary.util.StringUtil;
+import org.pircbotx.Channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Immutable routing table compiled from the "source &gt;&gt; target" entries of the stream configuration.
+ * Sources and targets are resolved when the table is compiled, so lookups don't need any locking or allocations.
+ */
+public class StreamRoutingTable {
+
+    public static final StreamRoutingTable EMPTY = new StreamRoutingTable(Collections.<String>emptyList(),
+                                                                          Collections.<MessageStream, List<Channel>>emptyMap(),
+                                                                          Collections.<String, List<MessageStream>>emptyMap());
+
+    private final List<String> rules;
+    private final Map<MessageStream, List<Channel>> streamToChannels;
+    private final Map<String, List<MessageStream>> channelToStreams;
+
+    private StreamRoutingTable(List<String> rules, Map<MessageStream, List<Channel>> streamToChannels,
+                               Map<String, List<MessageStream>> channelToStreams) {
+        this.rules = rules;
+        this.streamToChannels = streamToChannels;
+        this.channelToStreams = channelToStreams;
+    }
+
+    /**
+     * Compile the given routes. Streams which aren't registered and channels the bot hasn't joined yet are skipped,
+     * the table should be compiled again once they are available.
+     *
+     * @param rules the routes, in the format "source &gt;&gt; target"
+     * @param logger logger for invalid routes
+     * @param reported invalid routes which have already been reported, each error is only logged once
+     * @return the compiled table
+     */
+    public static StreamRoutingTable compile(List<String> rules, Logger logger, Set<String> reported) {
+        Map<MessageStream, List<Channel>> streamToChannels = new IdentityHashMap<>();
+        Map<String, List<MessageStream>> channelToStreams = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String s : rules) {
+            if (StringUtil.isEmptyOrNull(s)) {
+                continue;
+            }
+            s = s.trim();
+            String[] parts = s.split("\\Q>>\\E");
+            if (parts.length != 2) {
+                report(logger, reported, "Error at parsing config: " + s + ": invalid format: \"" + s + "\"");
+                continue;
+            }
+
+            String source = parts[0].trim();
+            String target = parts[1].trim();
+            boolean isSourceChannel = source.startsWith("#");
+            boolean isTargetChannel = target.startsWith("#");
+            if (isSourceChannel && isTargetChannel) {
+                report(logger, reported, "Error at parsing config: " + s + ": source & target are both channels");
+                continue;
+            }
+
+            if (!isSourceChannel && !isTargetChannel) {
+                report(logger, reported, "Error at parsing config: " + s + ": source & target are both streams");
+                continue;
+            }
+
+            MessageStream stream = SinkLibrary.getInstance().getMessageStream(isSourceChannel ? target : source);
+            if (stream == null) {
+                report(logger, reported, "Error at parsing config: " + s + ": stream \"" + (isSourceChannel ? target : source) + "\" not found");
+                continue;
+            }
+
+            if (isSourceChannel) {
+                List<MessageStream> streams = channelToStreams.get(source);
+                if (streams == null) {
+                    streams = new ArrayList<>();
+                    channelToStreams.put(source, streams);
+                }
+                streams.add(stream);
+                continue;
+            }
+
+            Channel channel = getJoinedChannel(target);
+            if (channel == null) {
+                continue;
+            }
+            List<Channel> channels = streamToChannels.get(stream);
+            if (channels == null) {
+                channels = new ArrayList<>();
+                streamToChannels.put(stream, channels);
+            }
+            channels.add(channel);
+        }
+
+        for (Map.Entry<MessageStream, List<Channel>> entry : streamToChannels.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        for (Map.Entry<String, List<MessageStream>> entry : channelToStreams.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        return new StreamRoutingTable(rules, streamToChannels, channelToStreams);
+    }
+
+    private static Channel getJoinedChannel(String name) {
+        if (SinkIRC.getInstance().getIrcBot() == null) {
+            return null;
+        }
+        return IrcUtil.getChannel(name);
+    }
+
+    private static void report(Logger logger, Set<String> reported, String message) {
+        if (reported.add(message)) {
+            logger.warning(message);
+        }
+    }
+
+    /**
+     * @return the routes this table has been compiled from
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return the streams which are redirected to at least one channel
+     */
+    public Set<MessageStream> getSourceStreams() {
+        return Collections.unmodifiableSet(streamToChannels.keySet());
+    }
+
+    /**
+     * @param source the source stream
+     * @return the channels messages of the given stream are redirected to
+     */
+    public List<Channel> getTargetChannels(MessageStream source) {
+        List<Channel> channels = streamToChannels.get(source);
+        return channels == null ? Collections.<Channel>emptyList() : channels;
+    }
+
+    /**
+     * @param channel name of the source channel
+     * @return the streams messages of the given channel are redirected to
+     */
+    public List<MessageStream> getTargetStreams(String channel) {
+        List<MessageStream> streams = channelToStreams.get(channel);
+        return streams == null ? Collections.<MessageStream>emptyList() : streams;
+    }
+}
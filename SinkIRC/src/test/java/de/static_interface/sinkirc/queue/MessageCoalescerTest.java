@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinkirc.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MessageCoalescerTest {
+
+    private static final String TARGET = "#channel";
+
+    @Test
+    public void testSplitAscii() {
+        assertEquals(Arrays.asList("abc", "def", "g"), MessageCoalescer.split("abcdefg", 3));
+        assertEquals(Collections.singletonList("abc"), MessageCoalescer.split("abc", 3));
+        assertEquals(Collections.singletonList(""), MessageCoalescer.split("", 3));
+    }
+
+    @Test
+    public void testSplitMultiByte() {
+        // Each umlaut has two bytes, a part must not end in the middle of a character
+        assertEquals(Arrays.asList("aä", "ää", "b"), MessageCoalescer.split("aäääb", 4));
+        // Surrogate pairs have four bytes and are never split
+        assertEquals(Arrays.asList("😀", "😀"), MessageCoalescer.split("😀😀", 5));
+        // A character longer than the limit gets its own part
+        assertEquals(Arrays.asList("a", "€", "b"), MessageCoalescer.split("a€b", 2));
+    }
+
+    @Test
+    public void testToLinesJoinsAndCountsRepeats() {
+        MessageCoalescer.PendingTarget pending = new MessageCoalescer.PendingTarget(TARGET);
+        pending.add("a");
+        pending.add("b");
+        pending.add("b");
+        pending.add("b");
+        pending.add("a");
+
+        String sep = MessageCoalescer.SEPARATOR;
+        assertEquals(Collections.singletonList("a" + sep + "b (x3)" + sep + "a"), pending.toLines());
+    }
+
+    @Test
+    public void testToLinesRespectsLineLimit() {
+        int max = MessageCoalescer.getMaxTextLength(TARGET);
+        char[] chars = new char[max / 2 + 1];
+        Arrays.fill(chars, 'ä');
+        String longMessage = new String(chars);
+
+        MessageCoalescer.PendingTarget pending = new MessageCoalescer.PendingTarget(TARGET);
+        pending.add(longMessage);
+        pending.add("short");
+        pending.add("end");
+
+        List<String> lines = pending.toLines();
+        assertEquals(Arrays.asList(longMessage.substring(0, max / 2),
+                                   "ä" + MessageCoalescer.SEPARATOR + "short" + MessageCoalescer.SEPARATOR + "end"), lines);
+        for (String line : lines) {
+            assertTrue(MessageCoalescer.byteLength(line) <= max);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.benchmarks;
+
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.util.StringUtil;
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StringUtil#format(String, Map)} and {@link StringUtil#format(String, Object...)} with the replaceAll chain
+ * they used before. The old chain is copied below without the user, target and currency placeholders, which need a running
+ * server; those only added more replaceAll calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringFormatBenchmark {
+
+    private static final String PLAIN = "This message doesn't contain any placeholder";
+    private static final String LANGUAGE = "{RED}Player {0} has been warned by {1}: {GOLD}{2}";
+    private static final String CHANNEL = "{CHANNEL} {DARK_GRAY}[{TOWNTAG}{DARK_GRAY}] {WHITE}{0}{GRAY}: {RESET}{1}";
+
+    private final Map<String, Object> custom = new HashMap<>();
+
+    public StringFormatBenchmark() {
+        custom.put("CHANNEL", "[L]");
+        custom.put("TOWN(Y)?TAG", "Town");
+    }
+
+    @Benchmark
+    public String singlePassPlain() {
+        return StringUtil.format(PLAIN, (Object[]) null);
+    }
+
+    @Benchmark
+    public String replaceAllPlain() {
+        return formatReplaceAll(PLAIN, null, (Object[]) null);
+    }
+
+    @Benchmark
+    public String singlePassParams() {
+        return StringUtil.format(LANGUAGE, "Notch", "Console", "Spam");
+    }
+
+    @Benchmark
+    public String replaceAllParams() {
+        return formatReplaceAll(LANGUAGE, null, "Notch", "Console", "Spam");
+    }
+
+    @Benchmark
+    public String singlePassCustom() {
+        return StringUtil.format(CHANNEL, (SinkUser) null, (SinkUser) null, null, custom, "Notch", "Hello world");
+    }
+
+    @Benchmark
+    public String replaceAllCustom() {
+        return formatReplaceAll(CHANNEL, custom, "Notch", "Hello world");
+    }
+
+    // StringUtil.format before the single pass formatter, as far as it applies without users
+    private static String formatReplaceAll(String str, Map<String, Object> customPlaceholders, Object... paramValues) {
+        str = str.replaceAll("(?i)\\{AQUA\\}", ChatColor.AQUA.toString());
+        str = str.replaceAll("(?i)\\{BLACK\\}", ChatColor.BLACK.toString());
+        str = str.replaceAll("(?i)\\{BOLD\\}", ChatColor.BOLD.toString());
+        str = str.replaceAll("(?i)\\{BLUE\\}", ChatColor.BLUE.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)AQUA\\}", ChatColor.DARK_AQUA.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)BLUE\\}", ChatColor.DARK_BLUE.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)GRAY\\}", ChatColor.DARK_GRAY.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)GREEN\\}", ChatColor.DARK_GREEN.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)PURPLE\\}", ChatColor.DARK_PURPLE.toString());
+        str = str.replaceAll("(?i)\\{DARK(_|\\s)RED\\}", ChatColor.DARK_RED.toString());
+        str = str.replaceAll("(?i)\\{GOLD\\}", ChatColor.GOLD.toString());
+        str = str.replaceAll("(?i)\\{GRAY\\}", ChatColor.GRAY.toString());
+        str = str.replaceAll("(?i)\\{GREEN\\}", ChatColor.GREEN.toString());
+        str = str.replaceAll("(?i)\\{ITALIC\\}", ChatColor.ITALIC.toString());
+        str = str.replaceAll("(?i)\\{LIGHT(_|\\s)PURPLE\\}", ChatColor.LIGHT_PURPLE.toString());
+        str = str.replaceAll("(?i)\\{MAGIC\\}", ChatColor.MAGIC.toString());
+        str = str.replaceAll("(?i)\\{RED\\}", ChatColor.RED.toString());
+        str = str.replaceAll("(?i)\\{RESET\\}", ChatColor.RESET.toString());
+        str = str.replaceAll("(?i)\\{STRIKETHROUGH\\}", ChatColor.STRIKETHROUGH.toString());
+        str = str.replaceAll("(?i)\\{UNDERLINE\\}", ChatColor.UNDERLINE.toString());
+        str = str.replaceAll("(?i)\\{WHITE\\}", ChatColor.WHITE.toString());
+        str = str.replaceAll("(?i)\\{YELLOW\\}", ChatColor.YELLOW.toString());
+
+        if (customPlaceholders != null) {
+            for (String placeHolder : customPlaceholders.keySet()) {
+                str = str.replaceAll("(?i)(\\{" + placeHolder.toUpperCase() + "\\})",
+                                     String.valueOf(customPlaceholders.get(placeHolder)));
+            }
+        }
+
+        if (paramValues != null) {
+            int i = 0;
+            for (Object s : paramValues) {
+                str = str.replaceAll("\\{" + i + "\\}", String.valueOf(s));
+                i++;
+                str = str.replaceAll("%" + i + "\\$\\s", String.valueOf(s));
+            }
+        }
+
+        return ChatColor.translateAlternateColorCodes('&', str);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.benchmarks;
+
+import de.static_interface.sinklibrary.api.configuration.Configuration;
+import de.static_interface.sinklibrary.api.configuration.option.YamlIntegerOption;
+import de.static_interface.sinklibrary.api.configuration.option.YamlOption;
+import de.static_interface.sinklibrary.api.configuration.option.YamlParentOption;
+import de.static_interface.sinklibrary.api.configuration.option.YamlStringOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link YamlOption#getValue()} with reading the value through {@link Configuration#get(String, Object)},
+ * which is what every option read did before the values were cached. Debug is disabled, so the debug message
+ * of the uncached path is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class YamlOptionBenchmark {
+
+    private File file;
+    private BenchmarkConfiguration config;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("YamlOptionBenchmark", ".yml");
+        config = new BenchmarkConfiguration(file);
+        config.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public Object uncachedString() {
+        return config.get(BenchmarkConfiguration.FORMAT.getPath(), BenchmarkConfiguration.FORMAT.getDefaultValue());
+    }
+
+    @Benchmark
+    public Object cachedString() {
+        return BenchmarkConfiguration.FORMAT.getValue();
+    }
+
+    @Benchmark
+    public Object uncachedInteger() {
+        return config.get(BenchmarkConfiguration.RANGE.getPath(), BenchmarkConfiguration.RANGE.getDefaultValue());
+    }
+
+    @Benchmark
+    public Object cachedInteger() {
+        return BenchmarkConfiguration.RANGE.getValue();
+    }
+
+    public static class BenchmarkConfiguration extends Configuration {
+
+        public static final YamlParentOption PARENT = new YamlParentOption("Chat");
+        public static final YamlOption<String> FORMAT = new YamlStringOption(PARENT, "Format", "{DISPLAYNAME}: {MESSAGE}");
+        public static final YamlOption<Integer> RANGE = new YamlIntegerOption(PARENT, "Range", 50);
+
+        public BenchmarkConfiguration(File file) {
+            super(file);
+        }
+
+        @Override
+        public void addDefaults() {
+
+        }
+
+        @Override
+        public void save() {
+            // Do nothing, the values only have to be in memory
+        }
+    }
+}
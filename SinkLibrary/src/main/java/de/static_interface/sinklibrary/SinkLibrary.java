@@ -22,12 +22,16 @@ import de.static_interface.sinklibrary.api.command.NativeCommand;
 import de.static_interface.sinklibrary.api.command.SinkCommand;
 import de.static_interface.sinklibrary.api.command.SinkTabCompleter;
 import de.static_interface.sinklibrary.api.command.annotation.Aliases;
+import de.static_interface.sinklibrary.api.configuration.ConfigurationFlusher;
+import de.static_interface.sinklibrary.api.event.MessageStreamRegisterEvent;
 import de.static_interface.sinklibrary.api.exception.NotInitializedException;
 import de.static_interface.sinklibrary.api.exception.UserNotFoundException;
 import de.static_interface.sinklibrary.api.provider.BanProvider;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
 import de.static_interface.sinklibrary.api.sender.IrcCommandSender;
 import de.static_interface.sinklibrary.api.sender.ProxiedCommandSender;
 import de.static_interface.sinklibrary.api.stream.MessageStream;
+import de.static_interface.sinklibrary.api.user.ChatIdentityProvider;
 import de.static_interface.sinklibrary.api.user.IdentifiableUser;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.api.user.SinkUserProvider;
@@ -37,9 +41,13 @@ import de.static_interface.sinklibrary.command.SinkVersionCommand;
 import de.static_interface.sinklibrary.configuration.GeneralLanguage;
 import de.static_interface.sinklibrary.configuration.GeneralSettings;
 import de.static_interface.sinklibrary.configuration.IngameUserConfiguration;
+import de.static_interface.sinklibrary.configuration.UniqueIdCache;
 import de.static_interface.sinklibrary.listener.DisplayNameListener;
 import de.static_interface.sinklibrary.listener.IngameUserListener;
 import de.static_interface.sinklibrary.listener.IrcCommandListener;
+import de.static_interface.sinklibrary.profiler.TickProfiler;
+import de.static_interface.sinklibrary.profiler.Timings;
+import de.static_interface.sinklibrary.provider.ReflectiveIrcBridge;
 import de.static_interface.sinklibrary.provider.SimpleBanProvider;
 import de.static_interface.sinklibrary.provider.StringConvertProvider;
 import de.static_interface.sinklibrary.sender.ProxiedConsoleCommandSender;
@@ -62,7 +70,6 @@ import de.static_interface.sinklibrary.user.ProxiedUserProvider;
 import de.static_interface.sinklibrary.util.BukkitUtil;
 import de.static_interface.sinklibrary.util.Debug;
 import de.static_interface.sinklibrary.util.ReflectionUtil;
-import de.static_interface.sinklibrary.util.SinkIrcReflection;
 import de.static_interface.sinklibrary.util.StringUtil;
 import de.static_interface.sinksql.AbstractTable;
 import de.static_interface.sinksql.Database;
@@ -82,6 +89,7 @@ import org.bukkit.command.PluginCommand;
 import org.bukkit.command.PluginIdentifiableCommand;
 import org.bukkit.craftbukkit.v1_8_R3.CraftServer;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -105,6 +113,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import javax.annotation.Nonnull;
@@ -117,7 +126,10 @@ public class SinkLibrary extends JavaPlugin {
     public static File LIB_FOLDER;
     private static SinkLibrary instance;
     private static HashMap<Class<?>, StringConvertProvider> stringConvertertProviders = new HashMap<>();
-    private TpsTimer timer;
+    private TickProfiler tickProfiler;
+    private Timings timings;
+    private UniqueIdCache uniqueIdCache;
+    private ConfigurationFlusher configurationFlusher;
     private Economy econ;
     private Permission perm;
     private Chat chat;
@@ -134,10 +146,13 @@ public class SinkLibrary extends JavaPlugin {
     private IngameUserProvider ingameUserProvider;
     private IrcUserProvider ircUserProvider;
     private BanProvider banProvider;
-    private boolean ircExceptionOccured = false;
+    private volatile boolean ircExceptionOccured = false;
+    private volatile IrcBridge ircBridge;
     private SimpleBanProvider defaultBanProvider = new SimpleBanProvider();
     private Map<String, SinkCommand> commands = new HashMap<>();
-    private Map<String, MessageStream> registeredMessageStreams = new HashMap<>();
+    private Map<String, MessageStream> registeredMessageStreams = new ConcurrentHashMap<>();
+    private List<ChatIdentityProvider> chatIdentityProviders = new CopyOnWriteArrayList<>();
+    private Map<String, Supplier<String>> debugStats = new ConcurrentHashMap<>();
     /**
      * Get the instance of this plugin
      * @return instance
@@ -175,6 +190,55 @@ public class SinkLibrary extends JavaPlugin {
         return true;
     }
 
+    /**
+     * Register the bridge to SinkIRC, called by SinkIRC when it gets enabled
+     *
+     * @param bridge the bridge
+     */
+    public void registerIrcBridge(@Nonnull IrcBridge bridge) {
+        Validate.notNull(bridge);
+        ircBridge = bridge;
+        ircExceptionOccured = false;
+    }
+
+    /**
+     * Unregister the bridge to SinkIRC, called by SinkIRC when it gets disabled
+     *
+     * @param bridge the bridge
+     */
+    public void unregisterIrcBridge(@Nonnull IrcBridge bridge) {
+        if (ircBridge == bridge) {
+            ircBridge = null;
+        }
+    }
+
+    /**
+     * @return the bridge to SinkIRC or null if SinkIRC is not available
+     */
+    @Nullable
+    public IrcBridge getIrcBridge() {
+        IrcBridge bridge = ircBridge;
+        if (bridge != null || ircExceptionOccured) {
+            return bridge;
+        }
+
+        Plugin sinkIrc = Bukkit.getPluginManager().getPlugin("SinkIRC");
+        if (sinkIrc == null || !sinkIrc.isEnabled()) {
+            return null;
+        }
+
+        // SinkIRC doesn't register a bridge itself
+        try {
+            bridge = new ReflectiveIrcBridge(sinkIrc);
+        } catch (Throwable e) {
+            Debug.log(e);
+            ircExceptionOccured = true;
+            return null;
+        }
+        ircBridge = bridge;
+        return bridge;
+    }
+
     @Nonnull
     public BanProvider getBanProvider() {
         if (banProvider == null) {
@@ -226,6 +290,14 @@ public class SinkLibrary extends JavaPlugin {
             generalSettings.init();
         }
 
+        configurationFlusher = new ConfigurationFlusher();
+        if (GeneralSettings.GENERAL_CONFIG_WRITE_BEHIND.getValue()) {
+            configurationFlusher.start(this, GeneralSettings.GENERAL_CONFIG_FLUSH_INTERVAL.getValue());
+        }
+
+        uniqueIdCache = new UniqueIdCache();
+        defaultBanProvider.start(this);
+
 
         loadedLibs = new CopyOnWriteArrayList<>();
 
@@ -290,12 +362,15 @@ public class SinkLibrary extends JavaPlugin {
         registerListeners();
         registerCommands();
 
-        Bukkit.getScheduler().scheduleSyncRepeatingTask(this, getSinkTimer(), 1000, 50);
+        getTickProfiler().start(this, GeneralSettings.GENERAL_TICK_SPIKE_THRESHOLD.getValue(),
+                                GeneralSettings.GENERAL_TICK_SPIKE_SAMPLE_INTERVAL.getValue());
+        timings = new Timings();
+        timings.start(this, GeneralSettings.GENERAL_TIMINGS_DUMP_INTERVAL.getValue());
 
         // Init players (reload etc)
         Bukkit.getOnlinePlayers().forEach(this::onRefreshDisplayName);
 
-        Bukkit.getPluginManager().registerEvents(new IrcCommandListener(), this);
+        registerListener(new IrcCommandListener(), this);
         loadLibs(getConsoleUser());
     }
 
@@ -399,6 +474,32 @@ public class SinkLibrary extends JavaPlugin {
             registeredMessageStreams.remove(name);
         }
         registeredMessageStreams.put(name, stream);
+        Bukkit.getPluginManager().callEvent(new MessageStreamRegisterEvent(stream));
+    }
+
+    public void registerChatIdentityProvider(ChatIdentityProvider provider) {
+        Validate.notNull(provider);
+        chatIdentityProviders.add(provider);
+        invalidateChatIdentities();
+    }
+
+    public void unregisterChatIdentityProvider(ChatIdentityProvider provider) {
+        if (chatIdentityProviders.remove(provider)) {
+            invalidateChatIdentities();
+        }
+    }
+
+    public List<ChatIdentityProvider> getChatIdentityProviders() {
+        return chatIdentityProviders;
+    }
+
+    /**
+     * Rebuild the chat identities of all online players on their next access
+     */
+    public void invalidateChatIdentities() {
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            getIngameUser(p).invalidateChatIdentity();
+        }
     }
 
     @Unstable
@@ -430,29 +531,29 @@ public class SinkLibrary extends JavaPlugin {
                 user.getConfiguration().save();
             }
         }
-        try {
-            if (GeneralSettings.GENERAL_LOG.getValue()) {
-                Debug.getDebugLogFileWriter().close();
-            }
-        } catch (Exception ignored) {
+
+        if (tickProfiler != null) {
+            tickProfiler.stop();
         }
+
+        if (timings != null) {
+            timings.stop();
+        }
+
+        defaultBanProvider.stop();
+
+        getLogger().info("Saving configurations...");
+        if (configurationFlusher != null) {
+            configurationFlusher.stop();
+        }
+
+        Debug.closeLog();
         instance = null;
         getLogger().info("Disabled.");
     }
 
     public boolean isIrcAvailable() {
-        if (Bukkit.getPluginManager().getPlugin("SinkIRC") == null || ircExceptionOccured) {
-            return false;
-        }
-
-        try {
-            SinkIrcReflection.getIrcCommandPrefix();
-        } catch (Throwable e) {
-            Debug.log(e);
-            ircExceptionOccured = true;
-            return false;
-        }
-        return true;
+        return getIrcBridge() != null;
     }
 
     /**
@@ -484,15 +585,56 @@ public class SinkLibrary extends JavaPlugin {
     }
 
     /**
-     * Get SinkTimer
+     * Register all event handlers of the listener. The time spent in each handler is recorded by {@link Timings}.
      *
-     * @return SinkTimer
+     * @param listener Listener to register
+     * @param plugin Plugin which owns the listener
+     */
+    public void registerListener(Listener listener, Plugin plugin) {
+        Timings.registerEvents(listener, plugin);
+    }
+
+    /**
+     * Register statistics which are shown by /sdebug stats
+     *
+     * @param name Name of the statistics
+     * @param stats Supplier of the statistics, called when the statistics are shown
+     */
+    public void registerDebugStats(String name, Supplier<String> stats) {
+        debugStats.put(name, stats);
+    }
+
+    /**
+     * @param name Name of the statistics
+     */
+    public void unregisterDebugStats(String name) {
+        debugStats.remove(name);
+    }
+
+    /**
+     * @return Statistics which have been registered with {@link #registerDebugStats(String, Supplier)}
+     */
+    public Map<String, Supplier<String>> getDebugStats() {
+        return Collections.unmodifiableMap(debugStats);
+    }
+
+    /**
+     * @return Cache of the UUIDs of all players who joined the server
      */
-    public TpsTimer getSinkTimer() {
-        if (timer == null) {
-            timer = new TpsTimer();
+    public UniqueIdCache getUniqueIdCache() {
+        return uniqueIdCache;
+    }
+
+    /**
+     * Get the tick profiler
+     *
+     * @return TickProfiler
+     */
+    public TickProfiler getTickProfiler() {
+        if (tickProfiler == null) {
+            tickProfiler = new TickProfiler();
         }
-        return timer;
+        return tickProfiler;
     }
 
     /**
@@ -548,12 +690,12 @@ public class SinkLibrary extends JavaPlugin {
      */
     @Deprecated
     public boolean sendIrcMessage(@Nonnull String message, @Nonnull String target) {
-        if (!isIrcAvailable()) {
+        IrcBridge bridge = getIrcBridge();
+        if (bridge == null) {
             return false;
         }
         try {
-            SinkIrcReflection.addToQueue(message, target);
-            return true;
+            return bridge.sendMessage(message, target);
         } catch (Throwable tr) {
             tr.printStackTrace();
             ircExceptionOccured = true;
@@ -628,12 +770,9 @@ public class SinkLibrary extends JavaPlugin {
      */
     @Nonnull
     public IngameUser getIngameUser(String partialPlayerName, boolean throwExceptionIfNotFound) {
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            IngameUser onlineUser = getIngameUser(p);
-            if (p.getName().startsWith(partialPlayerName) || onlineUser.getName().startsWith(partialPlayerName)
-                || ChatColor.stripColor(onlineUser.getDisplayName()).startsWith(partialPlayerName)) {
-                return onlineUser;
-            }
+        IngameUser onlineUser = getIngameUserProvider().getNameIndex().getFirstByPrefix(partialPlayerName);
+        if (onlineUser != null) {
+            return onlineUser;
         }
 
         IngameUser user = getIngameUser(BukkitUtil.getUniqueIdByName(partialPlayerName));
@@ -708,14 +847,14 @@ public class SinkLibrary extends JavaPlugin {
             if (suffix == null || suffix.equals("")) {
                 continue;
             }
-            if (partialName.endsWith(suffix)) {
-                hasSuffix = true;
+            if (!partialName.endsWith(suffix)) {
+                continue;
             }
+            hasSuffix = true;
 
-            for (IrcUser user : getOnlineIrcUsers()) {
-                if (user.getName().startsWith(partialName.replaceFirst(StringUtil.stripRegex(suffix), "")) && hasSuffix) {
-                    return user;
-                }
+            IrcUser user = getIrcUserProvider().getNameIndex().getFirstByPrefix(partialName.substring(0, partialName.length() - suffix.length()));
+            if (user != null) {
+                return user;
             }
         }
 
@@ -794,7 +933,9 @@ public class SinkLibrary extends JavaPlugin {
      */
     @Nullable
     public SinkUser getUser(Object base) {
-        Debug.logMethodCall(base.toString());
+        if (Debug.isEnabled()) {
+            Debug.logMethodCall(base.toString());
+        }
 
         if (base instanceof IrcCommandSender) {
             base = ((IrcCommandSender) base).getUser().getBase();
@@ -887,6 +1028,7 @@ public class SinkLibrary extends JavaPlugin {
 
         player.setCustomName(displayName);
         config.setDisplayName(displayName);
+        getIngameUserProvider().getNameIndex().put(user, player.getName(), displayName);
 
         if (displayName.length() > 16) {
             displayName = displayName.substring(0, 16);
@@ -912,6 +1054,16 @@ public class SinkLibrary extends JavaPlugin {
         getIrcUserProvider().unloadUser(user);
     }
 
+    /**
+     * Update the name index after an IRC user changed its nick
+     * Do not call this, its handled internally
+     *
+     * @param user the IRC user
+     */
+    public void refreshIrcUser(User user) {
+        getIrcUserProvider().refreshUser(user);
+    }
+
     /**
      * Unload an User
      * INTERNAL METHOD
@@ -1087,6 +1239,15 @@ public class SinkLibrary extends JavaPlugin {
             return null;
         }
 
+        return getSinkCommand(cmd);
+    }
+
+    /**
+     * @param cmd the Bukkit command
+     * @return the SinkCommand which executes the command or null if it isn't executed by a SinkCommand
+     */
+    @Nullable
+    public SinkCommand getSinkCommand(Command cmd) {
         if (cmd instanceof NativeCommand) {
             CommandExecutor exec = ((NativeCommand) cmd).getExecutor();
             if (exec instanceof SinkCommand) {
@@ -1135,8 +1296,8 @@ public class SinkLibrary extends JavaPlugin {
     }
 
     private void registerListeners() {
-        Bukkit.getPluginManager().registerEvents(new IngameUserListener(), this);
-        Bukkit.getPluginManager().registerEvents(new DisplayNameListener(), this);
+        registerListener(new IngameUserListener(), this);
+        registerListener(new DisplayNameListener(), this);
     }
 
     private void registerCommands() {
@@ -1153,11 +1314,17 @@ public class SinkLibrary extends JavaPlugin {
         return consoleUserProvider;
     }
 
-    private IngameUserProvider getIngameUserProvider() {
+    /**
+     * @return Provider of the ingame users
+     */
+    public IngameUserProvider getIngameUserProvider() {
         return ingameUserProvider;
     }
 
-    private IrcUserProvider getIrcUserProvider() {
+    /**
+     * @return Provider of the IRC users
+     */
+    public IrcUserProvider getIrcUserProvider() {
         return ircUserProvider;
     }
 
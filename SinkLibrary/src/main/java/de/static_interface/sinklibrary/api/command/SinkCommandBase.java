@@ -23,11 +23,13 @@ import de.static_interface.sinklibrary.api.exception.NotEnoughArgumentsException
 import de.static_interface.sinklibrary.api.exception.NotEnoughPermissionsException;
 import de.static_interface.sinklibrary.api.exception.UserNotFoundException;
 import de.static_interface.sinklibrary.api.exception.UserNotOnlineException;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
 import de.static_interface.sinklibrary.api.sender.IrcCommandSender;
 import de.static_interface.sinklibrary.configuration.GeneralLanguage;
+import de.static_interface.sinklibrary.profiler.Timing;
+import de.static_interface.sinklibrary.profiler.Timings;
 import de.static_interface.sinklibrary.util.CommandUtil;
 import de.static_interface.sinklibrary.util.Debug;
-import de.static_interface.sinklibrary.util.SinkIrcReflection;
 import de.static_interface.sinklibrary.util.StringUtil;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -63,6 +65,7 @@ public abstract class SinkCommandBase implements CommandExecutor {
     private CommandLineParser parser = getCommandOptions().getCliParser();
     private CommandLine cmdLine;
     private String usageSyntax;
+    private Timing timing;
 
     public SinkCommandBase(@Nonnull Plugin plugin) {
         this(plugin, null, false);
@@ -113,7 +116,10 @@ public abstract class SinkCommandBase implements CommandExecutor {
 
     protected String getCommandPrefix(@Nullable CommandSender sender) {
         if (sender instanceof IrcCommandSender) {
-            return SinkIrcReflection.getIrcCommandPrefix().trim();
+            IrcBridge bridge = SinkLibrary.getInstance().getIrcBridge();
+            if (bridge != null) {
+                return bridge.getCommandPrefix().trim();
+            }
         }
         return "/";
     }
@@ -237,7 +243,7 @@ public abstract class SinkCommandBase implements CommandExecutor {
         final String[] finalArgs = args;
         CommandTask task = new CommandTask() {
             @Override
-            public boolean execute() {
+            protected boolean executeCommand() {
                 Exception exception = null;
 
                 boolean success = true;
@@ -528,6 +534,13 @@ public abstract class SinkCommandBase implements CommandExecutor {
         return getClass().getSimpleName() + "[" + getDebuggableName() + "]";
     }
 
+    private Timing getTiming() {
+        if (timing == null) {
+            timing = Timings.getTiming("command " + getDebuggableName());
+        }
+        return timing;
+    }
+
     private abstract class CommandTask implements Runnable {
 
         @Override
@@ -535,6 +548,19 @@ public abstract class SinkCommandBase implements CommandExecutor {
             execute();
         }
 
-        public abstract boolean execute();
+        public boolean execute() {
+            if (!Timings.isEnabled()) {
+                return executeCommand();
+            }
+
+            long start = System.nanoTime();
+            try {
+                return executeCommand();
+            } finally {
+                getTiming().record(System.nanoTime() - start);
+            }
+        }
+
+        protected abstract boolean executeCommand();
     }
 }
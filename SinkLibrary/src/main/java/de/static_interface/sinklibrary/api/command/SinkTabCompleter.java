@@ -18,20 +18,24 @@
 package de.static_interface.sinklibrary.api.command;
 
 import de.static_interface.sinklibrary.SinkLibrary;
-import de.static_interface.sinklibrary.api.user.SinkUser;
-import de.static_interface.sinklibrary.util.StringUtil;
-import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
+import de.static_interface.sinklibrary.user.IngameUser;
+import de.static_interface.sinklibrary.user.IrcUser;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Completes names of online users. The names are looked up in the name indexes of the user providers,
+ * which are updated when users join, quit or change their name, so only the matching users are visited.
+ */
 public class SinkTabCompleter implements TabCompleter {
 
     @Override
@@ -39,7 +43,7 @@ public class SinkTabCompleter implements TabCompleter {
                                       String[] args) {
         List<String> result = new ArrayList<>();
 
-        SinkCommand command = SinkLibrary.getInstance().getSinkCommand(cmd.getName());
+        SinkCommand command = SinkLibrary.getInstance().getSinkCommand(cmd);
 
         SinkTabCompleterOptions options;
         if (command != null) {
@@ -55,77 +59,51 @@ public class SinkTabCompleter implements TabCompleter {
             return result;
         }
 
-        List<SinkUser> users = new ArrayList<>();
-        HashMap<SinkUser, String> tmp = new HashMap<>();
-        String s = args[args.length - 1];
+        String s = args.length == 0 ? "" : args[args.length - 1];
+        // only add one entry per name
+        Set<String> added = new HashSet<>();
 
         if (includeIngameUsers) {
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                if (sender instanceof Player && !((Player) sender).canSee(p) && !sender.hasPermission("sinklibrary.bypassvanish")) {
+            Player player = sender instanceof Player ? (Player) sender : null;
+            boolean bypassVanish = player == null || sender.hasPermission("sinklibrary.bypassvanish");
+            String suffix = includeSuffix ? SinkLibrary.getInstance().getIngameUserProvider().getTabCompleterSuffix() : "";
+            Map<IngameUser, String> completions = SinkLibrary.getInstance().getIngameUserProvider().getNameIndex()
+                    .getCompletions(stripSuffix(s, suffix));
+            for (Map.Entry<IngameUser, String> entry : completions.entrySet()) {
+                IngameUser user = entry.getKey();
+                if (!user.isOnline() || (!bypassVanish && !player.canSee(user.getPlayer()))) {
                     continue;
                 }
-                users.add(SinkLibrary.getInstance().getIngameUser(p));
+                add(result, added, entry.getValue() + suffix);
             }
         }
 
         if (includeIrcUsers) {
-            users.addAll(SinkLibrary.getInstance().getOnlineIrcUsers());
-        }
-
-        Collections.sort(users);
-        for (SinkUser user : users) {
-            String suffix = user.getProvider().getTabCompleterSuffix();
-
-            String name = user.getName();
-
-            if (includeSuffix) {
-                name = name + suffix;
-            }
-
-            String displayName = user.getDisplayName() == null ? "" : user.getDisplayName();
-
-            if (includeSuffix) {
-                displayName = ChatColor.stripColor(displayName) + suffix;
-            } else {
-                displayName = ChatColor.stripColor(displayName);
-            }
-
-            boolean hasDisplayname = false;
-
-            if (!StringUtil.isEmptyOrNull(displayName.replace(suffix, ""))) {
-                hasDisplayname = true;
-            }
-
-            // only add one entry per user
-
-            boolean valuesContains = false;
-            for (String valuename : tmp.values()) {
-                if ((hasDisplayname && valuename.equalsIgnoreCase(displayName)) ||
-                    valuename.equalsIgnoreCase(name)) {
-                    valuesContains = true;
-                    break;
-                }
-            }
-            if (tmp.keySet().contains(user) || (valuesContains)) {
-                continue;
+            String suffix = includeSuffix ? SinkLibrary.getInstance().getIrcUserProvider().getTabCompleterSuffix() : "";
+            Map<IrcUser, String> completions = SinkLibrary.getInstance().getIrcUserProvider().getNameIndex()
+                    .getCompletions(stripSuffix(s, suffix));
+            for (String name : completions.values()) {
+                add(result, added, name + suffix);
             }
+        }
 
-            // check if alias starts with displayname, if not, check if starts with default name
-            if (!StringUtil.isEmptyOrNull(s)) {
-                if (hasDisplayname && displayName.toLowerCase().startsWith(s.toLowerCase())) {
-                    tmp.put(user, displayName);
-                    continue;
-                }
+        result.sort(String.CASE_INSENSITIVE_ORDER);
+        return result;
+    }
 
-                if (user.getName().toLowerCase().startsWith(s.toLowerCase())) {
-                    tmp.put(user, name);
-                }
-            } else {
-                tmp.put(user, displayName);
-            }
+    /**
+     * Remove the suffix from an already completed name, so completing it again still finds the user
+     */
+    private static String stripSuffix(String prefix, String suffix) {
+        if (!suffix.isEmpty() && prefix.endsWith(suffix)) {
+            return prefix.substring(0, prefix.length() - suffix.length());
         }
+        return prefix;
+    }
 
-        result.addAll(tmp.values());
-        return result;
+    private static void add(List<String> result, Set<String> added, String name) {
+        if (added.add(name.toLowerCase(Locale.ROOT))) {
+            result.add(name);
+        }
     }
 }
@@ -48,6 +48,7 @@ public class Configuration {
     protected HashMap<String, Object> defaultValues = null;
     private Map<String, String> comments = new HashMap<>();
     private List<YamlOption> options = null;
+    private volatile boolean dirty = false;
 
     /**
      * Create a new configuration
@@ -116,6 +117,10 @@ public class Configuration {
                 onCreate();
             }
 
+            for (YamlOption option : getOptions()) {
+                option.reloadValue();
+            }
+
             configs.put(yamlFile.getCanonicalPath(), this);
             save();
 
@@ -132,137 +137,122 @@ public class Configuration {
      * @author dumptruckman
      */
     private void writeToFile(File file) throws IOException {
-        getYamlConfiguration().save(getFile());
-        // if there's comments to add and it saved fine, we need to add comments
-        if (!comments.isEmpty()) {
-            // String array of each line in the config file
-            String[] yamlContents = FileUtil.convertFileToString(file).split("[" + System.getProperty("line.separator") + "]");
-
-            // This will hold the newly formatted line
-            String newContents = "";
-            // This holds the current path the lines are at in the config
-            String currentPath = "";
-            // This tells if the specified path has already been commented
-            boolean commentedPath = false;
-            // This flags if the line is a node or unknown text.
-            boolean node;
-            // The depth of the path. (number of words separated by periods - 1)
-            int depth = 0;
-            // Loop through the config lines
-            for (String line : yamlContents) {
-                String whiteSpacePrefix = "";
-
-                // If the line is a node (and not something like a list value)
-                if (line.contains(": ") || (line.length() > 1 && line.charAt(line.length() - 1) == ':')) {
-
-                    // This is a new node so we need to mark it for commenting (if there are comments)
-                    commentedPath = false;
-                    // This is a node so flag it as one
-                    node = true;
-
-                    // Grab the index of the end of the node name
-                    int index;
-                    index = line.indexOf(": ");
-                    if (index < 0) {
-                        index = line.length() - 1;
+        String yamlContents = getYamlConfiguration().saveToString();
+        // if there's no comments to add we can write the serialized config directly
+        if (comments.isEmpty()) {
+            FileUtil.stringToFile(yamlContents, file);
+            return;
+        }
+
+        String lineSeparator = System.getProperty("line.separator");
+        // This will hold the newly formatted lines
+        StringBuilder newContents = new StringBuilder(yamlContents.length() + comments.size() * 32);
+        // This holds the current path the lines are at in the config
+        String currentPath = "";
+        // This tells if the specified path has already been commented
+        boolean commentedPath = false;
+        // This flags if the line is a node or unknown text.
+        boolean node;
+        // The depth of the path. (number of words separated by periods - 1)
+        int depth = 0;
+        // Loop through the config lines
+        for (String line : yamlContents.split("[" + lineSeparator + "]")) {
+            int whiteSpace = 0;
+
+            // If the line is a node (and not something like a list value)
+            if (line.contains(": ") || (line.length() > 1 && line.charAt(line.length() - 1) == ':')) {
+
+                // This is a new node so we need to mark it for commenting (if there are comments)
+                commentedPath = false;
+                // This is a node so flag it as one
+                node = true;
+
+                // Grab the index of the end of the node name
+                int index;
+                index = line.indexOf(": ");
+                if (index < 0) {
+                    index = line.length() - 1;
+                }
+                // If currentPath is empty, store the node name as the currentPath. (this is only on the first iteration, i think)
+                if (currentPath.isEmpty()) {
+                    currentPath = line.substring(0, index);
+                } else {
+                    // Calculate the whitespace preceding the node name
+                    while (whiteSpace < line.length() && line.charAt(whiteSpace) == ' ') {
+                        whiteSpace++;
                     }
-                    // If currentPath is empty, store the node name as the currentPath. (this is only on the first iteration, i think)
-                    if (currentPath.isEmpty()) {
-                        currentPath = line.substring(0, index);
-                    } else {
-                        // Calculate the whitespace preceding the node name
-                        int whiteSpace = 0;
-                        for (int n = 0; n < line.length(); n++) {
-                            if (line.charAt(n) == ' ') {
-                                whiteSpace++;
-                            } else {
-                                break;
-                            }
+                    // Find out if the current depth (whitespace * 2) is greater/lesser/equal to the previous depth
+                    if (whiteSpace / 2 > depth) {
+                        // Path is deeper.  Add a . and the node name
+                        currentPath += "." + line.substring(whiteSpace, index);
+                        depth++;
+                    } else if (whiteSpace / 2 < depth) {
+                        // Path is shallower, calculate current depth from whitespace (whitespace / 2) and subtract that many levels from the currentPath
+                        int newDepth = whiteSpace / 2;
+                        for (int i = 0; i < depth - newDepth; i++) {
+                            currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
                         }
-                        // Find out if the current depth (whitespace * 2) is greater/lesser/equal to the previous depth
-                        if (whiteSpace / 2 > depth) {
-                            // Path is deeper.  Add a . and the node name
-                            currentPath += "." + line.substring(whiteSpace, index);
-                            depth++;
-                        } else if (whiteSpace / 2 < depth) {
-                            // Path is shallower, calculate current depth from whitespace (whitespace / 2) and subtract that many levels from the currentPath
-                            int newDepth = whiteSpace / 2;
-                            for (int i = 0; i < depth - newDepth; i++) {
-                                currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
-                            }
-                            // Grab the index of the final period
-                            int lastIndex = currentPath.lastIndexOf(".");
-                            if (lastIndex < 0) {
-                                // if there isn't a final period, set the current path to nothing because we're at root
-                                currentPath = "";
-                            } else {
-                                // If there is a final period, replace everything after it with nothing
-                                currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
-                                currentPath += ".";
-                            }
-                            // Add the new node name to the path
-                            currentPath += line.substring(whiteSpace, index);
-                            // Reset the depth
-                            depth = newDepth;
+                        // Grab the index of the final period
+                        int lastIndex = currentPath.lastIndexOf(".");
+                        if (lastIndex < 0) {
+                            // if there isn't a final period, set the current path to nothing because we're at root
+                            currentPath = "";
                         } else {
-                            // Path is same depth, replace the last path node name to the current node name
-                            int lastIndex = currentPath.lastIndexOf(".");
-                            if (lastIndex < 0) {
-                                // if there isn't a final period, set the current path to nothing because we're at root
-                                currentPath = "";
-                            } else {
-                                // If there is a final period, replace everything after it with nothing
-                                currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
-                                currentPath += ".";
-                            }
-                            //currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
-                            currentPath += line.substring(whiteSpace, index);
+                            // If there is a final period, replace everything after it with nothing
+                            currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
+                            currentPath += ".";
                         }
-                        for (int i = 0; i < whiteSpace; i++) {
-                            whiteSpacePrefix += " ";
+                        // Add the new node name to the path
+                        currentPath += line.substring(whiteSpace, index);
+                        // Reset the depth
+                        depth = newDepth;
+                    } else {
+                        // Path is same depth, replace the last path node name to the current node name
+                        int lastIndex = currentPath.lastIndexOf(".");
+                        if (lastIndex < 0) {
+                            // if there isn't a final period, set the current path to nothing because we're at root
+                            currentPath = "";
+                        } else {
+                            // If there is a final period, replace everything after it with nothing
+                            currentPath = currentPath.replace(currentPath.substring(currentPath.lastIndexOf(".")), "");
+                            currentPath += ".";
                         }
+                        currentPath += line.substring(whiteSpace, index);
                     }
-
-                } else {
-                    node = false;
                 }
 
-                if (node) {
-                    String comment = null;
-                    if (!commentedPath) {
-                        // If there's a comment for the current path, retrieve it and flag that path as already commented
-                        if (comments.get(currentPath) != null) {
-                            // whiteSpaces for comments
-                            comment = whiteSpacePrefix + "# " + comments.get(currentPath);
-                        }
-                    }
-                    if (comment != null) {
-                        // Add the comment to the beginning of the current line
-                        line = comment + System.getProperty("line.separator") + line + System.getProperty("line.separator");
-                        commentedPath = true;
-                    } else {
-                        // Add a new line as it is a node, but has no comment
-                        line += System.getProperty("line.separator");
+            } else {
+                node = false;
+            }
+
+            if (node && !commentedPath) {
+                // If there's a comment for the current path, retrieve it and flag that path as already commented
+                String comment = comments.get(currentPath);
+                if (comment != null) {
+                    // Add the comment to the beginning of the current line, indented like the node itself
+                    for (int i = 0; i < whiteSpace; i++) {
+                        newContents.append(' ');
                     }
+                    newContents.append("# ").append(comment).append(lineSeparator);
+                    commentedPath = true;
                 }
-                // Add the (modified) line to the total config String
-                newContents += line + ((!node) ? System.getProperty("line.separator") : "");
-            }
-            /*
-             * Due to a bukkit bug we need to strip any extra new lines from the
-			 * beginning of this file, else they will multiply.
-			 */
-            while (newContents.startsWith(System.getProperty("line.separator"))) {
-                newContents = newContents.replaceFirst(System.getProperty("line.separator"), "");
             }
 
-            try {
-                // Write the string to the config file
-                FileUtil.stringToFile(newContents, file);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            // Add the (modified) line to the total config String
+            newContents.append(line).append(lineSeparator);
+        }
+
+        /*
+         * Due to a bukkit bug we need to strip any extra new lines from the
+         * beginning of this file, else they will multiply.
+         */
+        int start = 0;
+        while (newContents.indexOf(lineSeparator, start) == start) {
+            start += lineSeparator.length();
         }
+
+        // Write the string to the config file
+        FileUtil.stringToFile(newContents.substring(start), file);
     }
 
     /**
@@ -284,7 +274,7 @@ public class Configuration {
     /**
      * Save config file
      */
-    public void save() {
+    public synchronized void save() {
         if (getFile() == null) {
             return;
         }
@@ -294,32 +284,94 @@ public class Configuration {
 
         try {
             writeToFile(getFile());
+            dirty = false;
+            ConfigurationFlusher.onPhysicalWrite();
         } catch (IOException e) {
             if (GeneralSettings.GENERAL_DEBUG.getValue()) {
                 SinkLibrary.getInstance().getLogger().log(Level.SEVERE, "Couldn't save configuration file: " + getFile() + '!', e);
             } else {
                 SinkLibrary.getInstance().getLogger().log(Level.SEVERE, "Couldn't save configuration file: " + getFile() + '!');
             }
+            // The changes haven't been written yet, try again on the next flush
+            dirty = true;
+            if (ConfigurationFlusher.isEnabled()) {
+                ConfigurationFlusher.queue(this);
+            }
+        }
+    }
+
+    /**
+     * Save the config file if it has unsaved changes
+     */
+    public synchronized void flush() {
+        if (!dirty) {
+            return;
         }
+        save();
+    }
+
+    /**
+     * @return True if the configuration has changes which haven't been written to the file yet
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Mark this configuration as changed. If write-behind is enabled the file will be written by the
+     * {@link ConfigurationFlusher} later, otherwise it will be saved immediately
+     */
+    public synchronized void markDirty() {
+        if (getFile() == null) {
+            return;
+        }
+
+        if (!ConfigurationFlusher.isEnabled()) {
+            save();
+            return;
+        }
+
+        if (dirty) {
+            ConfigurationFlusher.onCoalescedWrite();
+            return;
+        }
+
+        dirty = true;
+        ConfigurationFlusher.queue(this);
     }
 
     /**
      * @param path  Path to value
      * @param value Value of path
      */
-    public void set(String path, Object value) {
+    public synchronized void set(String path, Object value) {
         try {
             if (getFile() == null || getYamlConfiguration() == null) {
                 addDefault(path, value);
             }
             getYamlConfiguration().set(path, value);
-            save();
+            invalidateOptions(path);
+            markDirty();
         } catch (Exception e) {
             SinkLibrary.getInstance().getLogger()
                     .log(Level.WARNING, "Configuration:" + getFile() + ": Couldn't save " + value + " to path " + path, e);
         }
     }
 
+    private void invalidateOptions(String path) {
+        if (options == null) {
+            return;
+        }
+        String childPrefix = path + ".";
+        for (YamlOption option : options) {
+            String optionPath = option.getPath();
+            // Invalidate the option itself, options below the path and section options containing the path
+            if (optionPath.equals(path) || optionPath.startsWith(childPrefix) || path.startsWith(optionPath + ".")) {
+                option.invalidate();
+            }
+        }
+    }
+
     /**
      * Get value from configuration. If it doesn't exists, it will return the default value.
      *
@@ -333,7 +385,7 @@ public class Configuration {
         }
         try {
             value = getYamlConfiguration().get(path);
-            if (!path.equals("General.EnableDebug") && !path.equals("General.EnableLog")) {
+            if (Debug.isEnabled()) {
                 Debug.log(getFile().getName() + ": Loaded value: " + value + " for path: " + path);
             }
             if (value == null) {
@@ -485,6 +537,7 @@ public class Configuration {
         if (!exists()) {
             return;
         }
+        flush();
         init();
     }
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.configuration;
+
+import de.static_interface.sinklibrary.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Writes changed {@link Configuration}s to their files in the background.
+ * While enabled, {@link Configuration#set(String, Object)} only marks the configuration as dirty,
+ * so multiple changes to the same file between two runs will result in a single write.
+ */
+public class ConfigurationFlusher implements Runnable {
+
+    private static final Set<Configuration> dirtyConfigs = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong coalescedWrites = new AtomicLong();
+    private static final AtomicLong physicalWrites = new AtomicLong();
+    private static volatile boolean enabled = false;
+
+    private BukkitTask task;
+
+    /**
+     * @return True if write-behind is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Amount of changes which have been merged into an already pending write
+     */
+    public static long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    /**
+     * @return Amount of writes which have been done to configuration files
+     */
+    public static long getPhysicalWrites() {
+        return physicalWrites.get();
+    }
+
+    /**
+     * @return Amount of configurations waiting to be written
+     */
+    public static int getPendingWrites() {
+        return dirtyConfigs.size();
+    }
+
+    static void queue(Configuration config) {
+        dirtyConfigs.add(config);
+    }
+
+    static void onCoalescedWrite() {
+        coalescedWrites.incrementAndGet();
+    }
+
+    static void onPhysicalWrite() {
+        physicalWrites.incrementAndGet();
+    }
+
+    /**
+     * Write all pending configurations
+     */
+    public static void flushAll() {
+        Iterator<Configuration> iterator = dirtyConfigs.iterator();
+        while (iterator.hasNext()) {
+            Configuration config = iterator.next();
+            iterator.remove();
+            try {
+                config.flush();
+            } catch (Exception e) {
+                Debug.log(Level.SEVERE, "Couldn't flush configuration: " + config.getFile(), e);
+            }
+        }
+    }
+
+    /**
+     * Enable write-behind and start flushing periodically
+     *
+     * @param plugin Plugin which owns the task
+     * @param interval Interval in ticks
+     */
+    public synchronized void start(Plugin plugin, long interval) {
+        stop();
+        if (interval < 1) {
+            interval = 1;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this, interval, interval);
+        enabled = true;
+    }
+
+    /**
+     * Disable write-behind and write all pending configurations
+     */
+    public synchronized void stop() {
+        enabled = false;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flushAll();
+    }
+
+    @Override
+    public void run() {
+        flushAll();
+    }
+}
@@ -38,7 +38,7 @@ public class YamlBooleanOption extends YamlOption<Boolean> {
     }
 
     @Override
-    public Boolean getValue() {
+    protected Boolean loadValue() {
         return getConfig().getYamlConfiguration().getBoolean(getPath(), getDefaultValue());
     }
 }
@@ -40,7 +40,7 @@ public class YamlColorOption extends YamlOption<Color> {
     }
 
     @Override
-    public Color getValue() {
+    protected Color loadValue() {
         return getConfig().getYamlConfiguration().getColor(getPath(), getDefaultValue());
     }
 }
@@ -38,7 +38,7 @@ public class YamlDoubleOption extends YamlOption<Double> {
     }
 
     @Override
-    public Double getValue() {
+    protected Double loadValue() {
         return getConfig().getYamlConfiguration().getDouble(getPath(), getDefaultValue());
     }
 }
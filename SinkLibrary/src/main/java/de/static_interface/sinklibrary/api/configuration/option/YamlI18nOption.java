@@ -108,13 +108,18 @@ public class YamlI18nOption extends YamlStringOption {
 
     @Override
     public String getValue() {
-        String s = ChatColor.translateAlternateColorCodes('&', super.getValue());
+        String s = super.getValue();
         if (isErrorMessage()) {
             s = GeneralLanguage.formatError(s);
         }
         return s;
     }
 
+    @Override
+    protected String loadValue() {
+        return ChatColor.translateAlternateColorCodes('&', super.loadValue());
+    }
+
     public boolean isErrorMessage() {
         return isError;
     }
@@ -38,7 +38,7 @@ public class YamlIntegerOption extends YamlOption<Integer> {
     }
 
     @Override
-    public Integer getValue() {
+    protected Integer loadValue() {
         return getConfig().getYamlConfiguration().getInt(getPath(), getDefaultValue());
     }
 }
@@ -41,6 +41,13 @@ public class YamlItemStackOption extends YamlOption<ItemStack> {
 
     @Override
     public ItemStack getValue() {
+        // ItemStacks are mutable, don't expose the cached instance
+        ItemStack value = super.getValue();
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    protected ItemStack loadValue() {
         return getConfig().getYamlConfiguration().getItemStack(getPath(), getDefaultValue());
     }
 }
@@ -17,6 +17,7 @@
 
 package de.static_interface.sinklibrary.api.configuration.option;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -40,7 +41,8 @@ public class YamlListOption extends YamlOption<List<?>> {
     }
 
     @Override
-    public List<?> getValue() {
-        return getConfig().getYamlConfiguration().getList(getPath(), getDefaultValue());
+    protected List<?> loadValue() {
+        List<?> list = getConfig().getYamlConfiguration().getList(getPath(), getDefaultValue());
+        return list == null ? null : Collections.unmodifiableList(list);
     }
 }
@@ -38,7 +38,7 @@ public class YamlLongOption extends YamlOption<Long> {
     }
 
     @Override
-    public Long getValue() {
+    protected Long loadValue() {
         return getConfig().getYamlConfiguration().getLong(getPath(), getDefaultValue());
     }
 }
@@ -17,6 +17,7 @@
 
 package de.static_interface.sinklibrary.api.configuration.option;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -43,10 +44,10 @@ public class YamlMapListOption extends YamlOption<List<Map<?, ?>>> {
 
 
     @Override
-    public List<Map<?, ?>> getValue() {
+    protected List<Map<?, ?>> loadValue() {
         if (getConfig().getYamlConfiguration().getList(getPath()) == null) {
             return getDefaultValue();
         }
-        return getConfig().getYamlConfiguration().getMapList(getPath());
+        return Collections.unmodifiableList(getConfig().getYamlConfiguration().getMapList(getPath()));
     }
 }
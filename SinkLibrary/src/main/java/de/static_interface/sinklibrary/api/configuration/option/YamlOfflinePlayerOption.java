@@ -41,7 +41,7 @@ public class YamlOfflinePlayerOption extends YamlOption<OfflinePlayer> {
     }
 
     @Override
-    public OfflinePlayer getValue() {
+    protected OfflinePlayer loadValue() {
         return getConfig().getYamlConfiguration().getOfflinePlayer(getPath(), getDefaultValue());
     }
 }
@@ -18,7 +18,8 @@
 package de.static_interface.sinklibrary.api.configuration.option;
 
 import de.static_interface.sinklibrary.api.configuration.Configuration;
-import de.static_interface.sinklibrary.util.Debug;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -29,6 +30,9 @@ public abstract class YamlOption<T> extends Option<T> {
     private final String path;
     private final String comment;
     private Configuration config;
+    private volatile Snapshot<T> snapshot = null;
+    // Incremented on every invalidation, snapshots loaded before are ignored
+    private final AtomicLong version = new AtomicLong();
 
     public YamlOption(String path, T defaultValue) {
         this(null, path, defaultValue, null);
@@ -65,19 +69,61 @@ public abstract class YamlOption<T> extends Option<T> {
 
     public void setConfig(Configuration config) {
         this.config = config;
+        invalidate();
     }
 
     @Nonnull
     public String getPath() {
-        Debug.log("path value: " + path);
         return path;
     }
 
+    /**
+     * Get the value of this option. The value is read from the configuration once and cached until
+     * the configuration gets reloaded or the value gets changed.
+     */
     @Override
     public T getValue() {
+        Snapshot<T> s = snapshot;
+        if (s == null || s.version != version.get()) {
+            s = refresh();
+        }
+        return s.value;
+    }
+
+    /**
+     * Read the value from the configuration, bypassing the cache
+     */
+    protected T loadValue() {
         return (T) config.get(getPath(), getDefaultValue());
     }
 
+    /**
+     * Reload the cached value from the configuration. If the option gets invalidated while the value is
+     * being loaded the snapshot is stale and will be loaded again by the next {@link #getValue()} call.
+     * @return the new snapshot
+     */
+    private Snapshot<T> refresh() {
+        long v = version.get();
+        Snapshot<T> s = new Snapshot<>(loadValue(), v);
+        snapshot = s;
+        return s;
+    }
+
+    /**
+     * Load the cached value again from the configuration
+     */
+    public void reloadValue() {
+        refresh();
+    }
+
+    /**
+     * Drop the cached value, it will be read from the configuration on the next {@link #getValue()} call
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
     @Override
     public boolean setValue(T value) {
         return setValue(value, false);
@@ -95,4 +141,15 @@ public abstract class YamlOption<T> extends Option<T> {
     public String getComment() {
         return comment;
     }
+
+    static final class Snapshot<T> {
+
+        final T value;
+        final long version;
+
+        Snapshot(T value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
 }
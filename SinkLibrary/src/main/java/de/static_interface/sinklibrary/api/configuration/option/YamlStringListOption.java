@@ -17,6 +17,7 @@
 
 package de.static_interface.sinklibrary.api.configuration.option;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nullable;
@@ -40,11 +41,11 @@ public class YamlStringListOption extends YamlOption<List<String>> {
     }
 
     @Override
-    public List<String> getValue() {
+    protected List<String> loadValue() {
         List<?> list = getConfig().getYamlConfiguration().getList(getPath());
         if (list == null) {
             return getDefaultValue();
         }
-        return getConfig().getYamlConfiguration().getStringList(getPath());
+        return Collections.unmodifiableList(getConfig().getYamlConfiguration().getStringList(getPath()));
     }
 }
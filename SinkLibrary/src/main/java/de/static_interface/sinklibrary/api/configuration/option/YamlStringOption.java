@@ -38,7 +38,7 @@ public class YamlStringOption extends YamlOption<String> {
     }
 
     @Override
-    public String getValue() {
+    protected String loadValue() {
         return getConfig().getYamlConfiguration().getString(getPath(), getDefaultValue());
     }
 }
@@ -41,6 +41,13 @@ public class YamlVectorOption extends YamlOption<Vector> {
 
     @Override
     public Vector getValue() {
+        // Vectors are mutable, don't expose the cached instance
+        Vector value = super.getValue();
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    protected Vector loadValue() {
         return getConfig().getYamlConfiguration().getVector(getPath(), getDefaultValue());
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.event;
+
+import de.static_interface.sinklibrary.api.stream.MessageStream;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called after a {@link MessageStream} has been registered. It's called asynchronously if the stream has been registered outside
+ * of the main thread.
+ */
+public class MessageStreamRegisterEvent extends Event {
+
+    private static final HandlerList handlers = new HandlerList();
+    private MessageStream messageStream;
+
+    public MessageStreamRegisterEvent(MessageStream messageStream) {
+        super(!Bukkit.isPrimaryThread());
+        this.messageStream = messageStream;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    public MessageStream getMessageStream() {
+        return messageStream;
+    }
+}
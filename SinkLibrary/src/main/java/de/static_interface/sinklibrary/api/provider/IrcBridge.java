@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.provider;
+
+import org.pircbotx.Channel;
+import org.pircbotx.PircBotX;
+import org.pircbotx.User;
+
+/**
+ * Access to SinkIRC, which can't be a dependency of SinkLibrary. SinkIRC registers its implementation
+ * via {@link de.static_interface.sinklibrary.SinkLibrary#registerIrcBridge(IrcBridge)} when it gets enabled.
+ */
+public interface IrcBridge {
+
+    /**
+     * @return the IRC bot
+     */
+    PircBotX getIrcBot();
+
+    /**
+     * @param user the IRC user
+     * @return true if the user is op in any joined channel
+     */
+    boolean isOp(User user);
+
+    /**
+     * Give or take op of a user in a channel
+     *
+     * @param user the IRC user
+     * @param channel the channel
+     * @param value true to give op, false to take it
+     */
+    void setOp(User user, Channel channel, boolean value);
+
+    /**
+     * @return prefix of IRC commands
+     */
+    String getCommandPrefix();
+
+    /**
+     * Queue a message to IRC
+     *
+     * @param message the message
+     * @param target channel or nick
+     * @return false if the message has been rejected because the queue is full
+     */
+    boolean sendMessage(String message, String target);
+}
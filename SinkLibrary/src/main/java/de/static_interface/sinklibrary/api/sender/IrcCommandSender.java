@@ -17,8 +17,9 @@
 
 package de.static_interface.sinklibrary.api.sender;
 
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
 import de.static_interface.sinklibrary.user.IrcUser;
-import de.static_interface.sinklibrary.util.SinkIrcReflection;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.Validate;
 import org.bukkit.Bukkit;
@@ -67,7 +68,10 @@ public class IrcCommandSender implements RemoteConsoleCommandSender {
 
     private void sendNotice(String msg) {
         try {
-            SinkIrcReflection.getPircBotX().sendIRC().notice(user.getName(), msg);
+            IrcBridge bridge = SinkLibrary.getInstance().getIrcBridge();
+            if (bridge != null) {
+                bridge.getIrcBot().sendIRC().notice(user.getName(), msg);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -23,13 +23,22 @@ import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.util.Debug;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public abstract class MessageStream<T extends SinkUser> {
 
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
     private String name;
+    // Copy on write, sending a message only reads the current array
+    private volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
 
     public MessageStream(@Nonnull String name) {
         Validate.notNull(name);
@@ -45,7 +54,9 @@ public abstract class MessageStream<T extends SinkUser> {
     }
 
     public final boolean sendMessage(@Nullable T user, String message, Object... args) {
-        Debug.logMethodCall(user != null ? user.getName() : null, message);
+        if (Debug.isEnabled()) {
+            Debug.logMethodCall(user != null ? user.getName() : null, message);
+        }
         if (getName() == null) {
             throw new IllegalStateException("Name was not set!");
         }
@@ -58,13 +69,82 @@ public abstract class MessageStream<T extends SinkUser> {
 
         boolean result = onSendMessage(user, formatMessage, args);
         if (result) {
-            MessageStreamEvent event = new MessageStreamEvent(this, user, message);
-            Bukkit.getPluginManager().callEvent(event);
+            for (Subscription subscription : subscriptions) {
+                subscription.deliver(this, user, message);
+            }
+
+            // Compatibility for listeners of the Bukkit event, it's only created if someone is listening
+            if (MessageStreamEvent.getHandlerList().getRegisteredListeners().length > 0) {
+                MessageStreamEvent event = new MessageStreamEvent(this, user, message);
+                Bukkit.getPluginManager().callEvent(event);
+            }
         }
 
         return result;
     }
 
+    /**
+     * Subscribe to all messages sent through this stream
+     *
+     * @param plugin the plugin which owns the subscriber
+     * @param subscriber the subscriber
+     * @param async if true, the subscriber will be called asynchronously, otherwise it is called by the thread which sent the message
+     */
+    public final synchronized void subscribe(Plugin plugin, MessageStreamSubscriber subscriber, boolean async) {
+        Validate.notNull(plugin);
+        Validate.notNull(subscriber);
+        Subscription[] current = subscriptions;
+        Subscription[] updated = new Subscription[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = new Subscription(plugin, subscriber, async);
+        subscriptions = updated;
+    }
+
+    /**
+     * @param subscriber the subscriber
+     * @return true if the subscriber has been subscribed to this stream
+     */
+    public final synchronized boolean unsubscribe(MessageStreamSubscriber subscriber) {
+        List<Subscription> remaining = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.subscriber != subscriber) {
+                remaining.add(subscription);
+            }
+        }
+        return updateSubscriptions(remaining);
+    }
+
+    /**
+     * Remove all subscribers of the given plugin
+     *
+     * @param plugin the plugin
+     * @return true if any subscriber has been removed
+     */
+    public final synchronized boolean unsubscribeAll(Plugin plugin) {
+        List<Subscription> remaining = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.plugin != plugin) {
+                remaining.add(subscription);
+            }
+        }
+        return updateSubscriptions(remaining);
+    }
+
+    private boolean updateSubscriptions(List<Subscription> remaining) {
+        if (remaining.size() == subscriptions.length) {
+            return false;
+        }
+        subscriptions = remaining.isEmpty() ? NO_SUBSCRIPTIONS : remaining.toArray(new Subscription[remaining.size()]);
+        return true;
+    }
+
+    /**
+     * @return true if any subscriber has been subscribed to this stream
+     */
+    public final boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
     public String formatMessage(@Nullable T user, String message) {
         return message;
     }
@@ -78,4 +158,37 @@ public abstract class MessageStream<T extends SinkUser> {
     public final void setName(String name) {
         this.name = name;
     }
+
+    private static class Subscription {
+
+        private final Plugin plugin;
+        private final MessageStreamSubscriber subscriber;
+        private final boolean async;
+
+        private Subscription(Plugin plugin, MessageStreamSubscriber subscriber, boolean async) {
+            this.plugin = plugin;
+            this.subscriber = subscriber;
+            this.async = async;
+        }
+
+        private void deliver(final MessageStream stream, @Nullable final SinkUser user, final String message) {
+            if (!plugin.isEnabled()) {
+                return;
+            }
+
+            if (async) {
+                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> call(stream, user, message));
+                return;
+            }
+            call(stream, user, message);
+        }
+
+        private void call(MessageStream stream, @Nullable SinkUser user, String message) {
+            try {
+                subscriber.onMessage(stream, user, message);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Couldn't pass message of stream " + stream.getName() + " to " + subscriber, e);
+            }
+        }
+    }
 }
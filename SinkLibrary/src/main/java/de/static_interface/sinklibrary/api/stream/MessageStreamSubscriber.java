@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2013 - 2015 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.stream;
+
+import de.static_interface.sinklibrary.api.user.SinkUser;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives all messages sent through the {@link MessageStream}s it has been subscribed to
+ *
+ * @see MessageStream#subscribe(org.bukkit.plugin.Plugin, MessageStreamSubscriber, boolean)
+ */
+public interface MessageStreamSubscriber {
+
+    /**
+     * Called after a message has been sent successfully
+     *
+     * @param stream the stream the message has been sent through
+     * @param user the sender, may be null
+     * @param message the unformatted message
+     */
+    void onMessage(MessageStream stream, @Nullable SinkUser user, String message);
+}
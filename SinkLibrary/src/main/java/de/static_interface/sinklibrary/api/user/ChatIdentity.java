@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.user;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable snapshot of the values which are needed to format chat messages of a user.
+ * It is rebuilt when one of the values changes or after {@link de.static_interface.sinklibrary.configuration.GeneralSettings#GENERAL_CHAT_IDENTITY_TTL}.
+ */
+public class ChatIdentity {
+
+    private final String displayName;
+    private final String chatPrefix;
+    @Nullable
+    private final String primaryGroup;
+    private final boolean permissionsAvailable;
+    private final Map<String, Object> values;
+    private final long expireTime;
+
+    public ChatIdentity(String displayName, String chatPrefix, @Nullable String primaryGroup, boolean permissionsAvailable,
+                        Map<String, Object> values, long expireTime) {
+        this.displayName = displayName;
+        this.chatPrefix = chatPrefix;
+        this.primaryGroup = primaryGroup;
+        this.permissionsAvailable = permissionsAvailable;
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+        this.expireTime = expireTime;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getChatPrefix() {
+        return chatPrefix;
+    }
+
+    /**
+     * @return the primary group or null if permissions are not available
+     */
+    @Nullable
+    public String getPrimaryGroup() {
+        return primaryGroup;
+    }
+
+    /**
+     * @return true if permissions were available when this identity was built
+     */
+    public boolean isPermissionsAvailable() {
+        return permissionsAvailable;
+    }
+
+    /**
+     * @param key key of the value
+     * @return a value added by a {@link ChatIdentityProvider} or null if it doesn't exist
+     */
+    @Nullable
+    public Object getValue(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @return all values added by {@link ChatIdentityProvider}s
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expireTime;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.api.user;
+
+import de.static_interface.sinklibrary.user.IngameUser;
+
+import java.util.Map;
+
+/**
+ * Adds plugin specific values (e.g. Towny tags) to a {@link ChatIdentity}
+ */
+public interface ChatIdentityProvider {
+
+    /**
+     * Called whenever the chat identity of a user gets rebuilt
+     *
+     * @param user the user
+     * @param values the values of the new identity
+     */
+    void addValues(IngameUser user, Map<String, Object> values);
+}
@@ -57,11 +57,12 @@ public abstract class SinkUserProvider<K, E extends SinkUser<K>> {
     }
 
     public E getUserInstance(K base) {
-        if (instances.get(base) == null) {
+        E user = instances.get(base);
+        if (user == null) {
             loadUser(base);
+            user = instances.get(base);
         }
-
-        return instances.get(base);
+        return user;
     }
 
     @Nullable
@@ -77,11 +78,17 @@ public abstract class SinkUserProvider<K, E extends SinkUser<K>> {
      * @return True if successfully created a new instance, false if already loaded
      */
     public boolean loadUser(K base) {
-        if (instances.get(base) != null) {
+        if (instances.containsKey(base)) {
             return false;
         }
-        instances.put(base, newInstance(base));
-        return true;
+
+        // Only one instance is created even if multiple threads load the user at the same time
+        boolean[] created = {false};
+        instances.computeIfAbsent(base, k -> {
+            created[0] = true;
+            return newInstance(k);
+        });
+        return created[0];
     }
 
     public E newInstance(K base) {
@@ -94,29 +101,20 @@ public abstract class SinkUserProvider<K, E extends SinkUser<K>> {
     }
 
     public boolean unloadUser(E user) {
-        for (K base : instances.keySet()) {
-            E value = instances.get(base);
-
-            if (value == user) {
-                if (user instanceof IdentifiableUser && ((IdentifiableUser) user).getConfiguration() != null) {
-                    ((IdentifiableUser) user).getConfiguration().save();
-                }
-                instances.remove(base);
-                return true;
-            }
+        // Users know their base, so it can be used as reverse index for the instance
+        K base = user.getBase();
+        if (base == null || instances.get(base) != user) {
+            return false;
         }
-        return false;
-    }
 
-    public boolean unloadUser(K base) {
-        for (K k : instances.keySet()) {
-            if (k == base) {
-                instances.remove(base);
-                return true;
-            }
+        if (user instanceof IdentifiableUser && ((IdentifiableUser) user).getConfiguration() != null) {
+            ((IdentifiableUser) user).getConfiguration().save();
         }
+        return instances.remove(base, user);
+    }
 
-        return false;
+    public boolean unloadUser(K base) {
+        return instances.remove(base) != null;
     }
 
     public abstract String getTabCompleterSuffix();
@@ -26,9 +26,12 @@ import de.static_interface.sinklibrary.api.command.annotation.Aliases;
 import de.static_interface.sinklibrary.api.command.annotation.DefaultPermission;
 import de.static_interface.sinklibrary.api.command.annotation.Description;
 import de.static_interface.sinklibrary.api.command.annotation.Usage;
+import de.static_interface.sinklibrary.api.configuration.ConfigurationFlusher;
 import de.static_interface.sinklibrary.api.stream.MessageStream;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.configuration.IngameUserConfiguration;
+import de.static_interface.sinklibrary.profiler.Timing;
+import de.static_interface.sinklibrary.profiler.Timings;
 import de.static_interface.sinklibrary.user.IngameUser;
 import de.static_interface.sinklibrary.util.MathUtil;
 import org.apache.commons.cli.ParseException;
@@ -37,6 +40,9 @@ import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.Plugin;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
 @Description("Debug SinkLibrary")
 @DefaultPermission
 @Usage("<option> <args>")
@@ -140,6 +146,53 @@ public class SinkDebugCommand extends SinkCommand {
                     break;
                 }
 
+                case "configwrites": {
+                    sender.sendMessage(PREFIX + "Physical writes: " + ConfigurationFlusher.getPhysicalWrites()
+                                       + ", coalesced writes: " + ConfigurationFlusher.getCoalescedWrites()
+                                       + ", pending: " + ConfigurationFlusher.getPendingWrites()
+                                       + ", write-behind: " + ConfigurationFlusher.isEnabled());
+                    break;
+                }
+
+                case "stats": {
+                    if (SinkLibrary.getInstance().getDebugStats().isEmpty()) {
+                        sender.sendMessage(PREFIX + "No statistics have been registered");
+                        break;
+                    }
+                    for (Map.Entry<String, Supplier<String>> stats : SinkLibrary.getInstance().getDebugStats().entrySet()) {
+                        sender.sendMessage(PREFIX + ChatColor.GOLD + stats.getKey() + ": " + ChatColor.RESET + stats.getValue().get());
+                    }
+                    break;
+                }
+
+                case "timings": {
+                    if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+                        Timings.reset();
+                        sender.sendMessage(PREFIX + "Timings have been reset");
+                        break;
+                    }
+                    if (args.length > 1 && args[1].equalsIgnoreCase("dump")) {
+                        Timings.dump();
+                        sender.sendMessage(PREFIX + "Timings have been written to timings.txt");
+                        break;
+                    }
+
+                    int limit = args.length > 1 && MathUtil.isNumber(args[1]) ? Integer.parseInt(args[1]) : 10;
+                    sender.sendMessage(PREFIX + "Timings (enabled: " + Timings.isEnabled() + "), sorted by total time:");
+                    int i = 0;
+                    for (Timing timing : Timings.getTimings()) {
+                        if (i >= limit) {
+                            break;
+                        }
+                        if (timing.getCount() == 0) {
+                            continue;
+                        }
+                        sender.sendMessage(ChatColor.GRAY + timing.toString());
+                        i++;
+                    }
+                    break;
+                }
+
                 case "testop": {
                     boolean isOp = sender.isOp();
                     if (isOp) {
@@ -163,7 +216,7 @@ public class SinkDebugCommand extends SinkCommand {
                 }
 
                 default: {
-                    sender.sendMessage(PREFIX + "Available options: getplayervalue, setplayervalue, isop, testop, whoami");
+                    sender.sendMessage(PREFIX + "Available options: getplayervalue, setplayervalue, isop, testop, configwrites, stats, timings, whoami");
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.configuration;
+
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.configuration.Configuration;
+import de.static_interface.sinklibrary.util.Debug;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the ban data of all players in a single file. All entries are kept in memory, so ban checks don't have
+ * to load the configuration of the player. Each change of a ban is written to the file at once.
+ */
+public class BanStore extends Configuration {
+
+    public static final String BANS_PATH = "Bans";
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final TreeSet<Expiry> expiries = new TreeSet<>();
+    private final Map<UUID, Expiry> scheduledExpiries = new HashMap<>();
+
+    public BanStore() {
+        super(new File(SinkLibrary.getInstance().getCustomDataFolder(), "Bans.yml"), false);
+        init();
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        synchronized (this) {
+            entries.clear();
+            expiries.clear();
+            scheduledExpiries.clear();
+            ConfigurationSection section = getYamlConfiguration().getConfigurationSection(BANS_PATH);
+            if (section == null) {
+                return;
+            }
+            for (String key : section.getKeys(false)) {
+                try {
+                    Entry entry = Entry.deserialize(section.getConfigurationSection(key));
+                    UUID uuid = UUID.fromString(key);
+                    entries.put(uuid, entry);
+                    scheduleExpiry(uuid, entry);
+                } catch (Exception e) {
+                    Debug.log(Level.WARNING, "Invalid ban entry: " + key, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addDefaults() {
+        yamlConfiguration.options().header("This file saves the bans of players.\n You shouldn't edit it.");
+    }
+
+    @Override
+    public void onCreate() {
+        // Import the bans which have been saved in the player configurations before
+        File[] files = new File(SinkLibrary.getInstance().getCustomDataFolder(), "players").listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            String name = file.getName();
+            if (!name.endsWith(".yml")) {
+                continue;
+            }
+            try {
+                UUID uuid = UUID.fromString(name.substring(0, name.length() - ".yml".length()));
+                ConfigurationSection banData = YamlConfiguration.loadConfiguration(file).getConfigurationSection("BanData");
+                if (banData == null) {
+                    continue;
+                }
+                Entry entry = Entry.deserialize(banData);
+                if (entry.isBanned() || entry.getUnbanTime() > 0) {
+                    getYamlConfiguration().set(BANS_PATH + "." + uuid, entry.serialize());
+                }
+            } catch (Exception e) {
+                Debug.log(Level.WARNING, "Couldn't import ban data from: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * @param uuid UUID of the player
+     * @return ban data of the player or null if the player has never been banned
+     */
+    @Nullable
+    public Entry get(UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    /**
+     * @param uuid UUID of the player
+     * @param now current time in milliseconds
+     * @return True if the player is banned and the ban didn't time out yet
+     */
+    public boolean isBanned(UUID uuid, long now) {
+        Entry entry = entries.get(uuid);
+        return entry != null && entry.isActive(now);
+    }
+
+    /**
+     * @param now current time in milliseconds
+     * @return UUIDs of all players who are banned
+     */
+    public List<UUID> getBannedUniqueIds(long now) {
+        List<UUID> banned = new ArrayList<>();
+        for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().isActive(now)) {
+                banned.add(entry.getKey());
+            }
+        }
+        return banned;
+    }
+
+    /**
+     * Change the ban data of a player. The changes are applied to a copy of the current data,
+     * which replaces it and is written to the file afterwards.
+     *
+     * @param uuid UUID of the player
+     * @param changes changes to apply
+     */
+    public synchronized void update(UUID uuid, Consumer<Entry> changes) {
+        Entry old = entries.get(uuid);
+        Entry entry = old == null ? new Entry() : new Entry(old);
+        changes.accept(entry);
+        entries.put(uuid, entry);
+        scheduleExpiry(uuid, entry);
+        set(BANS_PATH + "." + uuid, entry.serialize());
+    }
+
+    /**
+     * Lift the bans which timed out
+     *
+     * @param now current time in milliseconds
+     * @return UUIDs of the players whose ban has been lifted
+     */
+    public synchronized List<UUID> unbanExpired(long now) {
+        List<UUID> expired = new ArrayList<>();
+        while (!expiries.isEmpty() && expiries.first().time <= now) {
+            Expiry expiry = expiries.pollFirst();
+            scheduledExpiries.remove(expiry.uuid, expiry);
+            Entry entry = entries.get(expiry.uuid);
+            // Only lift the ban the expiry has been scheduled for
+            if (entry == null || !entry.isBanned() || entry.getTimeOut() != expiry.time) {
+                continue;
+            }
+            update(expiry.uuid, e -> {
+                e.setBanned(false);
+                e.setUnbanTime(now);
+                e.setUnbanner(null, null);
+            });
+            expired.add(expiry.uuid);
+        }
+        return expired;
+    }
+
+    private void scheduleExpiry(UUID uuid, Entry entry) {
+        Expiry old = scheduledExpiries.remove(uuid);
+        if (old != null) {
+            expiries.remove(old);
+        }
+        if (entry.isBanned() && entry.getTimeOut() > 0) {
+            Expiry expiry = new Expiry(uuid, entry.getTimeOut());
+            expiries.add(expiry);
+            scheduledExpiries.put(uuid, expiry);
+        }
+    }
+
+    private static class Expiry implements Comparable<Expiry> {
+
+        private final UUID uuid;
+        private final long time;
+
+        private Expiry(UUID uuid, long time) {
+            this.uuid = uuid;
+            this.time = time;
+        }
+
+        @Override
+        public int compareTo(Expiry o) {
+            int result = Long.compare(time, o.time);
+            if (result != 0) {
+                return result;
+            }
+            return uuid.compareTo(o.uuid);
+        }
+    }
+
+    /**
+     * Ban data of a player. Entries returned by the store must not be changed, use {@link BanStore#update(UUID, Consumer)} instead.
+     */
+    public static class Entry {
+
+        private boolean banned;
+        private long banTime;
+        private long timeOut;
+        private long unbanTime;
+        private String reason;
+        private UUID bannerUniqueId;
+        private String bannerDisplayName;
+        private UUID unbannerUniqueId;
+        private String unbannerDisplayName;
+
+        Entry() {
+        }
+
+        Entry(Entry entry) {
+            banned = entry.banned;
+            banTime = entry.banTime;
+            timeOut = entry.timeOut;
+            unbanTime = entry.unbanTime;
+            reason = entry.reason;
+            bannerUniqueId = entry.bannerUniqueId;
+            bannerDisplayName = entry.bannerDisplayName;
+            unbannerUniqueId = entry.unbannerUniqueId;
+            unbannerDisplayName = entry.unbannerDisplayName;
+        }
+
+        public boolean isActive(long now) {
+            return banned && (timeOut <= 0 || timeOut > now);
+        }
+
+        public boolean isBanned() {
+            return banned;
+        }
+
+        public void setBanned(boolean banned) {
+            this.banned = banned;
+        }
+
+        public long getBanTime() {
+            return banTime;
+        }
+
+        public void setBanTime(long banTime) {
+            this.banTime = banTime;
+        }
+
+        public long getTimeOut() {
+            return timeOut;
+        }
+
+        public void setTimeOut(@Nullable Long timeOut) {
+            this.timeOut = timeOut == null ? 0 : timeOut;
+        }
+
+        public long getUnbanTime() {
+            return unbanTime;
+        }
+
+        public void setUnbanTime(@Nullable Long unbanTime) {
+            this.unbanTime = unbanTime == null ? 0 : unbanTime;
+        }
+
+        @Nullable
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(@Nullable String reason) {
+            this.reason = reason;
+        }
+
+        @Nullable
+        public UUID getBannerUniqueId() {
+            return bannerUniqueId;
+        }
+
+        @Nullable
+        public String getBannerDisplayName() {
+            return bannerDisplayName;
+        }
+
+        public void setBanner(@Nullable UUID uniqueId, @Nullable String displayName) {
+            bannerUniqueId = uniqueId;
+            bannerDisplayName = displayName;
+        }
+
+        @Nullable
+        public UUID getUnbannerUniqueId() {
+            return unbannerUniqueId;
+        }
+
+        @Nullable
+        public String getUnbannerDisplayName() {
+            return unbannerDisplayName;
+        }
+
+        public void setUnbanner(@Nullable UUID uniqueId, @Nullable String displayName) {
+            unbannerUniqueId = uniqueId;
+            unbannerDisplayName = displayName;
+        }
+
+        Map<String, Object> serialize() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("IsBanned", banned);
+            values.put("BanTime", banTime);
+            values.put("Timeout", timeOut);
+            values.put("UnbanTime", unbanTime);
+            if (reason != null) {
+                values.put("Reason", reason);
+            }
+            if (bannerUniqueId != null) {
+                values.put("BannerUUID", bannerUniqueId.toString());
+            }
+            if (bannerDisplayName != null) {
+                values.put("BannerDisplayName", bannerDisplayName);
+            }
+            if (unbannerUniqueId != null) {
+                values.put("UnbannerUUID", unbannerUniqueId.toString());
+            }
+            if (unbannerDisplayName != null) {
+                values.put("UnbannerDisplayName", unbannerDisplayName);
+            }
+            return values;
+        }
+
+        static Entry deserialize(ConfigurationSection section) {
+            Entry entry = new Entry();
+            entry.banned = section.getBoolean("IsBanned");
+            entry.banTime = section.getLong("BanTime");
+            entry.timeOut = section.getLong("Timeout");
+            entry.unbanTime = section.getLong("UnbanTime");
+            entry.reason = section.getString("Reason");
+            entry.bannerDisplayName = section.getString("BannerDisplayName");
+            entry.unbannerDisplayName = section.getString("UnbannerDisplayName");
+            String banner = section.getString("BannerUUID");
+            entry.bannerUniqueId = banner == null ? null : UUID.fromString(banner);
+            String unbanner = section.getString("UnbannerUUID");
+            entry.unbannerUniqueId = unbanner == null ? null : UUID.fromString(unbanner);
+            return entry;
+        }
+    }
+}
@@ -20,8 +20,11 @@ package de.static_interface.sinklibrary.configuration;
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.configuration.Configuration;
 import de.static_interface.sinklibrary.api.configuration.option.YamlBooleanOption;
+import de.static_interface.sinklibrary.api.configuration.option.YamlIntegerOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlOption;
 import de.static_interface.sinklibrary.api.configuration.option.YamlParentOption;
+import de.static_interface.sinklibrary.profiler.Timings;
+import de.static_interface.sinklibrary.util.Debug;
 
 import java.io.File;
 
@@ -35,11 +38,56 @@ public class GeneralSettings extends Configuration {
     public final static YamlOption<Boolean>
             GENERAL_LOG =
             new YamlBooleanOption(GENERAL_PARENT, "EnableLog", false, "Log debug to Debug.log (useful for debugging)");
+    public final static YamlOption<Integer>
+            GENERAL_LOG_MAX_SIZE =
+            new YamlIntegerOption(GENERAL_PARENT, "DebugLogMaxSize", 10, "Size in MB after which Debug.log gets rotated, 0 to disable rotation");
+    public final static YamlOption<Boolean>
+            GENERAL_CONFIG_WRITE_BEHIND =
+            new YamlBooleanOption(GENERAL_PARENT, "ConfigWriteBehind", true,
+                                  "Collect changes to configuration files and write them periodically instead of on every change");
+    public final static YamlOption<Integer>
+            GENERAL_CONFIG_FLUSH_INTERVAL =
+            new YamlIntegerOption(GENERAL_PARENT, "ConfigFlushInterval", 100, "Interval in ticks for writing changed configuration files");
+    public final static YamlOption<Integer>
+            GENERAL_CHAT_IDENTITY_TTL =
+            new YamlIntegerOption(GENERAL_PARENT, "ChatIdentityTTL", 60,
+                                  "Time in seconds after which prefixes and groups of players are fetched again");
+    public final static YamlOption<Integer>
+            GENERAL_OFFLINE_USER_CACHE_SIZE =
+            new YamlIntegerOption(GENERAL_PARENT, "OfflineUserCacheSize", 256, "Maximum amount of offline players kept in memory");
+    public final static YamlOption<Integer>
+            GENERAL_OFFLINE_USER_CACHE_TTL =
+            new YamlIntegerOption(GENERAL_PARENT, "OfflineUserCacheTTL", 300,
+                                  "Time in seconds after which the data of offline players is read from disk again");
+    public final static YamlOption<Integer>
+            GENERAL_TICK_SPIKE_THRESHOLD =
+            new YamlIntegerOption(GENERAL_PARENT, "TickSpikeThreshold", 150, "Duration in milliseconds from which on a tick is considered a lag spike");
+    public final static YamlOption<Integer>
+            GENERAL_TICK_SPIKE_SAMPLE_INTERVAL =
+            new YamlIntegerOption(GENERAL_PARENT, "TickSpikeSampleInterval", 10,
+                                  "Interval in milliseconds for sampling the main thread during lag spikes, 0 to disable sampling");
+    public final static YamlOption<Boolean>
+            GENERAL_TIMINGS =
+            new YamlBooleanOption(GENERAL_PARENT, "EnableTimings", true, "Record invocation count and duration of event handlers and commands");
+    public final static YamlOption<Integer>
+            GENERAL_TIMINGS_DUMP_INTERVAL =
+            new YamlIntegerOption(GENERAL_PARENT, "TimingsDumpInterval", 0, "Interval in ticks for writing the timings to timings.txt, 0 to disable");
 
     public GeneralSettings() {
         super(new File(SinkLibrary.getInstance().getCustomDataFolder(), "Settings.yml"), true);
     }
 
+    @Override
+    public void init() {
+        super.init();
+        Debug.reload();
+        Timings.reload();
+        if (SinkLibrary.getInstance() != null) {
+            SinkLibrary.getInstance().getTickProfiler().configure(GENERAL_TICK_SPIKE_THRESHOLD.getValue(),
+                                                                  GENERAL_TICK_SPIKE_SAMPLE_INTERVAL.getValue());
+        }
+    }
+
     @Override
     public void addDefaults() {
         // do nothing
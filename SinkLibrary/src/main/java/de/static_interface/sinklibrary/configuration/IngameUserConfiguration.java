@@ -130,6 +130,7 @@ public class IngameUserConfiguration extends Configuration {
     public void setDisplayName(String displayName) {
         displayName = ChatColor.translateAlternateColorCodes('&', displayName);
         set("Nick.DisplayName", displayName);
+        user.invalidateChatIdentity();
         if (ChatColor.stripColor(displayName).equals(ChatColor.stripColor(user.getDefaultDisplayName()))) {
             setHasDisplayName(false);
         }
@@ -148,56 +149,73 @@ public class IngameUserConfiguration extends Configuration {
      */
     public void setHasDisplayName(boolean value) {
         set("Nick.HasDisplayName", value);
+        user.invalidateChatIdentity();
     }
 
+    /**
+     * @deprecated bans are stored in the {@link BanStore}, use the {@link de.static_interface.sinklibrary.api.provider.BanProvider} instead
+     */
+    @Deprecated
     public boolean isBanned() {
         return (boolean) get("BanData.IsBanned");
     }
 
+    @Deprecated
     public void setBanned(boolean b) {
         set("BanData.IsBanned", b);
     }
 
+    @Deprecated
     public String getBanReason() {
         return (String) get("BanData.Reason");
     }
 
+    @Deprecated
     public void setBanReason(String reason) {
         set("BanData.Reason", reason);
     }
 
+    @Deprecated
     public long getBanTime() {
         return Long.parseLong(String.valueOf(get("BanData.BanTime")));
     }
 
+    @Deprecated
     public void setBanTime(long bantime) {
         set("BanData.BanTime", bantime);
     }
 
+    @Deprecated
     public long getUnbanTime() {
         return Long.parseLong(String.valueOf(get("BanData.UnbanTime")));
     }
 
+    @Deprecated
     public void setUnbanTime(long bantime) {
         set("BanData.UnbanTime", bantime);
     }
 
+    @Deprecated
     public long getBanTimeOut() {
         return Long.parseLong(String.valueOf(get("BanData.Timeout")));
     }
 
+    @Deprecated
     public void setBanTimeOut(long unbantime) {
         set("BanData.Timeout", unbantime);
     }
 
+    @Deprecated
     public String getBannerDisplayName() {
         return (String) get("BanData.BannerDisplayName");
     }
 
+    @Deprecated
     public void setBannerDisplayName(String s) {
         set("BanData.BannerDisplayName", s);
     }
 
+    @Deprecated
     public UUID getBannerUniqueId() {
         String s = (String) get("BanData.BannerUUID");
         if (s == null) {
@@ -206,18 +224,22 @@ public class IngameUserConfiguration extends Configuration {
         return UUID.fromString(s);
     }
 
+    @Deprecated
     public void setBannerUniqueId(UUID id) {
         set("BanData.BannerUUID", id.toString());
     }
 
+    @Deprecated
     public String getUnbannerDisplayName() {
         return (String) get("BanData.UnbannerDisplayName");
     }
 
+    @Deprecated
     public void setUnbannerDisplayName(String s) {
         set("BanData.UnbannerDisplayName", s);
     }
 
+    @Deprecated
     public UUID getUnbannerUniqueId() {
         String s = (String) get("BanData.UnbannerUUID");
         if (s == null) {
@@ -226,6 +248,7 @@ public class IngameUserConfiguration extends Configuration {
         return UUID.fromString(s);
     }
 
+    @Deprecated
     public void setUnbannerUniqueId(UUID id) {
         set("BanData.UnbannerUUID", id.toString());
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.configuration;
+
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.configuration.Configuration;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Persistent cache of the UUIDs of all players who have joined the server, so names of offline players
+ * can be resolved without {@link Bukkit#getOfflinePlayer(String)}, which may block on a profile lookup
+ */
+public class UniqueIdCache extends Configuration {
+
+    public static final String NAMES_PATH = "Names";
+
+    private final Map<String, UUID> uniqueIds = new ConcurrentHashMap<>();
+
+    public UniqueIdCache() {
+        super(new File(SinkLibrary.getInstance().getCustomDataFolder(), "UniqueIds.yml"), false);
+        init();
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        uniqueIds.clear();
+        ConfigurationSection section = getYamlConfiguration().getConfigurationSection(NAMES_PATH);
+        if (section == null) {
+            return;
+        }
+        for (String name : section.getKeys(false)) {
+            try {
+                uniqueIds.put(name.toLowerCase(Locale.ROOT), UUID.fromString(section.getString(name)));
+            } catch (IllegalArgumentException ignored) {
+                // invalid entry, will be overwritten when the player joins again
+            }
+        }
+    }
+
+    @Override
+    public void addDefaults() {
+        yamlConfiguration.options().header("Cache of the UUIDs of players who joined the server.\n You shouldn't edit it.");
+    }
+
+    @Override
+    public void onCreate() {
+        // Add the players who joined before the cache existed
+        for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+            if (player.getName() != null) {
+                getYamlConfiguration().set(NAMES_PATH + "." + player.getName().toLowerCase(Locale.ROOT), player.getUniqueId().toString());
+            }
+        }
+    }
+
+    /**
+     * @param name name of the player, ignoring case
+     * @return last known UUID of the player with the given name or null if no player with that name joined the server
+     */
+    @Nullable
+    public UUID getUniqueId(String name) {
+        return uniqueIds.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Remember the UUID of a player, called when the player joins
+     *
+     * @param name name of the player
+     * @param uuid UUID of the player
+     */
+    public void put(String name, UUID uuid) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (uuid.equals(uniqueIds.put(key, uuid))) {
+            return;
+        }
+        set(NAMES_PATH + "." + key, uuid.toString());
+    }
+}
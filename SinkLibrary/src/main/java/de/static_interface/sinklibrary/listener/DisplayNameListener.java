@@ -27,6 +27,7 @@ public class DisplayNameListener implements Listener {
 
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(PlayerJoinEvent event) {
+        SinkLibrary.getInstance().getIngameUser(event.getPlayer()).invalidateChatIdentity();
         SinkLibrary.getInstance().onRefreshDisplayName(event.getPlayer());
     }
 
@@ -53,12 +53,6 @@ public class IngameUserListener implements Listener {
 
         String timeLeft = "";
 
-        if (user.getBanTimeOut() != null && user.getBanTimeOut() < System.currentTimeMillis()) {
-            Debug.log("Bantimeout occurred. Unbanning player.");
-            user.unban();
-            return;
-        }
-
         Debug.log("User is banned, calculating time left...");
 
         if (user.getBanTimeOut() != null && user.getBanTimeOut() > 0) {
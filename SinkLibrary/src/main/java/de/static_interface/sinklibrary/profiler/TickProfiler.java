@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.profiler;
+
+import static de.static_interface.sinklibrary.Constants.TICK;
+
+import de.static_interface.sinklibrary.util.Debug;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the duration of every server tick. Durations are kept in a ring buffer covering the last 15 minutes,
+ * from which TPS and percentiles of the tick interval are calculated.
+ * Ticks which take longer than the spike threshold are sampled: a background thread records stack traces
+ * of the main thread while the tick is running.
+ * <p>
+ * As Bukkit doesn't offer a hook for the end of a tick, the duration of a tick is the time between two tick starts;
+ * it is never shorter than 50 ms.
+ */
+public class TickProfiler implements Runnable {
+
+    public static final int HISTORY_SECONDS = 15 * 60;
+    public static final int MAX_SPIKES = 20;
+    private static final int HISTORY_SIZE = HISTORY_SECONDS * (int) TICK;
+
+    // Tick durations in nanoseconds, only written by the main thread
+    private final long[] durations = new long[HISTORY_SIZE];
+    private volatile long ticks = 0;
+    private volatile long tickStart = 0;
+    private final LatencyHistogram totalHistogram = new LatencyHistogram();
+
+    private final Object spikeLock = new Object();
+    private final Deque<TickSpike> spikes = new ArrayDeque<>();
+    private long sampledTickStart = 0;
+    private List<StackTraceElement[]> samples = new ArrayList<>();
+
+    private BukkitTask task;
+    private Thread samplerThread;
+    private Thread mainThread;
+    private volatile long spikeThreshold;
+    private volatile long sampleInterval;
+
+    /**
+     * Start profiling, must be called from the main thread
+     *
+     * @param plugin Plugin which owns the task
+     * @param spikeThreshold Duration in milliseconds from which on a tick is considered a spike
+     * @param sampleInterval Interval in milliseconds for sampling the main thread during spikes, 0 to disable sampling
+     */
+    public synchronized void start(Plugin plugin, long spikeThreshold, long sampleInterval) {
+        stop();
+        mainThread = Thread.currentThread();
+        tickStart = 0;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+        configure(spikeThreshold, sampleInterval);
+    }
+
+    /**
+     * Change the spike settings, e.g. because the settings have been reloaded. Takes effect immediately if
+     * the profiler is running.
+     *
+     * @param spikeThreshold Duration in milliseconds from which on a tick is considered a spike
+     * @param sampleInterval Interval in milliseconds for sampling the main thread during spikes, 0 to disable sampling
+     */
+    public synchronized void configure(long spikeThreshold, long sampleInterval) {
+        this.spikeThreshold = TimeUnit.MILLISECONDS.toNanos(Math.max(1, spikeThreshold));
+        this.sampleInterval = sampleInterval;
+        if (task == null) {
+            return;
+        }
+
+        if (sampleInterval > 0 && samplerThread == null) {
+            samplerThread = new Thread(this::sample, "SinkLibrary-Tick Sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+        } else if (sampleInterval <= 0 && samplerThread != null) {
+            samplerThread.interrupt();
+            samplerThread = null;
+        }
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (samplerThread != null) {
+            samplerThread.interrupt();
+            samplerThread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long start = tickStart;
+        tickStart = now;
+        if (start == 0) {
+            return;
+        }
+
+        long duration = now - start;
+        long tick = ticks;
+        durations[(int) (tick % HISTORY_SIZE)] = duration;
+        ticks = tick + 1;
+        totalHistogram.record(TimeUnit.NANOSECONDS.toMicros(duration));
+
+        if (duration >= spikeThreshold) {
+            onSpike(start, duration);
+        }
+    }
+
+    private void onSpike(long start, long duration) {
+        TickSpike spike;
+        synchronized (spikeLock) {
+            List<StackTraceElement[]> spikeSamples = sampledTickStart == start ? samples : new ArrayList<>();
+            samples = new ArrayList<>();
+            sampledTickStart = 0;
+
+            spike = new TickSpike(System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(duration), spikeSamples);
+            spikes.addLast(spike);
+            if (spikes.size() > MAX_SPIKES) {
+                spikes.removeFirst();
+            }
+        }
+
+        Debug.log(() -> "Tick took " + spike.getDuration() + " ms (" + spike.getSamples().size() + " samples): " + spike.getHotFrames(3));
+    }
+
+    private void sample() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(sampleInterval);
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            long start = tickStart;
+            if (start == 0 || System.nanoTime() - start < spikeThreshold) {
+                continue;
+            }
+
+            StackTraceElement[] sample = mainThread.getStackTrace();
+            synchronized (spikeLock) {
+                if (start != tickStart) {
+                    // The tick ended while the stack trace was taken
+                    continue;
+                }
+                if (sampledTickStart != start) {
+                    sampledTickStart = start;
+                    samples = new ArrayList<>();
+                }
+                if (samples.size() < TickSpike.MAX_SAMPLES) {
+                    samples.add(sample);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param seconds the time frame, at most {@link #HISTORY_SECONDS}
+     * @return the average ticks per second over the given time frame
+     */
+    public double getTps(int seconds) {
+        long window = TimeUnit.SECONDS.toNanos(seconds);
+        long tick = ticks;
+        int available = (int) Math.min(tick, HISTORY_SIZE);
+        long total = 0;
+        int count = 0;
+        while (count < available && total < window) {
+            total += durations[(int) ((tick - 1 - count) % HISTORY_SIZE)];
+            count++;
+        }
+
+        if (count == 0) {
+            return TICK;
+        }
+        return Math.min(TICK, count * (double) TimeUnit.SECONDS.toNanos(1) / total);
+    }
+
+    /**
+     * @return the average ticks per second of the last minute
+     */
+    public double getAverageTPS() {
+        return getTps(60);
+    }
+
+    /**
+     * @param seconds the time frame, at most {@link #HISTORY_SECONDS}
+     * @return histogram of the tick intervals in microseconds over the given time frame
+     */
+    public LatencyHistogram getHistogram(int seconds) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long window = TimeUnit.SECONDS.toNanos(seconds);
+        long tick = ticks;
+        int available = (int) Math.min(tick, HISTORY_SIZE);
+        long total = 0;
+        for (int i = 0; i < available && total < window; i++) {
+            long duration = durations[(int) ((tick - 1 - i) % HISTORY_SIZE)];
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(duration));
+            total += duration;
+        }
+        return histogram;
+    }
+
+    /**
+     * @return histogram of all tick intervals in microseconds since the server has been started
+     */
+    public LatencyHistogram getTotalHistogram() {
+        return totalHistogram;
+    }
+
+    /**
+     * @return the last spikes, oldest first
+     */
+    public List<TickSpike> getSpikes() {
+        synchronized (spikeLock) {
+            return new ArrayList<>(spikes);
+        }
+    }
+}
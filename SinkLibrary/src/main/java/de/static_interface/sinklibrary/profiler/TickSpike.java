@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tick which took longer than the spike threshold, together with the stack traces of the main thread sampled during the tick
+ */
+public class TickSpike {
+
+    public static final int MAX_SAMPLES = 100;
+    private static final String[] SERVER_PACKAGES = {"java.", "javax.", "sun.", "jdk.", "net.minecraft.", "org.bukkit.", "org.spigotmc.",
+                                                     "com.mojang.", "io.netty."};
+
+    private final long time;
+    private final long duration;
+    private final List<StackTraceElement[]> samples;
+
+    TickSpike(long time, long duration, List<StackTraceElement[]> samples) {
+        this.time = time;
+        this.duration = duration;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * @return the time the spike ended at, as returned by {@link System#currentTimeMillis()}
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return duration of the tick in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return stack traces of the main thread sampled during the tick
+     */
+    public List<StackTraceElement[]> getSamples() {
+        return samples;
+    }
+
+    /**
+     * Count the topmost frame of each sample, skipping frames of the JDK and the server itself,
+     * so the frames point to the plugin code which has been running
+     *
+     * @param limit maximum amount of frames
+     * @return the frames which occurred in most samples with their share of all samples, most frequent first
+     */
+    public List<String> getHotFrames(int limit) {
+        final Map<String, Integer> frameCounts = new HashMap<>();
+        for (StackTraceElement[] sample : samples) {
+            if (sample.length == 0) {
+                continue;
+            }
+            StackTraceElement frame = sample[0];
+            for (StackTraceElement element : sample) {
+                if (!isServerFrame(element.getClassName())) {
+                    frame = element;
+                    break;
+                }
+            }
+            String key = frame.getClassName() + '#' + frame.getMethodName();
+            Integer count = frameCounts.get(key);
+            frameCounts.put(key, count == null ? 1 : count + 1);
+        }
+
+        List<String> frames = new ArrayList<>(frameCounts.keySet());
+        Collections.sort(frames, (f1, f2) -> Integer.compare(frameCounts.get(f2), frameCounts.get(f1)));
+
+        List<String> result = new ArrayList<>();
+        for (String frame : frames) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(frame + " (" + frameCounts.get(frame) * 100 / samples.size() + "%)");
+        }
+        return result;
+    }
+
+    private static boolean isServerFrame(String className) {
+        for (String prefix : SERVER_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.profiler;
+
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation count and latency of a single event handler or command.
+ * The counters are striped, so recording from the main thread and async threads at the same time doesn't contend.
+ */
+public class Timing {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder asyncCount = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator maxTime = new LongAccumulator(Long::max, 0);
+    private volatile String lastAsyncThread;
+
+    Timing(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record an invocation
+     *
+     * @param nanos duration of the invocation in nanoseconds
+     */
+    public void record(long nanos) {
+        count.increment();
+        totalTime.add(nanos);
+        maxTime.accumulate(nanos);
+        if (!Bukkit.isPrimaryThread()) {
+            asyncCount.increment();
+            String thread = Thread.currentThread().getName();
+            if (!thread.equals(lastAsyncThread)) {
+                lastAsyncThread = thread;
+            }
+        }
+    }
+
+    /**
+     * Reset all counters
+     */
+    public void reset() {
+        count.reset();
+        asyncCount.reset();
+        totalTime.reset();
+        maxTime.reset();
+        lastAsyncThread = null;
+    }
+
+    /**
+     * @return name of the handler or command
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return amount of invocations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return amount of invocations which didn't run on the main thread
+     */
+    public long getAsyncCount() {
+        return asyncCount.sum();
+    }
+
+    /**
+     * @return name of the last thread other than the main thread this has been invoked from, null if it only ran on the main thread
+     */
+    public String getLastAsyncThread() {
+        return lastAsyncThread;
+    }
+
+    /**
+     * @return total time spent in all invocations in nanoseconds
+     */
+    public long getTotalTime() {
+        return totalTime.sum();
+    }
+
+    /**
+     * @return average time of an invocation in nanoseconds
+     */
+    public long getAverageTime() {
+        long count = getCount();
+        return count == 0 ? 0 : getTotalTime() / count;
+    }
+
+    /**
+     * @return longest invocation in nanoseconds
+     */
+    public long getMaxTime() {
+        return maxTime.get();
+    }
+
+    @Override
+    public String toString() {
+        long count = getCount();
+        long async = getAsyncCount();
+        String thread;
+        if (async == 0) {
+            thread = "main";
+        } else if (async == count) {
+            thread = lastAsyncThread;
+        } else {
+            thread = "main, " + lastAsyncThread;
+        }
+
+        return name + ": count=" + count
+               + ", total=" + formatMillis(getTotalTime()) + " ms"
+               + ", avg=" + formatMillis(getAverageTime()) + " ms"
+               + ", max=" + formatMillis(getMaxTime()) + " ms"
+               + ", thread=" + thread;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.profiler;
+
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.configuration.GeneralSettings;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Records how often and how long event handlers and commands of the Sink plugins run.
+ * Listeners registered via {@link #registerEvents(Listener, Plugin)} and all {@link de.static_interface.sinklibrary.api.command.SinkCommandBase}
+ * commands are timed. While started, a report is periodically written to timings.txt.
+ */
+public class Timings implements Runnable {
+
+    private static final Map<String, Timing> timings = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = true;
+
+    private BukkitTask task;
+
+    /**
+     * @return True if timings are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Read the timings settings again, called whenever the settings have been (re)loaded
+     */
+    public static void reload() {
+        GeneralSettings settings = SinkLibrary.getInstance() == null ? null : SinkLibrary.getInstance().getSettings();
+        enabled = settings == null || settings.getYamlConfiguration() == null || GeneralSettings.GENERAL_TIMINGS.getValue();
+    }
+
+    /**
+     * Get the timing with the given name, it will be created if it doesn't exist yet
+     *
+     * @param name Name of the timing
+     * @return the timing
+     */
+    public static Timing getTiming(String name) {
+        return timings.computeIfAbsent(name, Timing::new);
+    }
+
+    /**
+     * @return all timings, sorted by their total time, highest first
+     */
+    public static List<Timing> getTimings() {
+        List<Timing> result = new ArrayList<>(timings.values());
+        Collections.sort(result, (t1, t2) -> Long.compare(t2.getTotalTime(), t1.getTotalTime()));
+        return result;
+    }
+
+    /**
+     * Reset the counters of all timings
+     */
+    public static void reset() {
+        for (Timing timing : timings.values()) {
+            timing.reset();
+        }
+    }
+
+    /**
+     * Register all {@link EventHandler} methods of the listener, like {@link org.bukkit.plugin.PluginManager#registerEvents(Listener, Plugin)}
+     * does, but record the time spent in each handler
+     *
+     * @param listener Listener to register
+     * @param plugin Plugin which owns the listener
+     */
+    public static void registerEvents(Listener listener, Plugin plugin) {
+        Class<?> listenerClass = listener.getClass();
+        Set<Method> methods = new LinkedHashSet<>(Arrays.asList(listenerClass.getMethods()));
+        methods.addAll(Arrays.asList(listenerClass.getDeclaredMethods()));
+
+        String listenerName = listenerClass.getSimpleName().isEmpty() ? listenerClass.getName() : listenerClass.getSimpleName();
+        for (Method method : methods) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length != 1 || !Event.class.isAssignableFrom(parameters[0])) {
+                plugin.getLogger().severe(plugin.getDescription().getFullName() + " attempted to register an invalid EventHandler method signature \""
+                                          + method.toGenericString() + "\" in " + listenerClass);
+                continue;
+            }
+
+            Class<? extends Event> eventClass = parameters[0].asSubclass(Event.class);
+            method.setAccessible(true);
+            Timing timing = getTiming(plugin.getName() + ": " + listenerName + "#" + method.getName());
+            Bukkit.getPluginManager().registerEvent(eventClass, listener, handler.priority(), new TimedEventExecutor(method, eventClass, timing),
+                                                    plugin, handler.ignoreCancelled());
+        }
+    }
+
+    /**
+     * Write the report to timings.txt
+     */
+    public static void dump() {
+        File file = new File(SinkLibrary.getInstance().getCustomDataFolder(), "timings.txt");
+        List<String> lines = new ArrayList<>();
+        lines.add("Timings from " + new SimpleDateFormat("dd.MM.yyyy-HH:mm:ss").format(new Date()));
+        for (Timing timing : getTimings()) {
+            if (timing.getCount() > 0) {
+                lines.add(timing.toString());
+            }
+        }
+
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Bukkit.getLogger().log(Level.WARNING, "Couldn't write timings: " + file, e);
+        }
+    }
+
+    /**
+     * Start writing the report periodically
+     *
+     * @param plugin Plugin which owns the task
+     * @param interval Interval in ticks, nothing will be written if it's less than 1
+     */
+    public synchronized void start(Plugin plugin, long interval) {
+        stop();
+        if (interval < 1) {
+            return;
+        }
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this, interval, interval);
+    }
+
+    /**
+     * Stop writing the report, if it has been running the report is written a last time
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+            dump();
+        }
+    }
+
+    @Override
+    public void run() {
+        dump();
+    }
+
+    private static class TimedEventExecutor implements EventExecutor {
+
+        private final Method method;
+        private final Class<? extends Event> eventClass;
+        private final Timing timing;
+
+        private TimedEventExecutor(Method method, Class<? extends Event> eventClass, Timing timing) {
+            this.method = method;
+            this.eventClass = eventClass;
+            this.timing = timing;
+        }
+
+        @Override
+        public void execute(Listener listener, Event event) throws EventException {
+            // The handler list may be shared with events the handler doesn't accept
+            if (!eventClass.isInstance(event)) {
+                return;
+            }
+
+            boolean timed = enabled;
+            long start = timed ? System.nanoTime() : 0;
+            try {
+                method.invoke(listener, event);
+            } catch (InvocationTargetException e) {
+                throw new EventException(e.getCause());
+            } catch (Throwable t) {
+                throw new EventException(t);
+            } finally {
+                if (timed) {
+                    timing.record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.provider;
+
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
+import org.bukkit.plugin.Plugin;
+import org.pircbotx.Channel;
+import org.pircbotx.PircBotX;
+import org.pircbotx.User;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * {@link IrcBridge} for SinkIRC versions which don't register a bridge themselves.
+ * The methods are looked up once and called through {@link MethodHandle}s.
+ */
+public class ReflectiveIrcBridge implements IrcBridge {
+
+    private final MethodHandle getIrcBot;
+    private final MethodHandle isOp;
+    private final MethodHandle setOp;
+    private final MethodHandle getCommandPrefix;
+    private final MethodHandle addToQueue;
+
+    /**
+     * @param sinkIrc the SinkIRC plugin
+     * @throws ReflectiveOperationException if SinkIRC doesn't provide the expected methods
+     */
+    public ReflectiveIrcBridge(Plugin sinkIrc) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        ClassLoader classLoader = sinkIrc.getClass().getClassLoader();
+        Class<?> ircUtil = Class.forName("de.static_interface.sinkirc.IrcUtil", true, classLoader);
+        Class<?> ircQueue = Class.forName("de.static_interface.sinkirc.queue.IrcQueue", true, classLoader);
+
+        getIrcBot = lookup.findVirtual(sinkIrc.getClass(), "getIrcBot", MethodType.methodType(PircBotX.class)).bindTo(sinkIrc);
+        isOp = lookup.findStatic(ircUtil, "isOp", MethodType.methodType(boolean.class, User.class));
+        setOp = lookup.findStatic(ircUtil, "setOp", MethodType.methodType(void.class, User.class, Channel.class, Boolean.class));
+        getCommandPrefix = lookup.findStatic(ircUtil, "getCommandPrefix", MethodType.methodType(String.class));
+        MethodHandle queue;
+        try {
+            queue = lookup.findStatic(ircQueue, "addToQueue", MethodType.methodType(boolean.class, String.class, String.class));
+        } catch (NoSuchMethodException e) {
+            queue = lookup.findStatic(ircQueue, "addToQueue", MethodType.methodType(void.class, String.class, String.class));
+        }
+        addToQueue = queue.asType(MethodType.methodType(void.class, String.class, String.class));
+    }
+
+    @Override
+    public PircBotX getIrcBot() {
+        try {
+            return (PircBotX) getIrcBot.invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+        }
+    }
+
+    @Override
+    public boolean isOp(User user) {
+        try {
+            return (boolean) isOp.invoke(user);
+        } catch (Throwable e) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+        }
+    }
+
+    @Override
+    public void setOp(User user, Channel channel, boolean value) {
+        try {
+            setOp.invoke(user, channel, (Boolean) value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+        }
+    }
+
+    @Override
+    public String getCommandPrefix() {
+        try {
+            return (String) getCommandPrefix.invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+        }
+    }
+
+    @Override
+    public boolean sendMessage(String message, String target) {
+        try {
+            addToQueue.invoke(message, target);
+            return true;
+        } catch (Throwable e) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+        }
+    }
+}
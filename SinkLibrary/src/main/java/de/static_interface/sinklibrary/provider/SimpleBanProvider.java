@@ -20,14 +20,31 @@ package de.static_interface.sinklibrary.provider;
 import de.static_interface.sinklibrary.api.provider.BanProvider;
 import de.static_interface.sinklibrary.api.user.IdentifiableUser;
 import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.configuration.BanStore;
 import de.static_interface.sinklibrary.user.IngameUser;
+import de.static_interface.sinklibrary.util.Debug;
 import de.static_interface.sinklibrary.util.StringUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.UUID;
 
 import javax.annotation.Nullable;
 
-public class SimpleBanProvider implements BanProvider {
+/**
+ * Default {@link BanProvider}, keeps the bans in a {@link BanStore}. Bans which time out are lifted by a task
+ * which polls the expiry queue of the store.
+ */
+public class SimpleBanProvider implements BanProvider, Runnable {
+
+    /**
+     * Interval in ticks for lifting timed out bans
+     */
+    public static final long EXPIRY_INTERVAL = 20;
+
+    private volatile BanStore store;
+    private BukkitTask task;
 
     @Override
     public void ban(IngameUser user) {
@@ -75,11 +92,16 @@ public class SimpleBanProvider implements BanProvider {
             return;
         }
 
-        user.getConfiguration().setBanned(true);
-        user.getConfiguration().setBanTime(System.currentTimeMillis());
-        setTimeOut(user, timeOut);
-        setReason(user, reason);
-        setBanner(user, banner);
+        long now = System.currentTimeMillis();
+        UUID bannerId = getUniqueId(banner);
+        String bannerName = banner == null ? null : banner.getDisplayName();
+        getBanStore().update(user.getUniqueId(), entry -> {
+            entry.setBanned(true);
+            entry.setBanTime(now);
+            entry.setTimeOut(timeOut);
+            entry.setReason(reason);
+            entry.setBanner(bannerId, bannerName);
+        });
     }
 
 
@@ -90,113 +112,166 @@ public class SimpleBanProvider implements BanProvider {
 
     @Override
     public void unban(IngameUser user, SinkUser unbanner) {
-        user.getConfiguration().setBanned(false);
-        setUnbanTime(user, System.currentTimeMillis());
-        setUnbanner(user, unbanner);
+        UUID unbannerId = getUniqueId(unbanner);
+        String unbannerName = unbanner == null ? null : unbanner.getDisplayName();
+        long now = System.currentTimeMillis();
+        getBanStore().update(user.getUniqueId(), entry -> {
+            entry.setBanned(false);
+            entry.setUnbanTime(now);
+            entry.setUnbanner(unbannerId, unbannerName);
+        });
     }
 
     @Override
     public boolean isBanned(IngameUser user) {
-        return user.getConfiguration().isBanned();
+        return getBanStore().isBanned(user.getUniqueId(), System.currentTimeMillis());
     }
 
     @Override
     public void setUnbanTime(IngameUser user, @Nullable Long unbanTime) {
-        user.getConfiguration().setUnbanTime(unbanTime);
+        getBanStore().update(user.getUniqueId(), entry -> entry.setUnbanTime(unbanTime));
     }
 
     @Override
     public void setReason(IngameUser user, String reason) {
-        user.getConfiguration().setBanReason(reason);
+        getBanStore().update(user.getUniqueId(), entry -> entry.setReason(reason));
     }
 
     @Nullable
     @Override
     public String getReason(IngameUser user) {
-        String s = user.getConfiguration().getBanReason();
-        if (StringUtil.isEmptyOrNull(s)) {
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        if (entry == null || StringUtil.isEmptyOrNull(entry.getReason())) {
             return null;
         }
-        return s;
+        return entry.getReason();
     }
 
     @Nullable
     @Override
     public Long getBanTime(IngameUser user) {
-        long s = user.getConfiguration().getBanTime();
-        if (s <= 0) {
-            return null;
-        }
-        return s;
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : toNullable(entry.getBanTime());
     }
 
     @Nullable
     @Override
     public Long getUnbanTime(IngameUser user) {
-        long s = user.getConfiguration().getUnbanTime();
-        if (s <= 0) {
-            return null;
-        }
-        return s;
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : toNullable(entry.getUnbanTime());
     }
 
     @Override
     public Long getTimeOut(IngameUser user) {
-        long s = user.getConfiguration().getBanTimeOut();
-        if (s <= 0) {
-            return null;
-        }
-        return s;
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : toNullable(entry.getTimeOut());
     }
 
     @Override
     public void setTimeOut(IngameUser user, @Nullable Long timeOut) {
-        user.getConfiguration().setBanTimeOut(timeOut);
+        getBanStore().update(user.getUniqueId(), entry -> entry.setTimeOut(timeOut));
     }
 
     @Nullable
     @Override
     public String getBannerDisplayName(IngameUser user) {
-        return user.getConfiguration().getBannerDisplayName();
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : entry.getBannerDisplayName();
     }
 
     @Nullable
     @Override
     public UUID getBannerUniqueId(IngameUser user) {
-        return user.getConfiguration().getBannerUniqueId();
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : entry.getBannerUniqueId();
     }
 
     @Nullable
     @Override
     public String getUnbannerDisplayName(IngameUser user) {
-        return user.getConfiguration().getUnbannerDisplayName();
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : entry.getUnbannerDisplayName();
     }
 
     @Nullable
     @Override
     public UUID getUnbannerUniqueId(IngameUser user) {
-        return user.getConfiguration().getUnbannerUniqueId();
+        BanStore.Entry entry = getBanStore().get(user.getUniqueId());
+        return entry == null ? null : entry.getUnbannerUniqueId();
     }
 
     @Override
     public void setBanner(IngameUser user, SinkUser banner) {
-        UUID id = null;
-        if (banner instanceof IdentifiableUser) {
-            id = ((IdentifiableUser) banner).getUniqueId();
+        UUID id = getUniqueId(banner);
+        String name = banner == null ? null : banner.getDisplayName();
+        getBanStore().update(user.getUniqueId(), entry -> entry.setBanner(id, name));
+    }
+
+    @Override
+    public void setUnbanner(IngameUser user, SinkUser unbanner) {
+        UUID id = getUniqueId(unbanner);
+        String name = unbanner == null ? null : unbanner.getDisplayName();
+        getBanStore().update(user.getUniqueId(), entry -> entry.setUnbanner(id, name));
+    }
+
+    /**
+     * @return the store which keeps the bans, loaded on first access
+     */
+    public BanStore getBanStore() {
+        BanStore store = this.store;
+        if (store == null) {
+            synchronized (this) {
+                store = this.store;
+                if (store == null) {
+                    store = new BanStore();
+                    this.store = store;
+                }
+            }
         }
+        return store;
+    }
 
-        user.getConfiguration().setBannerUniqueId(id);
-        user.getConfiguration().setBannerDisplayName(banner == null ? null : banner.getDisplayName());
+    /**
+     * Load the bans and start lifting timed out bans
+     *
+     * @param plugin Plugin which owns the task
+     */
+    public synchronized void start(Plugin plugin) {
+        stop();
+        getBanStore();
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this, EXPIRY_INTERVAL, EXPIRY_INTERVAL);
+    }
+
+    /**
+     * Stop lifting timed out bans
+     */
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
     }
 
     @Override
-    public void setUnbanner(IngameUser user, SinkUser unbanner) {
-        UUID id = null;
-        if (unbanner instanceof IdentifiableUser) {
-            id = ((IdentifiableUser) unbanner).getUniqueId();
+    public void run() {
+        for (UUID uuid : getBanStore().unbanExpired(System.currentTimeMillis())) {
+            Debug.log(() -> "Ban of " + uuid + " timed out, unbanned");
+        }
+    }
+
+    @Nullable
+    private static UUID getUniqueId(@Nullable SinkUser user) {
+        if (user instanceof IdentifiableUser) {
+            return ((IdentifiableUser) user).getUniqueId();
         }
+        return null;
+    }
 
-        user.getConfiguration().setUnbannerUniqueId(id);
-        user.getConfiguration().setUnbannerDisplayName(unbanner == null ? null : unbanner.getDisplayName());
+    @Nullable
+    private static Long toNullable(long time) {
+        if (time <= 0) {
+            return null;
+        }
+        return time;
     }
 }
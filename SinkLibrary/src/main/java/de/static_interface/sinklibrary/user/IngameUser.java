@@ -21,6 +21,8 @@ import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.command.SinkCommand;
 import de.static_interface.sinklibrary.api.exception.EconomyNotAvailableException;
 import de.static_interface.sinklibrary.api.exception.PermissionsNotAvailableException;
+import de.static_interface.sinklibrary.api.user.ChatIdentity;
+import de.static_interface.sinklibrary.api.user.ChatIdentityProvider;
 import de.static_interface.sinklibrary.api.user.IdentifiableUser;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.api.user.SinkUserProvider;
@@ -41,8 +43,11 @@ import org.bukkit.permissions.Permission;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -51,8 +56,9 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
     private Player player = null;
     private OfflinePlayer base = null;
     private String playerName = null;
-    private IngameUserConfiguration config = null;
+    private volatile IngameUserConfiguration config = null;
     private File configurationFile;
+    private volatile ChatIdentity chatIdentity = null;
     IngameUser(OfflinePlayer base, SinkUserProvider provider) {
         super(base, provider);
         this.base = base;
@@ -102,12 +108,29 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
      * @return The PlayerConfiguration of the Player
      */
     public IngameUserConfiguration getConfiguration() {
+        IngameUserConfiguration config = this.config;
         if (config == null) {
-            config = new IngameUserConfiguration(this, configurationFile);
+            synchronized (this) {
+                config = this.config;
+                if (config == null) {
+                    config = new IngameUserConfiguration(this, configurationFile);
+                    this.config = config;
+                }
+            }
         }
         return config;
     }
 
+    /**
+     * Write pending changes of the configuration, if it has been loaded
+     */
+    void flushConfiguration() {
+        IngameUserConfiguration config = this.config;
+        if (config != null) {
+            config.flush();
+        }
+    }
+
     /**
      * @return The configuration file of the Player
      */
@@ -186,7 +209,48 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
         if (!SinkLibrary.getInstance().isPermissionsAvailable()) {
             throw new PermissionsNotAvailableException();
         }
-        return SinkLibrary.getInstance().getPermissions().getPrimaryGroup(BukkitUtil.getMainWorld().getName(), base);
+        return getChatIdentity().getPrimaryGroup();
+    }
+
+    /**
+     * Get the cached chat values (display name, prefix, group...) of this user. They will be rebuilt if
+     * they have been invalidated or are older than {@link GeneralSettings#GENERAL_CHAT_IDENTITY_TTL}.
+     *
+     * @return the chat identity
+     */
+    public ChatIdentity getChatIdentity() {
+        ChatIdentity identity = chatIdentity;
+        // Also rebuild if permissions got (un)available after the identity has been built
+        if (identity == null || identity.isExpired(System.currentTimeMillis())
+            || identity.isPermissionsAvailable() != SinkLibrary.getInstance().isPermissionsAvailable()) {
+            identity = buildChatIdentity();
+            chatIdentity = identity;
+        }
+        return identity;
+    }
+
+    /**
+     * Rebuild the chat identity on the next access, e.g. after the nick or the group of the user changed
+     */
+    public void invalidateChatIdentity() {
+        chatIdentity = null;
+    }
+
+    private ChatIdentity buildChatIdentity() {
+        String prefix = loadChatPrefix();
+        String group = null;
+        boolean permissionsAvailable = SinkLibrary.getInstance().isPermissionsAvailable();
+        if (permissionsAvailable) {
+            group = SinkLibrary.getInstance().getPermissions().getPrimaryGroup(BukkitUtil.getMainWorld().getName(), base);
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (ChatIdentityProvider provider : SinkLibrary.getInstance().getChatIdentityProviders()) {
+            provider.addValues(this, values);
+        }
+
+        long ttl = TimeUnit.SECONDS.toMillis(GeneralSettings.GENERAL_CHAT_IDENTITY_TTL.getValue());
+        return new ChatIdentity(loadDisplayName(prefix), prefix, group, permissionsAvailable, values, System.currentTimeMillis() + ttl);
     }
 
 
@@ -208,6 +272,10 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
      * @throws de.static_interface.sinklibrary.api.exception.ChatNotAvailableException if chat is not available
      */
     public String getChatPrefix() {
+        return getChatIdentity().getChatPrefix();
+    }
+
+    private String loadChatPrefix() {
         if (!SinkLibrary.getInstance().isChatAvailable()) {
             return base.isOp() ? ChatColor.DARK_RED.toString() : ChatColor.WHITE.toString();
         }
@@ -240,16 +308,12 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
      * @return Player's custom displayname
      */
     public String getDisplayName(boolean formatOffline) {
-        String name = "";
-        if (isOnline() && (!GeneralSettings.GENERAL_DISPLAYNAMES.getValue() || !getConfiguration().getHasDisplayName())) {
-            String prefix = "";
-            if (SinkLibrary.getInstance().isChatAvailable()) {
-                prefix =
-                        ChatColor.translateAlternateColorCodes('&', SinkLibrary.getInstance().getChat()
-                                .getPlayerPrefix(BukkitUtil.getMainWorld().getName(), base));
-            }
-            name = prefix + player.getDisplayName();
-        } else if (getConfiguration() != null) {
+        if (isOnline()) {
+            return getChatIdentity().getDisplayName();
+        }
+
+        String name = null;
+        if (getConfiguration() != null) {
             name = getConfiguration().getDisplayName();
         }
 
@@ -257,13 +321,29 @@ public class IngameUser extends SinkUser<OfflinePlayer> implements IdentifiableU
             name = getName();
         }
 
-        if (!isOnline() && formatOffline) {
+        if (formatOffline) {
             name = name + ChatColor.GRAY + " (offline)" + ChatColor.RESET;
         }
 
         return name;
     }
 
+    private String loadDisplayName(String chatPrefix) {
+        Player player = getPlayer();
+        String name = "";
+        if (player != null && (!GeneralSettings.GENERAL_DISPLAYNAMES.getValue() || !getConfiguration().getHasDisplayName())) {
+            String prefix = SinkLibrary.getInstance().isChatAvailable() ? chatPrefix : "";
+            name = prefix + player.getDisplayName();
+        } else if (getConfiguration() != null) {
+            name = getConfiguration().getDisplayName();
+        }
+
+        if (StringUtil.isEmptyOrNull(name)) {
+            name = getName();
+        }
+        return name;
+    }
+
     /**
      * Sends message to user if online
      *
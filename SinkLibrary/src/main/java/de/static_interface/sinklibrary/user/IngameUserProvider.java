@@ -17,7 +17,9 @@
 
 package de.static_interface.sinklibrary.user;
 
+import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.user.SinkUserProvider;
+import de.static_interface.sinklibrary.configuration.GeneralSettings;
 import de.static_interface.sinklibrary.util.BukkitUtil;
 import org.apache.commons.lang3.Validate;
 import org.bukkit.Bukkit;
@@ -26,25 +28,68 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 public class IngameUserProvider extends SinkUserProvider<OfflinePlayer, IngameUser> {
 
+    private final UserNameIndex<IngameUser> nameIndex = new UserNameIndex<>();
+    private final OfflineUserCache offlineUsers = new OfflineUserCache();
+
     @Nullable
     @Override
     public IngameUser getUserInstance(String name) {
         Validate.notNull(name);
-        for (IngameUser u : instances.values()) {
-            if (ChatColor.stripColor(u.getName().trim()).equals(ChatColor.stripColor(name.trim()))
-                || (u.getDisplayName() != null && ChatColor.stripColor(u.getDisplayName().trim()).equals(name.trim()))) {
-                return u;
-            }
+        IngameUser user = nameIndex.getExact(ChatColor.stripColor(name));
+        if (user != null) {
+            return user;
         }
 
         return getUserInstance(BukkitUtil.getUniqueIdByName(name));
     }
 
+    /**
+     * @return index of the names and display names of all loaded users
+     */
+    public UserNameIndex<IngameUser> getNameIndex() {
+        return nameIndex;
+    }
+
+    @Override
+    public boolean loadUser(OfflinePlayer base) {
+        if (!super.loadUser(base)) {
+            return false;
+        }
+        // Write changes made while the user was offline before the online instance reads the configuration
+        IngameUser offlineUser = offlineUsers.remove(base.getUniqueId());
+        if (offlineUser != null) {
+            offlineUser.flushConfiguration();
+        }
+
+        IngameUser user = instances.get(base);
+        if (user != null) {
+            nameIndex.put(user, base.getName(), null);
+            SinkLibrary.getInstance().getUniqueIdCache().put(base.getName(), base.getUniqueId());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean unloadUser(IngameUser user) {
+        nameIndex.remove(user);
+        return super.unloadUser(user);
+    }
+
+    @Override
+    public boolean unloadUser(OfflinePlayer base) {
+        IngameUser user = instances.get(base);
+        if (user != null) {
+            nameIndex.remove(user);
+        }
+        return super.unloadUser(base);
+    }
+
     @Override
     @Nullable
     public IngameUser newInstance(OfflinePlayer sender) {
@@ -63,6 +108,20 @@ public class IngameUserProvider extends SinkUserProvider<OfflinePlayer, IngameUs
             return getUserInstance(p);
         }
 
-        return new IngameUser(Bukkit.getOfflinePlayer(uuid), this);
+        long ttl = TimeUnit.SECONDS.toMillis(GeneralSettings.GENERAL_OFFLINE_USER_CACHE_TTL.getValue());
+        IngameUser user = offlineUsers.get(uuid, ttl);
+        if (user != null) {
+            return user;
+        }
+
+        user = new IngameUser(Bukkit.getOfflinePlayer(uuid), this);
+        return offlineUsers.put(user, GeneralSettings.GENERAL_OFFLINE_USER_CACHE_SIZE.getValue());
+    }
+
+    /**
+     * Remove all offline users from the cache
+     */
+    public void clearOfflineUsers() {
+        offlineUsers.clear();
     }
 }
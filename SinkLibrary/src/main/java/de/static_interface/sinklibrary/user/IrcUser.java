@@ -19,12 +19,12 @@ package de.static_interface.sinklibrary.user;
 
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.command.SinkCommand;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
 import de.static_interface.sinklibrary.api.sender.IrcCommandSender;
 import de.static_interface.sinklibrary.api.user.SinkUser;
 import de.static_interface.sinklibrary.api.user.SinkUserProvider;
 import de.static_interface.sinklibrary.configuration.GeneralSettings;
 import de.static_interface.sinklibrary.util.Debug;
-import de.static_interface.sinklibrary.util.SinkIrcReflection;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.permissions.Permission;
@@ -79,7 +79,8 @@ public class IrcUser extends SinkUser<User> {
 
     @Override
     public boolean isOp() {
-        return SinkIrcReflection.isIrcOp(getBase());
+        IrcBridge bridge = SinkLibrary.getInstance().getIrcBridge();
+        return bridge != null && bridge.isOp(getBase());
     }
 
     @Override
@@ -26,6 +26,8 @@ import javax.annotation.Nullable;
 
 public class IrcUserProvider extends SinkUserProvider<User, IrcUser> {
 
+    private final UserNameIndex<IrcUser> nameIndex = new UserNameIndex<>();
+
     @Override
     public String getTabCompleterSuffix() {
         return "_IRC";
@@ -34,12 +36,26 @@ public class IrcUserProvider extends SinkUserProvider<User, IrcUser> {
     @Override
     @Nullable
     public IrcUser getUserInstance(String nick) {
-        for (IrcUser user : instances.values()) {
-            if (user.getName().equals(nick) || ChatColor.stripColor(user.getDisplayName()).equals(nick)) {
-                return user;
-            }
+        return nameIndex.getExact(ChatColor.stripColor(nick));
+    }
+
+    /**
+     * @return index of the nicks of all loaded users
+     */
+    public UserNameIndex<IrcUser> getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * Update the index after the user changed its nick
+     *
+     * @param base the user
+     */
+    public void refreshUser(User base) {
+        IrcUser user = instances.get(base);
+        if (user != null) {
+            nameIndex.put(user, base.getNick(), null);
         }
-        return null;
     }
 
     public IrcUser newInstance(User base, String source) {
@@ -48,11 +64,12 @@ public class IrcUserProvider extends SinkUserProvider<User, IrcUser> {
 
 
     public IrcUser getUserInstance(User base, String source) {
-        if (instances.get(base) == null) {
+        IrcUser user = instances.get(base);
+        if (user == null) {
             loadUser(base, source);
+            user = instances.get(base);
         }
-
-        return instances.get(base);
+        return user;
     }
 
     @Override
@@ -71,11 +88,19 @@ public class IrcUserProvider extends SinkUserProvider<User, IrcUser> {
     }
 
     public boolean loadUser(User base, String source) {
-        if (instances.get(base) != null) {
+        if (instances.containsKey(base)) {
             return false;
         }
-        instances.put(base, newInstance(base, source));
-        return true;
+
+        boolean[] created = {false};
+        IrcUser user = instances.computeIfAbsent(base, k -> {
+            created[0] = true;
+            return newInstance(k, source);
+        });
+        if (created[0]) {
+            nameIndex.put(user, base.getNick(), null);
+        }
+        return created[0];
     }
 
     @Override
@@ -87,4 +112,13 @@ public class IrcUserProvider extends SinkUserProvider<User, IrcUser> {
     public boolean unloadUser(IrcUser user) {
         return unloadUser(user.getBase());
     }
+
+    @Override
+    public boolean unloadUser(User base) {
+        IrcUser user = instances.get(base);
+        if (user != null) {
+            nameIndex.remove(user);
+        }
+        return super.unloadUser(base);
+    }
 }
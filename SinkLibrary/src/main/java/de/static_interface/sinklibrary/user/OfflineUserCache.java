@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.user;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps recently used offline users, so their configuration doesn't have to be read from disk on every lookup.
+ * The least recently used user is evicted when the cache is full, users expire a while after they have been loaded
+ * so changes made to their files by other means are picked up again.
+ */
+class OfflineUserCache {
+
+    private final Map<UUID, Entry> users = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param uuid UUID of the user
+     * @param ttl time in milliseconds after which a user expires
+     * @return the cached user or null if it isn't cached or has expired
+     */
+    @Nullable
+    synchronized IngameUser get(UUID uuid, long ttl) {
+        Entry entry = users.get(uuid);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadTime >= ttl) {
+            users.remove(uuid);
+            return null;
+        }
+        return entry.user;
+    }
+
+    /**
+     * Add the user, unless an other thread added it in the meantime
+     *
+     * @param user the user
+     * @param maxSize maximum amount of cached users
+     * @return the cached user
+     */
+    synchronized IngameUser put(IngameUser user, int maxSize) {
+        Entry entry = users.get(user.getUniqueId());
+        if (entry != null) {
+            return entry.user;
+        }
+
+        users.put(user.getUniqueId(), new Entry(user));
+        Iterator<Entry> iterator = users.values().iterator();
+        while (users.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        return user;
+    }
+
+    @Nullable
+    synchronized IngameUser remove(UUID uuid) {
+        Entry entry = users.remove(uuid);
+        return entry == null ? null : entry.user;
+    }
+
+    synchronized void clear() {
+        users.clear();
+    }
+
+    private static class Entry {
+
+        private final IngameUser user;
+        private final long loadTime;
+
+        private Entry(IngameUser user) {
+            this.user = user;
+            this.loadTime = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.user;
+
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * Case-insensitive index of loaded users by their name and their display name without colors.
+ * Exact and prefix lookups are O(log n), reads don't block while the index is being updated.
+ * Multiple users can share a name, lookups for a single user return the one which has been indexed first.
+ *
+ * @param <T> type of the users
+ */
+public class UserNameIndex<T> {
+
+    // The lists are never modified, they are replaced instead
+    private final NavigableMap<String, List<T>> names = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final NavigableMap<String, List<T>> displayNames = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<T, Keys> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Add the user to the index or update its names
+     *
+     * @param user the user
+     * @param name name of the user
+     * @param displayName display name of the user, may contain color codes
+     */
+    public synchronized void put(T user, String name, @Nullable String displayName) {
+        remove(user);
+        name = name.trim();
+        displayName = displayName == null ? null : ChatColor.stripColor(displayName).trim();
+        if (displayName != null && (displayName.isEmpty() || displayName.equalsIgnoreCase(name))) {
+            displayName = null;
+        }
+
+        add(names, name, user);
+        if (displayName != null) {
+            add(displayNames, displayName, user);
+        }
+        keys.put(user, new Keys(name, displayName));
+    }
+
+    /**
+     * Remove the user from the index
+     *
+     * @param user the user
+     */
+    public synchronized void remove(T user) {
+        Keys userKeys = keys.remove(user);
+        if (userKeys == null) {
+            return;
+        }
+        remove(names, userKeys.name, user);
+        if (userKeys.displayName != null) {
+            remove(displayNames, userKeys.displayName, user);
+        }
+    }
+
+    /**
+     * @param name name or display name, ignoring case
+     * @return the user with the given name, or with the given display name if no user has that name
+     */
+    @Nullable
+    public T getExact(String name) {
+        name = name.trim();
+        List<T> users = names.get(name);
+        if (users == null) {
+            users = displayNames.get(name);
+        }
+        return users == null ? null : users.get(0);
+    }
+
+    /**
+     * @param prefix start of the name or display name, ignoring case
+     * @return the user with the alphabetically first name starting with the prefix,
+     *         or with the first display name if no name starts with it
+     */
+    @Nullable
+    public T getFirstByPrefix(String prefix) {
+        prefix = prefix.trim();
+        T user = first(names, prefix);
+        return user != null ? user : first(displayNames, prefix);
+    }
+
+    /**
+     * @param prefix start of the name or display name, ignoring case
+     * @return all users whose name or display name starts with the prefix, users matched by their name first
+     */
+    public List<T> getByPrefix(String prefix) {
+        prefix = prefix.trim();
+        Set<T> result = new LinkedHashSet<>();
+        collect(names, prefix, result);
+        collect(displayNames, prefix, result);
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @param prefix start of the name or display name, ignoring case, may be empty
+     * @return the users whose name or display name starts with the prefix, mapped to the display name
+     *         if it matches and to the name otherwise
+     */
+    public Map<T, String> getCompletions(String prefix) {
+        prefix = prefix.trim();
+        Map<T, String> result = new LinkedHashMap<>();
+        collectKeys(displayNames, prefix, result, true);
+        collectKeys(names, prefix, result, false);
+        return result;
+    }
+
+    /**
+     * @return amount of indexed users
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    private static <T> void add(NavigableMap<String, List<T>> map, String key, T user) {
+        List<T> users = map.get(key);
+        if (users == null) {
+            map.put(key, Collections.singletonList(user));
+            return;
+        }
+        List<T> newUsers = new ArrayList<>(users.size() + 1);
+        newUsers.addAll(users);
+        newUsers.add(user);
+        map.put(key, Collections.unmodifiableList(newUsers));
+    }
+
+    private static <T> void remove(NavigableMap<String, List<T>> map, String key, T user) {
+        List<T> users = map.get(key);
+        if (users == null || !users.contains(user)) {
+            return;
+        }
+        if (users.size() == 1) {
+            map.remove(key);
+            return;
+        }
+        List<T> newUsers = new ArrayList<>(users);
+        newUsers.remove(user);
+        map.put(key, Collections.unmodifiableList(newUsers));
+    }
+
+    @Nullable
+    private static <T> T first(NavigableMap<String, List<T>> map, String prefix) {
+        Map.Entry<String, List<T>> entry = map.ceilingEntry(prefix);
+        if (entry == null || !startsWithIgnoreCase(entry.getKey(), prefix)) {
+            return null;
+        }
+        return entry.getValue().get(0);
+    }
+
+    private static <T> void collect(NavigableMap<String, List<T>> map, String prefix, Set<T> result) {
+        for (Map.Entry<String, List<T>> entry : map.tailMap(prefix, true).entrySet()) {
+            if (!startsWithIgnoreCase(entry.getKey(), prefix)) {
+                break;
+            }
+            result.addAll(entry.getValue());
+        }
+    }
+
+    private void collectKeys(NavigableMap<String, List<T>> map, String prefix, Map<T, String> result, boolean displayName) {
+        for (Map.Entry<String, List<T>> entry : map.tailMap(prefix, true).entrySet()) {
+            if (!startsWithIgnoreCase(entry.getKey(), prefix)) {
+                break;
+            }
+            for (T user : entry.getValue()) {
+                // The key of the map keeps the case of the user who has been indexed first
+                Keys userKeys = keys.get(user);
+                String key = userKeys == null ? null : displayName ? userKeys.displayName : userKeys.name;
+                result.putIfAbsent(user, key != null ? key : entry.getKey());
+            }
+        }
+    }
+
+    private static boolean startsWithIgnoreCase(String s, String prefix) {
+        return s.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static class Keys {
+
+        private final String name;
+        @Nullable private final String displayName;
+
+        private Keys(String name, @Nullable String displayName) {
+            this.name = name;
+            this.displayName = displayName;
+        }
+    }
+}
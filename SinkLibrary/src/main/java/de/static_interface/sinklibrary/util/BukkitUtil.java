@@ -29,6 +29,7 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -77,8 +78,24 @@ public class BukkitUtil {
         }
     }
 
+    /**
+     * Get the UUID of a player by name without looking it up from Mojang.
+     * Names of players who never joined the server get the offline mode UUID, like CraftBukkit does for unknown names.
+     *
+     * @param name Name of the player
+     * @return UUID of the player
+     */
     public static UUID getUniqueIdByName(String name) {
-        return Bukkit.getOfflinePlayer(name).getUniqueId();
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null) {
+            return player.getUniqueId();
+        }
+
+        UUID uuid = SinkLibrary.getInstance().getUniqueIdCache().getUniqueId(name);
+        if (uuid != null) {
+            return uuid;
+        }
+        return UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
     }
 
     public static String getNameByUniqueId(UUID uuid) {
@@ -19,15 +19,12 @@ package de.static_interface.sinklibrary.util;
 
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.annotation.Unstable;
+import de.static_interface.sinklibrary.configuration.GeneralSettings;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 import javax.annotation.Nonnull;
@@ -40,26 +37,60 @@ import javax.annotation.Nullable;
 public class Debug {
 
     public static final String ANONYMOUS_CLASS = "<Anonymous Class>";
-    private static boolean failed = false;
-    private static FileWriter fileWriter = null;
+    private static final String LOGGER_CLASS = "de.static_interface.sinklibrary.Logger";
     private static int STACK_INDEX = 4;
 
+    private static volatile boolean enabled = false;
+    private static volatile DebugLogWriter logWriter = null;
+
     /**
      * @return True if debug is enabled in the config
      */
-    @SuppressWarnings("deprecation")
     public static boolean isEnabled() {
-        //We have to use the default get() method because debug is called before settings were loaded
-        if (SinkLibrary.getInstance().getSettings() == null) {
-            return false;
+        return enabled;
+    }
+
+    /**
+     * Read the debug settings again, called whenever the settings have been (re)loaded
+     */
+    public static synchronized void reload() {
+        GeneralSettings settings = SinkLibrary.getInstance() == null ? null : SinkLibrary.getInstance().getSettings();
+        if (settings == null || settings.getYamlConfiguration() == null) {
+            enabled = false;
+            closeLog();
+            return;
         }
-        if (SinkLibrary.getInstance().getSettings().getFile() == null) {
-            return false;
+
+        enabled = GeneralSettings.GENERAL_DEBUG.getValue();
+        if (!enabled || !GeneralSettings.GENERAL_LOG.getValue()) {
+            closeLog();
+            return;
         }
-        if (SinkLibrary.getInstance().getSettings().getYamlConfiguration() == null) {
-            return false;
+
+        if (logWriter == null) {
+            File logFile = new File(SinkLibrary.getInstance().getCustomDataFolder(), "Debug.log");
+            long maxSize = GeneralSettings.GENERAL_LOG_MAX_SIZE.getValue() * 1024L * 1024L;
+            logWriter = new DebugLogWriter(logFile, maxSize);
         }
-        return SinkLibrary.getInstance().getSettings().getYamlConfiguration().getBoolean("General.EnableDebug", false);
+    }
+
+    /**
+     * Write all pending messages and close the debug log
+     */
+    public static synchronized void closeLog() {
+        DebugLogWriter writer = logWriter;
+        logWriter = null;
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return Amount of messages which couldn't be written to the debug log since the last time it has been written
+     */
+    public static long getDroppedMessages() {
+        DebugLogWriter writer = logWriter;
+        return writer == null ? 0 : writer.getDroppedMessages();
     }
 
     /**
@@ -69,28 +100,8 @@ public class Debug {
     @Nonnull
     @Nullable
     public static String getCallerClassName() {
-        StackTraceElement[] stElements = Thread.currentThread().getStackTrace();
-        int index = STACK_INDEX;
-        try {
-            if (stElements[index].getClassName().equalsIgnoreCase("de.static_interface.sinklibrary.Logger")) {
-                index++; // fix for old Logger#debug calls
-            }
-            String className = stElements[index].getClassName();
-            if (StringUtil.isEmptyOrNull(className)) {
-                return ANONYMOUS_CLASS;
-            }
-            Class<?> clazz = Class.forName(className);
-            if (clazz.getDeclaringClass() != null) {
-                clazz = clazz.getDeclaringClass();
-            }
-            if (clazz.isAnonymousClass()) {
-                return ANONYMOUS_CLASS;
-            }
-            return clazz.getSimpleName();
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        }
-        return null;
+        // new Throwable() doesn't include the getStackTrace() frame
+        return getSimpleClassName(getCaller(new Throwable().getStackTrace(), STACK_INDEX - 1).getClassName());
     }
 
     /**
@@ -99,17 +110,64 @@ public class Debug {
     @Nonnull
     @Nullable
     public static String getCallerMethodName() {
-        StackTraceElement[] stElements = Thread.currentThread().getStackTrace();
-        int index = STACK_INDEX;
+        return getCaller(new Throwable().getStackTrace(), STACK_INDEX - 1).getMethodName();
+    }
 
-        if (stElements[index].getClassName().equalsIgnoreCase("de.static_interface.sinklibrary.Logger")) {
+    private static StackTraceElement getCaller(StackTraceElement[] stElements, int index) {
+        if (index + 1 < stElements.length && stElements[index].getClassName().equals(LOGGER_CLASS)) {
             index++; // fix for old Logger#debug calls
         }
+        return stElements[Math.min(index, stElements.length - 1)];
+    }
+
+    /**
+     * Get the simple name of a class from its binary name without loading it
+     */
+    static String getSimpleClassName(String className) {
+        if (StringUtil.isEmptyOrNull(className)) {
+            return ANONYMOUS_CLASS;
+        }
 
-        return stElements[index].getMethodName();
+        String[] parts = className.substring(className.lastIndexOf('.') + 1).split("\\$");
+        String name = parts[parts.length - 1];
+        if (parts.length > 1) {
+            if (isAnonymous(name)) {
+                return ANONYMOUS_CLASS;
+            }
+            if (!Character.isDigit(name.charAt(0))) {
+                // Nested classes are shown as their declaring class
+                name = parts[parts.length - 2];
+            }
+        }
+
+        if (isAnonymous(name)) {
+            return ANONYMOUS_CLASS;
+        }
+
+        // Local classes are prefixed with a number
+        int i = 0;
+        while (i < name.length() && Character.isDigit(name.charAt(i))) {
+            i++;
+        }
+        return name.substring(i);
+    }
+
+    private static boolean isAnonymous(String name) {
+        if (name.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public static void logMethodCall(@Nullable Object... arguments) {
+        if (!enabled) {
+            return;
+        }
         String args = "";
         if (arguments != null) {
             args = StringUtil.formatArrayToString(arguments, ", ");
@@ -123,9 +181,37 @@ public class Debug {
     }
 
     public static void log(@Nonnull Object o) {
+        if (!enabled) {
+            return;
+        }
         logInternal(Level.INFO, (o == null ? "null" : o.toString()), null);
     }
 
+    /**
+     * Log a message which is only built if debug is enabled
+     *
+     * @param message Supplier of the message
+     */
+    public static void log(@Nonnull Supplier<String> message) {
+        if (!enabled) {
+            return;
+        }
+        logInternal(Level.INFO, message.get(), null);
+    }
+
+    /**
+     * Log a message which is only built if debug is enabled
+     *
+     * @param level Level of the message
+     * @param message Supplier of the message
+     */
+    public static void log(@Nonnull Level level, @Nonnull Supplier<String> message) {
+        if (!enabled) {
+            return;
+        }
+        logInternal(level, message.get(), null);
+    }
+
     public static void log(@Nonnull Level level, @Nonnull String message) {
         logInternal(level, message, null);
     }
@@ -143,59 +229,27 @@ public class Debug {
     }
 
     private static void logInternal(@Nonnull Level level, @Nonnull String message, @Nullable Throwable throwable) {
-        if (!isEnabled()) {
+        if (!enabled) {
             return;
         }
 
-        Bukkit.getLogger().log(level, "[Debug] " + Debug.getCallerClassName() + " #" + getCallerMethodName() + ": " + message);
+        // [0] logInternal, [1] Debug#log..., [2] caller
+        StackTraceElement caller = getCaller(new Throwable().getStackTrace(), 2);
+        Bukkit.getLogger().log(level, "[Debug] " + getSimpleClassName(caller.getClassName()) + " #" + caller.getMethodName() + ": " + message);
         if (throwable != null) {
             String thr = ExceptionUtils.getStackTrace(throwable);
             Bukkit.getLogger().log(level, "[Debug] " + thr);
-            logToFile(level, String.format(ChatColor.stripColor(message) + "%n%s", thr));
+            logToFile(level, String.format(message + "%n%s", thr));
         } else {
-            logToFile(level, ChatColor.stripColor(message));
+            logToFile(level, message);
         }
     }
 
     public static void logToFile(@Nonnull Level level, @Nonnull String message) {
-        if (!isEnabled()) {
-            return;
-        }
-
-        File logFile = new File(SinkLibrary.getInstance().getCustomDataFolder(), "Debug.log");
-        if (!failed && !logFile.exists()) // Prevent creating/checking every
-                                          // time
-        {
-            if (!FileUtil.createFile(logFile)) {
-                return;
-            }
-            failed = true;
+        DebugLogWriter writer = logWriter;
+        if (!enabled || writer == null) {
             return;
-        } else if (failed) {
-            return;
-        }
-        if (fileWriter == null) {
-            try {
-                fileWriter = new FileWriter(logFile, true);
-            } catch (IOException e) {
-                SinkLibrary.getInstance().getLogger().log(Level.SEVERE, "Couldn't create FileWriter: ", e);
-                return;
-            }
         }
-
-        String newLine = System.getProperty("line.separator");
-        SimpleDateFormat format = new SimpleDateFormat("dd.MM.YYYY-hh:mm:ss");
-        String date = format.format(new Date());
-
-        try {
-            fileWriter.write('[' + date + ' ' + level.getName() + "]: " + message + newLine);
-        } catch (IOException ignored) {
-            // Do nothing...
-        }
-    }
-
-    @Nonnull
-    public static FileWriter getDebugLogFileWriter() {
-        return fileWriter;
+        writer.offer(level, message);
     }
 }
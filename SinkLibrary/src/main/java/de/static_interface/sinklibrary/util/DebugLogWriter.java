@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Writes debug messages to the debug log on a background thread. Messages are kept in a bounded buffer,
+ * if the writer can't keep up new messages are dropped instead of blocking the caller.
+ * The file is rotated when it exceeds its maximum size. If the file can't be written, the error is logged once
+ * and the file is opened again for the next messages.
+ */
+class DebugLogWriter {
+
+    public static final int BUFFER_SIZE = 4096;
+    public static final int MAX_BACKUPS = 3;
+
+    private final File file;
+    private final long maxSize;
+    private final BlockingQueue<Entry> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean work = true;
+
+    private BufferedWriter writer;
+    // Bytes written to the file, counted after encoding
+    private long size;
+    private boolean failed = false;
+
+    DebugLogWriter(File file, long maxSize) {
+        this.file = file;
+        this.maxSize = maxSize;
+        thread = new Thread(this::run, "SinkLibrary-Debug Log Thread");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return false if the message has been dropped because the buffer is full
+     */
+    boolean offer(Level level, String message) {
+        if (!buffer.offer(new Entry(System.currentTimeMillis(), level, message))) {
+            droppedMessages.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Write all buffered messages and close the file
+     */
+    void close() {
+        work = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    private void run() {
+        SimpleDateFormat format = new SimpleDateFormat("dd.MM.yyyy-HH:mm:ss");
+        String newLine = System.getProperty("line.separator");
+        List<Entry> entries = new ArrayList<>();
+        try {
+            while (work || !buffer.isEmpty()) {
+                try {
+                    Entry first = buffer.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    entries.add(first);
+                } catch (InterruptedException ignored) {
+                    // close() has been called, write the remaining messages
+                }
+                buffer.drainTo(entries);
+                if (entries.isEmpty()) {
+                    continue;
+                }
+
+                long dropped = droppedMessages.getAndSet(0);
+                try {
+                    for (Entry entry : entries) {
+                        String line = '[' + format.format(new Date(entry.time)) + ' ' + entry.level.getName() + "]: "
+                                      + ChatColor.stripColor(entry.message) + newLine;
+                        write(line);
+                    }
+
+                    if (dropped > 0) {
+                        write('[' + format.format(new Date()) + " WARNING]: " + dropped + " debug messages have been dropped" + newLine);
+                    }
+                    writer.flush();
+
+                    if (failed) {
+                        failed = false;
+                        Bukkit.getLogger().log(Level.INFO, "Debug log can be written again: " + file);
+                    }
+                } catch (IOException e) {
+                    // Report the lost messages with the next successful write
+                    droppedMessages.addAndGet(dropped + entries.size());
+                    closeWriter();
+                    if (!failed) {
+                        failed = true;
+                        Bukkit.getLogger().log(Level.SEVERE, "Couldn't write debug log: " + file + ", trying again with the next messages", e);
+                    }
+                } finally {
+                    entries.clear();
+                }
+            }
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void write(String line) throws IOException {
+        if (writer == null) {
+            open();
+        }
+
+        if (maxSize > 0 && size >= maxSize) {
+            closeWriter();
+            rotate();
+            open();
+        }
+
+        writer.write(line);
+    }
+
+    private void open() throws IOException {
+        size = file.exists() ? file.length() : 0;
+        writer = new BufferedWriter(new OutputStreamWriter(new CountingOutputStream(new FileOutputStream(file, true)), StandardCharsets.UTF_8));
+    }
+
+    private void rotate() {
+        File oldest = new File(file.getPath() + '.' + MAX_BACKUPS);
+        if (oldest.exists() && !oldest.delete()) {
+            return;
+        }
+        for (int i = MAX_BACKUPS - 1; i >= 1; i--) {
+            File backup = new File(file.getPath() + '.' + i);
+            if (backup.exists()) {
+                backup.renameTo(new File(file.getPath() + '.' + (i + 1)));
+            }
+        }
+        file.renameTo(new File(file.getPath() + ".1"));
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+
+    /**
+     * Counts the bytes which reach the file. Buffered text is counted when it's flushed, which happens after every batch.
+     */
+    private class CountingOutputStream extends FilterOutputStream {
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            size += len;
+        }
+    }
+
+    private static class Entry {
+
+        private final long time;
+        private final Level level;
+        private final String message;
+
+        private Entry(long time, Level level, String message) {
+            this.time = time;
+            this.level = level;
+            this.message = message;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 
 package de.static_interface.sinklibrary.util;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import de.static_interface.sinklibrary.SinkLibrary;
@@ -33,6 +34,7 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -124,31 +126,37 @@ public class FileUtil {
     }
 
     /**
-     * Writes the contents of a string to a file.
+     * Writes the contents of a string to a file. The contents are written to a temporary file first which then
+     * replaces the file, so the file is never left half written.
      *
      * @param source String to write.
      * @param file File to write to.
      * @return True on success.
-     * @throws IOException
+     * @throws IOException if the file couldn't be written, the file is left unchanged then
      * @author ElgarL
      */
     public static boolean stringToFile(String source, File file) throws IOException {
 
+        File tmp = new File(file.getPath() + ".tmp");
         try {
-
-            OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
-
-            //BufferedWriter out = new BufferedWriter(new FileWriter(FileName));
-
             source = source.replaceAll("\n", System.getProperty("line.separator"));
 
-            out.write(source);
-            out.close();
+            try (OutputStreamWriter out = new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8")) {
+                out.write(source);
+            }
+
+            try {
+                Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING);
+            }
             return true;
 
         } catch (IOException e) {
-            System.out.println("Exception ");
-            return false;
+            if (tmp.exists() && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+            throw e;
         }
     }
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.util;
+
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.user.SinkUser;
+import de.static_interface.sinklibrary.user.ConsoleUser;
+import de.static_interface.sinklibrary.user.IngameUser;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * Replaces {PLACEHOLDER}s in a single pass over the input. Values are only computed for placeholders which
+ * actually occur in the input. Used by {@link StringUtil#format(String, SinkUser, SinkUser, String, Map, boolean, Object...)}.
+ */
+public class PlaceholderFormatter {
+
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRr";
+    private static final int MAX_CACHED_PATTERNS = 256;
+
+    private static final Map<String, Placeholder> placeholders = new ConcurrentHashMap<>();
+    private static final Map<String, String> colors = new HashMap<>();
+    private static final Map<String, Pattern> customPatterns = new ConcurrentHashMap<>();
+
+    static {
+        for (ChatColor color : ChatColor.values()) {
+            colors.put(color.name(), color.toString());
+        }
+
+        registerPlaceholder(s -> s.getUser().getName(), "PLAYER", "PLAYERNAME", "NAME");
+        registerPlaceholder(s -> s.getUser().getDisplayName(), "DISPLAYNAME", "FORMATTEDNAME");
+        registerPlaceholder(s -> s.getUser() instanceof IngameUser ? ((IngameUser) s.getUser()).getBalance() : null, "BALANCE", "MONEY");
+        registerPlaceholder(s -> s.getUser() instanceof ConsoleUser ? "" : s.getUser().getPrimaryGroup(), "RANK", "GROUP");
+        registerPlaceholder(s -> s.getUser().getChatPrefix(), "PREFIX");
+
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getLocation().getX(), "X");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getLocation().getY(), "Y");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getLocation().getZ(), "Z");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getLevel(), "LEVEL");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getExp(), "XP", "EXP", "XPERIENCE", "EXPERIENCE");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getTotalExperience(),
+                            "TOTALXP", "TOTALEXP", "TOTALXPERIENCE", "TOTALEXPERIENCE");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getFoodLevel(), "FOOD", "FOODLEVEL");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getGameMode().name(), "GAMEMODE", "GM");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getHealth(), "HEALTH");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getMaxHealth(), "MAXHEALTH");
+        registerPlaceholder(s -> s.getPlayer() == null ? null : s.getPlayer().getWorld().getName(), "WORLD");
+    }
+
+    /**
+     * Register a placeholder for users. It can be used as {NAME} for the user and as {TNAME} or {TARGETNAME}
+     * for the target.
+     *
+     * @param placeholder the placeholder
+     * @param names names of the placeholder, case insensitive
+     */
+    public static void registerPlaceholder(Placeholder placeholder, String... names) {
+        for (String name : names) {
+            placeholders.put(name.toUpperCase(Locale.ROOT), placeholder);
+        }
+    }
+
+    public static void unregisterPlaceholder(String name) {
+        placeholders.remove(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * See {@link StringUtil#format(String, SinkUser, SinkUser, String, Map, boolean, Object...)}
+     */
+    public static String format(String str, @Nullable SinkUser user, @Nullable SinkUser target, @Nullable String userMessage,
+                                @Nullable Map<String, Object> customPlaceholders, boolean formatS, @Nullable Object... paramValues) {
+        boolean scanParams = formatS && paramValues != null && paramValues.length > 0;
+        if (str.indexOf('{') < 0 && (!scanParams || str.indexOf('%') < 0)) {
+            return ChatColor.translateAlternateColorCodes('&', str);
+        }
+
+        Subject userSubject = user == null ? null : new Subject(user);
+        Subject targetSubject = target == null ? null : new Subject(target);
+
+        StringBuilder out = new StringBuilder(str.length() + 16);
+        // Start and end of inserted user messages, these are excluded from color translation
+        int[] raw = null;
+        int rawCount = 0;
+
+        int length = str.length();
+        int i = 0;
+        while (i < length) {
+            char c = str.charAt(i);
+            if (c == '%' && scanParams) {
+                int end = parseFormatS(str, i);
+                if (end > 0) {
+                    int index = Integer.parseInt(str.substring(i + 1, end - 2)) - 1;
+                    if (index >= 0 && index < paramValues.length) {
+                        out.append(paramValues[index]);
+                        i = end;
+                        continue;
+                    }
+                }
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            if (c != '{') {
+                out.append(c);
+                i++;
+                continue;
+            }
+
+            int close = str.indexOf('}', i + 1);
+            if (close < 0) {
+                out.append(str, i, length);
+                break;
+            }
+
+            int nextOpen = str.indexOf('{', i + 1);
+            if (nextOpen != -1 && nextOpen < close) {
+                out.append(str, i, nextOpen);
+                i = nextOpen;
+                continue;
+            }
+
+            String token = str.substring(i + 1, close).toUpperCase(Locale.ROOT);
+            if (userMessage != null && (token.equals("MESSAGE") || token.equals("USERMESSAGE"))) {
+                if (raw == null) {
+                    raw = new int[4];
+                } else if (rawCount + 2 > raw.length) {
+                    int[] tmp = new int[raw.length * 2];
+                    System.arraycopy(raw, 0, tmp, 0, rawCount);
+                    raw = tmp;
+                }
+                raw[rawCount++] = out.length();
+                out.append(userMessage);
+                raw[rawCount++] = out.length();
+                i = close + 1;
+                continue;
+            }
+
+            Object value = resolve(token, userSubject, targetSubject, customPlaceholders, paramValues);
+            if (value == null) {
+                out.append(str, i, close + 1);
+            } else {
+                out.append(value);
+            }
+            i = close + 1;
+        }
+
+        translateColors(out, raw, rawCount);
+        return out.toString();
+    }
+
+    @Nullable
+    private static Object resolve(String token, @Nullable Subject user, @Nullable Subject target,
+                                  @Nullable Map<String, Object> customPlaceholders, @Nullable Object[] paramValues) {
+        Placeholder placeholder;
+        if (user != null) {
+            placeholder = placeholders.get(token);
+            if (placeholder != null) {
+                Object value = placeholder.getValue(user);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+
+        if (target != null && token.startsWith("T")) {
+            if (token.equals("TARGET") || token.equals("TNAME") || token.equals("TARGETNAME")) {
+                return target.getUser().getName();
+            }
+            String name = token.startsWith("TARGET") ? token.substring(6) : token.substring(1);
+            placeholder = placeholders.get(name);
+            if (placeholder != null) {
+                Object value = placeholder.getValue(target);
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+
+        if (token.equals("CURRENCY") && SinkLibrary.getInstance().isEconomyAvailable()) {
+            return VaultBridge.getCurrenyName();
+        }
+
+        String color = colors.get(token.replace(' ', '_'));
+        if (color != null) {
+            return color;
+        }
+
+        if (customPlaceholders != null && !customPlaceholders.isEmpty()) {
+            for (Map.Entry<String, Object> entry : customPlaceholders.entrySet()) {
+                if (matches(entry.getKey(), token)) {
+                    return String.valueOf(entry.getValue());
+                }
+            }
+        }
+
+        if (paramValues != null && token.length() > 0 && token.length() < 10 && isNumber(token)) {
+            int index = Integer.parseInt(token);
+            if (index < paramValues.length && String.valueOf(index).equals(token)) {
+                return String.valueOf(paramValues[index]);
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean matches(String key, String token) {
+        if (isLiteral(key)) {
+            return key.equalsIgnoreCase(token);
+        }
+
+        // Custom placeholders may be regular expressions, e.g. "TOWN(Y)?TAG"
+        Pattern pattern = customPatterns.get(key);
+        if (pattern == null) {
+            if (customPatterns.size() >= MAX_CACHED_PATTERNS) {
+                customPatterns.clear();
+            }
+            pattern = Pattern.compile(key, Pattern.CASE_INSENSITIVE);
+            customPatterns.put(key, pattern);
+        }
+        return pattern.matcher(token).matches();
+    }
+
+    private static boolean isLiteral(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNumber(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index after "%n$s" starting at start or -1 if there is none
+     */
+    private static int parseFormatS(String str, int start) {
+        int i = start + 1;
+        while (i < str.length() && str.charAt(i) >= '0' && str.charAt(i) <= '9') {
+            i++;
+        }
+        if (i == start + 1 || i - start > 10 || i + 1 >= str.length() || str.charAt(i) != '$' || str.charAt(i + 1) != 's') {
+            return -1;
+        }
+        return i + 2;
+    }
+
+    private static void translateColors(StringBuilder out, @Nullable int[] raw, int rawCount) {
+        int rawIndex = 0;
+        for (int i = 0; i < out.length() - 1; i++) {
+            while (raw != null && rawIndex < rawCount && raw[rawIndex + 1] <= i) {
+                rawIndex += 2;
+            }
+            if (raw != null && rawIndex < rawCount && i + 1 >= raw[rawIndex]) {
+                // Inside or directly before a user message
+                if (i >= raw[rawIndex]) {
+                    i = raw[rawIndex + 1] - 1;
+                }
+                continue;
+            }
+
+            if (out.charAt(i) == '&' && COLOR_CODES.indexOf(out.charAt(i + 1)) > -1) {
+                out.setCharAt(i, ChatColor.COLOR_CHAR);
+                out.setCharAt(i + 1, Character.toLowerCase(out.charAt(i + 1)));
+            }
+        }
+    }
+
+    public interface Placeholder {
+
+        /**
+         * @param subject the user or target the placeholder is used for
+         * @return the value or null if the placeholder is not available for the subject
+         */
+        @Nullable
+        Object getValue(Subject subject);
+    }
+
+    public static class Subject {
+
+        private final SinkUser user;
+        private Player player;
+        private boolean playerResolved = false;
+
+        private Subject(SinkUser user) {
+            this.user = user;
+        }
+
+        public SinkUser getUser() {
+            return user;
+        }
+
+        /**
+         * @return the player if the user is an online ingame user, otherwise null
+         */
+        @Nullable
+        public Player getPlayer() {
+            if (!playerResolved) {
+                playerResolved = true;
+                if (user instanceof IngameUser) {
+                    player = ((IngameUser) user).getPlayer();
+                }
+            }
+            return player;
+        }
+    }
+}
@@ -17,76 +17,45 @@
 
 package de.static_interface.sinklibrary.util;
 
-import org.bukkit.Bukkit;
+import de.static_interface.sinklibrary.SinkLibrary;
+import de.static_interface.sinklibrary.api.provider.IrcBridge;
 import org.pircbotx.Channel;
 import org.pircbotx.PircBotX;
 import org.pircbotx.User;
 
-import java.lang.reflect.Method;
-
 /**
- * As we can't use SinkIRC as dependency (it would cause a cyclic reference), we need to call the methods with reflection
+ * As we can't use SinkIRC as dependency (it would cause a cyclic reference), SinkIRC is accessed via the {@link IrcBridge}
+ *
+ * @deprecated use {@link SinkLibrary#getIrcBridge()}
  */
+@Deprecated
 public class SinkIrcReflection {
 
-    public static PircBotX getPircBotX() {
-        try {
-            Class<?> c = Class.forName("de.static_interface.sinkirc.SinkIRC");
-            Method method = c.getMethod("getIrcBot");
-            method.setAccessible(true);
-            return (PircBotX) method.invoke(Bukkit.getPluginManager().getPlugin("SinkIRC"));
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
+    private static IrcBridge getBridge() {
+        IrcBridge bridge = SinkLibrary.getInstance().getIrcBridge();
+        if (bridge == null) {
+            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?");
         }
+        return bridge;
+    }
+
+    public static PircBotX getPircBotX() {
+        return getBridge().getIrcBot();
     }
 
     public static boolean isIrcOp(User user) {
-        boolean value;
-        try {
-            //Use reflection because we can't add SinkIRC as dependency
-            Class<?> c = Class.forName("de.static_interface.sinkirc.IrcUtil");
-            Method method = c.getMethod("isOp", User.class);
-            method.setAccessible(true);
-            value = (boolean) method.invoke(null, user);
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
-        }
-        return value;
+        return getBridge().isOp(user);
     }
 
     public static void setOp(User user, Channel channel, boolean value) {
-        try {
-            //Use reflection because we can't add SinkIRC as dependency
-            Class<?> c = Class.forName("de.static_interface.sinkirc.IrcUtil");
-            Method method = c.getMethod("setOp", User.class, Channel.class, Boolean.class);
-            method.setAccessible(true);
-            method.invoke(null, user, channel, value);
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
-        }
+        getBridge().setOp(user, channel, value);
     }
 
     public static String getIrcCommandPrefix() {
-        try {
-            Class<?> c = Class.forName("de.static_interface.sinkirc.IrcUtil");
-            Method method = c.getMethod("getCommandPrefix", null);
-            if (!method.isAccessible()) {
-                method.setAccessible(true);
-            }
-            return (String) method.invoke(null);
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
-        }
+        return getBridge().getCommandPrefix();
     }
 
     public static void addToQueue(String message, String target) {
-        try {
-            Class<?> c = Class.forName("de.static_interface.sinkirc.queue.IrcQueue");
-            Method method = c.getMethod("addToQueue", String.class, String.class);
-            method.setAccessible(true);
-            method.invoke(null, message, target);
-        } catch (Exception e) {
-            throw new RuntimeException("Couldn't access SinkIRC! Did you install the correct version?", e);
-        }
+        getBridge().sendMessage(message, target);
     }
 }
@@ -19,9 +19,6 @@ package de.static_interface.sinklibrary.util;
 
 import de.static_interface.sinklibrary.SinkLibrary;
 import de.static_interface.sinklibrary.api.user.SinkUser;
-import de.static_interface.sinklibrary.user.ConsoleUser;
-import de.static_interface.sinklibrary.user.IngameUser;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
 import java.util.List;
@@ -140,119 +137,7 @@ public class StringUtil {
      */
     public static String format(String str, @Nullable SinkUser user, @Nullable SinkUser target, @Nullable String userMessage,
                                 @Nullable Map<String, Object> customPlaceholders, boolean formatS, @Nullable Object... paramValues) {
-        if (user != null) {
-            str = str.replaceAll("(?i)\\{(PLAYER(NAME)?|NAME)\\}", user.getName());
-            str = str.replaceAll("(?i)\\{(DISPLAYNAME|FORMATTEDNAME)\\}", user.getDisplayName());
-            if (user instanceof IngameUser) {
-                str = str.replaceAll("(?i)\\{(BALANCE|MONEY)\\}", String.valueOf(((IngameUser) user).getBalance()));
-            }
-            if (!(user instanceof ConsoleUser)) {
-                str = str.replaceAll("(?i)\\{(RANK|GROUP)\\}", user.getPrimaryGroup());
-            } else {
-                str = str.replaceAll("(?i)\\{(RANK|GROUP)\\}", "");
-            }
-            str = str.replaceAll("(?i)\\{PREFIX\\}", user.getChatPrefix());
-        }
-
-        if (user != null && user instanceof IngameUser && ((IngameUser) user).getPlayer() != null) {
-            Player p = ((IngameUser) user).getPlayer();
-            str = str.replaceAll("(?i)\\{X\\}", String.valueOf(p.getLocation().getX()));
-            str = str.replaceAll("(?i)\\{Y\\}", String.valueOf(p.getLocation().getY()));
-            str = str.replaceAll("(?i)\\{Z\\}", String.valueOf(p.getLocation().getZ()));
-            str = str.replaceAll("(?i)\\{LEVEL\\}", String.valueOf(p.getLevel()));
-            str = str.replaceAll("(?i)\\{(E)?XP(ERIENCE)?\\}", String.valueOf(p.getExp()));
-            str = str.replaceAll("(?i)\\{TOTAL(E)?XP(ERIENCE)?\\}", String.valueOf(p.getTotalExperience()));
-            str = str.replaceAll("(?i)\\{(FOOD|FOODLEVEL)\\}", String.valueOf(p.getFoodLevel()));
-            str = str.replaceAll("(?i)\\{(GAMEMODE|GM)\\}", p.getGameMode().name());
-            str = str.replaceAll("(?i)\\{HEALTH\\}", String.valueOf(p.getHealth()));
-            str = str.replaceAll("(?i)\\{MAXHEALTH}", String.valueOf(p.getMaxHealth()));
-            str = str.replaceAll("(?i)\\{WORLD\\}", p.getWorld().getName());
-        }
-
-        if (target != null) {
-            str = str.replaceAll("(?i)\\{(T(ARGET)?(NAME)|TARGET)\\}", target.getName());
-            str = str.replaceAll("(?i)\\{T(ARGET)?(DISPLAYNAME|FORMATTEDNAME)\\}", target.getDisplayName());
-            if (target instanceof IngameUser) {
-                str = str.replaceAll("(?i)\\{T(ARGET)?(BALANCE|MONEY)\\}", String.valueOf(((IngameUser) target).getBalance()));
-            }
-
-            if (!(target instanceof ConsoleUser)) {
-                str = str.replaceAll("(?i)\\{T(ARGET)?(RANK|GROUP)\\}", target.getPrimaryGroup());
-            } else {
-                str = str.replaceAll("(?i)\\{T(ARGET)?(RANK|GROUP)\\}", "");
-            }
-
-            str = str.replaceAll("(?i)\\{T(ARGET)?PREFIX\\}", target.getChatPrefix());
-        }
-
-        if (target != null && target instanceof IngameUser && ((IngameUser) target).getPlayer() != null) {
-            Player p = ((IngameUser) target).getPlayer();
-            str = str.replaceAll("(?i)\\{T(ARGET)?X\\}", String.valueOf(p.getLocation().getX()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?Y\\}", String.valueOf(p.getLocation().getY()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?Z\\}", String.valueOf(p.getLocation().getZ()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?LEVEL\\}", String.valueOf(p.getLevel()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?(E)?XP(ERIENCE)?\\}", String.valueOf(p.getExp()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?TOTAL(E)?XP(ERIENCE)?\\}", String.valueOf(p.getTotalExperience()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?(FOOD|FOODLEVEL)\\}", String.valueOf(p.getFoodLevel()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?(GAMEMODE|GM)\\}", p.getGameMode().name());
-            str = str.replaceAll("(?i)\\{T(ARGET)?HEALTH\\}", String.valueOf(p.getHealth()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?MAXHEALTH}", String.valueOf(p.getMaxHealth()));
-            str = str.replaceAll("(?i)\\{T(ARGET)?WORLD\\}", p.getWorld().getName());
-        }
-
-        if (SinkLibrary.getInstance().isEconomyAvailable()) {
-            str = str.replaceAll("(?i)\\{CURRENCY\\}", VaultBridge.getCurrenyName());
-        }
-
-        str = str.replaceAll("(?i)\\{AQUA\\}", ChatColor.AQUA.toString());
-        str = str.replaceAll("(?i)\\{BLACK\\}", ChatColor.BLACK.toString());
-        str = str.replaceAll("(?i)\\{BOLD\\}", ChatColor.BOLD.toString());
-        str = str.replaceAll("(?i)\\{BLUE\\}", ChatColor.BLUE.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)AQUA\\}", ChatColor.DARK_AQUA.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)BLUE\\}", ChatColor.DARK_BLUE.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)GRAY\\}", ChatColor.DARK_GRAY.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)GREEN\\}", ChatColor.DARK_GREEN.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)PURPLE\\}", ChatColor.DARK_PURPLE.toString());
-        str = str.replaceAll("(?i)\\{DARK(_|\\s)RED\\}", ChatColor.DARK_RED.toString());
-        str = str.replaceAll("(?i)\\{GOLD\\}", ChatColor.GOLD.toString());
-        str = str.replaceAll("(?i)\\{GRAY\\}", ChatColor.GRAY.toString());
-        str = str.replaceAll("(?i)\\{GREEN\\}", ChatColor.GREEN.toString());
-        str = str.replaceAll("(?i)\\{ITALIC\\}", ChatColor.ITALIC.toString());
-        str = str.replaceAll("(?i)\\{LIGHT(_|\\s)PURPLE\\}", ChatColor.LIGHT_PURPLE.toString());
-        str = str.replaceAll("(?i)\\{MAGIC\\}", ChatColor.MAGIC.toString());
-        str = str.replaceAll("(?i)\\{RED\\}", ChatColor.RED.toString());
-        str = str.replaceAll("(?i)\\{RESET\\}", ChatColor.RESET.toString());
-        str = str.replaceAll("(?i)\\{STRIKETHROUGH\\}", ChatColor.STRIKETHROUGH.toString());
-        str = str.replaceAll("(?i)\\{UNDERLINE\\}", ChatColor.UNDERLINE.toString());
-        str = str.replaceAll("(?i)\\{WHITE\\}", ChatColor.WHITE.toString());
-        str = str.replaceAll("(?i)\\{YELLOW\\}", ChatColor.YELLOW.toString());
-
-        if (customPlaceholders != null) {
-            for (String placeHolder : customPlaceholders.keySet()) {
-                str = str.replaceAll("(?i)(\\{" + placeHolder.toUpperCase() + "\\})",
-                                     String.valueOf(customPlaceholders.get(placeHolder)));
-            }
-        }
-
-        if (paramValues != null) {
-            int i = 0;
-            for (Object s : paramValues) {
-                str = str.replaceAll("\\{" + i + "\\}", String.valueOf(s));
-                i++;
-                if (formatS) {
-                    str = str.replaceAll("%" + i + "\\$\\s", String.valueOf(s));
-                }
-            }
-        }
-
-        str = ChatColor.translateAlternateColorCodes('&', str);
-
-        // Don't translate color on these placeholders:
-        if (userMessage != null) {
-            str = str.replaceAll("(?i)\\{(USER)?MESSAGE\\}", stripRegex(userMessage));
-        }
-
-        return str;
+        return PlaceholderFormatter.format(str, user, target, userMessage, customPlaceholders, formatS, paramValues);
     }
 
     /**
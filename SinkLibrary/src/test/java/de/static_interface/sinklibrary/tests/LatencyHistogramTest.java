@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import de.static_interface.sinklibrary.profiler.LatencyHistogram;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        assertEquals(25, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(100));
+        assertEquals(50, histogram.getMax());
+        assertEquals(25.5, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(50000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithin(50000, histogram.getPercentile(50));
+        assertWithin(50000, histogram.getPercentile(99));
+        assertWithin(1000000, histogram.getPercentile(99.5));
+        assertEquals(1000000, histogram.getMax());
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                   actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKETS);
+    }
+}
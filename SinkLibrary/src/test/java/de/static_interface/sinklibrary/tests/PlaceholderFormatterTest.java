@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import de.static_interface.sinklibrary.util.StringUtil;
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PlaceholderFormatterTest {
+
+    @Test
+    public void testColors() {
+        assertEquals(ChatColor.RED + "a" + ChatColor.DARK_AQUA + "b" + ChatColor.DARK_AQUA,
+                     StringUtil.format("{red}a{DARK_AQUA}b{dark aqua}", (Object[]) null));
+        assertEquals(ChatColor.GREEN + "x", StringUtil.format("&ax", (Object[]) null));
+    }
+
+    @Test
+    public void testParams() {
+        assertEquals("a 1 b 2 {2}", StringUtil.format("a {0} b {1} {2}", 1, 2));
+        assertEquals("1-2", StringUtil.format("%1$s-%2$s", 1, 2));
+    }
+
+    @Test
+    public void testUnknownPlaceholders() {
+        assertEquals("{UNKNOWN} {{0} {", StringUtil.format("{UNKNOWN} {{0} {", (Object[]) null));
+    }
+
+    @Test
+    public void testCustomPlaceholders() {
+        Map<String, Object> custom = new HashMap<>();
+        custom.put("CHANNEL", "[Local]");
+        custom.put("TOWN(Y)?TAG", "[Town]");
+        assertEquals("[Local] [Town] [Town]", StringUtil.format("{channel} {TOWNTAG} {TownyTag}", custom));
+    }
+
+    @Test
+    public void testUserMessage() {
+        // Placeholders and color codes in the user message must not be replaced
+        assertEquals(ChatColor.RED + "> {RED} &a $1",
+                     StringUtil.format("&c> {MESSAGE}", null, null, "{RED} &a $1", null, false, (Object[]) null));
+    }
+}
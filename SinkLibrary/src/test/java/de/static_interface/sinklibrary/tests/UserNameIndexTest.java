@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2013 - 2014 http://static-interface.de and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.static_interface.sinklibrary.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.static_interface.sinklibrary.user.UserNameIndex;
+import org.bukkit.ChatColor;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class UserNameIndexTest {
+
+    @Test
+    public void testExactLookupIgnoresCase() {
+        UserNameIndex<String> index = new UserNameIndex<>();
+        index.put("notch", "Notch", null);
+        index.put("jeb", "jeb_", ChatColor.GOLD + "Jens");
+
+        assertEquals("notch", index.getExact("NOTCH"));
+        assertEquals("jeb", index.getExact("jeb_"));
+        assertEquals("jeb", index.getExact("jens"));
+        assertNull(index.getExact("Not"));
+    }
+
+    @Test
+    public void testPrefixLookup() {
+        UserNameIndex<String> index = new UserNameIndex<>();
+        index.put("ab", "Ab", null);
+        index.put("abc", "abc", null);
+        index.put("b", "b", "Abby");
+
+        assertEquals("ab", index.getFirstByPrefix("a"));
+        assertEquals("abc", index.getFirstByPrefix("ABC"));
+        assertEquals("b", index.getFirstByPrefix("abb"));
+        assertNull(index.getFirstByPrefix("c"));
+        assertEquals(Arrays.asList("ab", "abc", "b"), index.getByPrefix("ab"));
+    }
+
+    @Test
+    public void testCompletionsPreferDisplayName() {
+        UserNameIndex<String> index = new UserNameIndex<>();
+        index.put("notch", "Notch", null);
+        index.put("jeb", "jeb_", ChatColor.GOLD + "Jens");
+        index.put("dinnerbone", "Dinnerbone", "Nathan");
+
+        Map<String, String> completions = index.getCompletions("n");
+        assertEquals(2, completions.size());
+        assertEquals("Notch", completions.get("notch"));
+        assertEquals("Nathan", completions.get("dinnerbone"));
+
+        assertEquals("jeb_", index.getCompletions("jeb").get("jeb"));
+        assertEquals("Jens", index.getCompletions("je").get("jeb"));
+        assertEquals("Jens", index.getCompletions("jen").get("jeb"));
+        assertEquals(3, index.getCompletions("").size());
+        assertTrue(index.getCompletions("x").isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        UserNameIndex<String> index = new UserNameIndex<>();
+        index.put("user", "User", "Old");
+        index.put("user", "User", "New");
+
+        assertNull(index.getExact("Old"));
+        assertEquals("user", index.getExact("new"));
+
+        index.remove("user");
+        assertNull(index.getExact("User"));
+        assertNull(index.getFirstByPrefix("N"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testSharedNames() {
+        UserNameIndex<String> index = new UserNameIndex<>();
+        index.put("first", "Steve", null);
+        index.put("second", "steve", null);
+        index.put("third", "Alex", "Steve");
+
+        assertEquals("first", index.getExact("steve"));
+        assertEquals(Arrays.asList("first", "second", "third"), index.getByPrefix("st"));
+        assertEquals("steve", index.getCompletions("s").get("second"));
+
+        index.remove("second");
+        assertEquals("first", index.getExact("steve"));
+
+        index.remove("first");
+        assertEquals("third", index.getExact("steve"));
+        assertEquals("Steve", index.getCompletions("st").get("third"));
+    }
+}